@@ -0,0 +1,114 @@
+package nl.quintor.abn.recipe.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Read-through cache of the ingredient catalog on the lower case name, so looking up an ingredient for an
+ * instruction does not need the database. A miss is loaded with a single query, names that do not exist are not
+ * cached. Ingredients are never changed or deleted, so an entry only has to be added when an ingredient is created.
+ * <p>
+ * The cache keeps the ID and vegetarian flag, every lookup returns a new detached ingredient built from them, so a
+ * caller can not change the cached entry.
+ */
+@Component
+public class IngredientCatalogCache implements MonitoredCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngredientCatalogCache.class);
+
+    private final IngredientRepository ingredientRepository;
+
+    private final Cache<String, Entry> cache;
+
+    public IngredientCatalogCache(IngredientRepository ingredientRepository,
+                                  @Value("${recipe.ingredient.cache.maximum-size:10000}") long maximumSize) {
+        this.ingredientRepository = ingredientRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Method which finds the ingredient with the name, ignoring case
+     *
+     * @param name the name of the ingredient
+     * @return a detached copy of the ingredient, empty when it does not exist
+     */
+    public Optional<Ingredient> findByName(String name) {
+        return Optional.ofNullable(cache.get(toKey(name), this::load))
+                .map(Entry::toIngredient);
+    }
+
+    /**
+     * Method which adds a created ingredient. Inside a transaction this happens after the commit, so a rolled back
+     * ingredient is never served
+     *
+     * @param ingredient the saved ingredient
+     */
+    public void put(Ingredient ingredient) {
+        Entry entry = new Entry(ingredient.getId(), ingredient.getName(), ingredient.isVegetarian());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(toKey(entry.name), entry);
+                }
+            });
+        } else {
+            cache.put(toKey(entry.name), entry);
+        }
+    }
+
+    private Entry load(String key) {
+        LOG.debug("Loading ingredient " + key + " into the catalog cache");
+        return ingredientRepository.findByLowerCaseName(key)
+                .map(ingredient -> new Entry(ingredient.getId(), ingredient.getName(), ingredient.isVegetarian()))
+                .orElse(null);
+    }
+
+    private static String toKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String getName() {
+        return "ingredient-catalog";
+    }
+
+    @Override
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @lombok.Value
+    private static class Entry {
+        long id;
+        String name;
+        boolean vegetarian;
+
+        private Ingredient toIngredient() {
+            Ingredient ingredient = new Ingredient(name, vegetarian);
+            ingredient.setId(id);
+            return ingredient;
+        }
+    }
+}
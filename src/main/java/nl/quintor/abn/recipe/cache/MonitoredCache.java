@@ -0,0 +1,15 @@
+package nl.quintor.abn.recipe.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Cache of which the statistics are exposed on the /caches endpoint
+ */
+public interface MonitoredCache {
+
+    String getName();
+
+    long estimatedSize();
+
+    CacheStats stats();
+}
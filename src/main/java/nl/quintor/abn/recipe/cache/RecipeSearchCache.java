@@ -0,0 +1,141 @@
+package nl.quintor.abn.recipe.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import nl.quintor.abn.recipe.repository.RecipeIngredientView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of search results per person and normalized filter. Entries are evicted on size and on age, and
+ * all entries of a person are invalidated when the recipes or instructions of that person change.
+ * <p>
+ * Every key contains the generation of the person, which is raised on invalidation. A search that started before
+ * a change stores its result under the old generation, so it can never be served after the change. The entries of
+ * older generations are not looked up again and are left to the size and age evictions.
+ * <p>
+ * A generation is forgotten when the person has not searched for twice the age of the results. By then every result
+ * of the person has expired, so starting again at the first generation can not serve a result from before a change.
+ */
+@Component
+public class RecipeSearchCache implements MonitoredCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeSearchCache.class);
+
+    private final Cache<Key, List<RecipeIngredientView>> cache;
+
+    private final Cache<Long, Long> generations;
+
+    @Autowired
+    public RecipeSearchCache(@Value("${recipe.search.cache.maximum-size:10000}") long maximumSize,
+                             @Value("${recipe.search.cache.expire-after-write-seconds:30}") long expireAfterWriteSeconds) {
+        this(maximumSize, expireAfterWriteSeconds, ForkJoinPool.commonPool(), Ticker.systemTicker());
+    }
+
+    /**
+     * Creates the cache with the executor of the maintenance and the clock of the expiration, so tests can run
+     * evictions on the calling thread and let time pass
+     */
+    RecipeSearchCache(long maximumSize, long expireAfterWriteSeconds, Executor executor, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .executor(executor)
+                .ticker(ticker)
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .executor(executor)
+                .ticker(ticker)
+                .expireAfterAccess(Duration.ofSeconds(expireAfterWriteSeconds).multipliedBy(2))
+                .build();
+    }
+
+    /**
+     * Method which returns the cached result of the search, or loads and caches it
+     *
+     * @param personId the ID of the searching person
+     * @param filter   the normalized wishes of the search
+     * @param loader   loads the result on a miss, exceptions are passed on and not cached
+     * @return the result of the search
+     */
+    public List<RecipeIngredientView> get(long personId, SearchFilter filter, Supplier<List<RecipeIngredientView>> loader) {
+        Long generation = generations.getIfPresent(personId);
+        Key key = new Key(personId, generation == null ? 0L : generation, filter);
+        return cache.get(key, ignored -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Method which invalidates all search results of the person. Inside a transaction this happens after the commit,
+     * so a search between the invalidation and the commit can not cache the old state again
+     *
+     * @param personId the ID of the person whose recipes changed
+     */
+    public void invalidatePerson(long personId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(personId);
+                }
+            });
+        } else {
+            invalidateNow(personId);
+        }
+    }
+
+    private void invalidateNow(long personId) {
+        generations.asMap().merge(personId, 1L, Long::sum);
+        LOG.debug("Invalidated the cached searches of person " + personId);
+    }
+
+    /**
+     * Performs the pending maintenance, such as size evictions, which the cache otherwise does asynchronously
+     */
+    void cleanUp() {
+        cache.cleanUp();
+        generations.cleanUp();
+    }
+
+    /**
+     * @return the amount of persons of which the generation is remembered
+     */
+    long estimatedGenerations() {
+        return generations.estimatedSize();
+    }
+
+    @Override
+    public String getName() {
+        return "recipe-search";
+    }
+
+    @Override
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @lombok.Value
+    private static class Key {
+        long personId;
+        long generation;
+        SearchFilter filter;
+    }
+}
@@ -0,0 +1,61 @@
+package nl.quintor.abn.recipe.cache;
+
+import lombok.Value;
+import nl.quintor.abn.recipe.service.RecipeKeyset;
+import nl.quintor.abn.recipe.service.RecipeSort;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Normalized wishes of a search, passed to the search helpers and used as part of the cache key. Wishes that do not
+ * change the result are left out, so equivalent searches share an entry: vegetarian false equals no vegetarian wish,
+ * the ingredient lists are sorted without duplicates, match all only counts together with included ingredients and
+ * ignore case only counts together with an instruction text. A query is kept as its normalized text.
+ */
+@Value
+public class SearchFilter {
+
+    Boolean vegetarian;
+    Integer servings;
+    Integer minServings;
+    Integer maxServings;
+    List<String> includeIngredients;
+    boolean matchAll;
+    List<String> excludeIngredients;
+    String instruction;
+    boolean ignoreCase;
+    String query;
+    RecipeSort sort;
+    Sort.Direction direction;
+    RecipeKeyset after;
+    Integer limit;
+
+    public static SearchFilter of(Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<Integer> minServings, Optional<Integer> maxServings, Optional<List<String>> includeIngredient, Optional<Boolean> matchAll, Optional<List<String>> excludeIngredient, Optional<String> instruction, Optional<Boolean> ignoreCase, Optional<String> query, RecipeSort sort, Sort.Direction direction, Optional<RecipeKeyset> after, Optional<Integer> limit) {
+        return new SearchFilter(
+                vegetarian.filter(Boolean::booleanValue).orElse(null),
+                servings.orElse(null),
+                minServings.orElse(null),
+                maxServings.orElse(null),
+                includeIngredient.map(SearchFilter::normalize).orElse(null),
+                includeIngredient.isPresent() && matchAll.orElse(false),
+                excludeIngredient.map(SearchFilter::normalize).orElse(null),
+                instruction.orElse(null),
+                instruction.isPresent() && ignoreCase.orElse(false),
+                query.orElse(null),
+                sort,
+                direction,
+                after.orElse(null),
+                limit.orElse(null)
+        );
+    }
+
+    private static List<String> normalize(List<String> ingredientNames) {
+        return ingredientNames.stream()
+                .distinct()
+                .sorted()
+                .collect(Collectors.toUnmodifiableList());
+    }
+}
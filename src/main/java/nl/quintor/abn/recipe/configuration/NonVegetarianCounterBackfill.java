@@ -0,0 +1,29 @@
+package nl.quintor.abn.recipe.configuration;
+
+import nl.quintor.abn.recipe.service.NonVegetarianCounterService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills the non-vegetarian counter of the recipes on startup and checks the result. This is a one-off for a
+ * database with recipes from before the counter existed, so it only runs when
+ * {@code recipe.non-vegetarian-counter.backfill} is set to true. The rows of data.sql contain the counter.
+ */
+@Component
+@ConditionalOnProperty(name = "recipe.non-vegetarian-counter.backfill", havingValue = "true")
+public class NonVegetarianCounterBackfill implements ApplicationRunner {
+
+    private final NonVegetarianCounterService nonVegetarianCounterService;
+
+    public NonVegetarianCounterBackfill(NonVegetarianCounterService nonVegetarianCounterService) {
+        this.nonVegetarianCounterService = nonVegetarianCounterService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        nonVegetarianCounterService.backfill();
+        nonVegetarianCounterService.findInconsistentRecipes();
+    }
+}
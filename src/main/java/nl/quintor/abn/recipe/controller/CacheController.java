@@ -0,0 +1,59 @@
+package nl.quintor.abn.recipe.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.v3.oas.annotations.Operation;
+import nl.quintor.abn.recipe.cache.MonitoredCache;
+import nl.quintor.abn.recipe.controller.dto.cache.CacheStatsDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Controller
+@RequestMapping("/caches")
+public class CacheController {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final List<MonitoredCache> caches;
+
+    public CacheController(List<MonitoredCache> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * Method which fetches the hit, miss, eviction and load statistics of the caches
+     *
+     * @return the statistics per cache
+     */
+    @GetMapping
+    @Operation(summary = "Get the statistics of the caches")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully fetched cache statistics")
+    })
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        return ResponseEntity.ok().body(caches.stream()
+                .map(this::toCacheStatsDto)
+                .collect(Collectors.toList()));
+    }
+
+    private CacheStatsDto toCacheStatsDto(MonitoredCache cache) {
+        CacheStats stats = cache.stats();
+
+        CacheStatsDto cacheStatsDto = new CacheStatsDto();
+        cacheStatsDto.setName(cache.getName());
+        cacheStatsDto.setSize(cache.estimatedSize());
+        cacheStatsDto.setHitCount(stats.hitCount());
+        cacheStatsDto.setMissCount(stats.missCount());
+        cacheStatsDto.setEvictionCount(stats.evictionCount());
+        cacheStatsDto.setHitRate(stats.hitRate());
+        cacheStatsDto.setLoadCount(stats.loadCount());
+        cacheStatsDto.setAverageLoadMillis(stats.averageLoadPenalty() / NANOS_PER_MILLI);
+        return cacheStatsDto;
+    }
+}
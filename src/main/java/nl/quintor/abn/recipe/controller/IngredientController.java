@@ -7,20 +7,28 @@ import nl.quintor.abn.recipe.controller.dto.ingredient.CreateIngredientDto;
 import nl.quintor.abn.recipe.controller.dto.ingredient.IngredientDto;
 import nl.quintor.abn.recipe.controller.dto.ingredient.IngredientMapper;
 import nl.quintor.abn.recipe.exception.IngredientAlreadyExistException;
+import nl.quintor.abn.recipe.exception.InvalidPageRequestException;
 import nl.quintor.abn.recipe.service.IngredientService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.validation.Valid;
 import java.net.URI;
+import java.util.List;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/ingredients")
 public class IngredientController {
 
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+    private static final int MAX_SUGGEST_LIMIT = 50;
+
     private final IngredientService ingredientService;
 
     public IngredientController(IngredientService ingredientService) {
@@ -50,4 +58,32 @@ public class IngredientController {
 
         return ResponseEntity.created(URI.create("/ingredients/" + ingredientDto.getId())).body(ingredientDto);
     }
+
+    /**
+     * Method which completes the start of an ingredient name to the ingredients of the catalog, for autocompletion
+     *
+     * @param prefix the start of the ingredient name, the case is ignored
+     * @param limit  the maximum amount of ingredients, {@value #DEFAULT_SUGGEST_LIMIT} when empty
+     * @return the ingredients whose name starts with the prefix with their vegetarian flag, ordered by name
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Complete the start of an ingredient name to the existing ingredients")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully fetched suggestions"),
+            @ApiResponse(code = 400, message = "Invalid limit", response = InvalidPageRequestException.class)
+    })
+    public ResponseEntity<List<IngredientDto>> suggestIngredients(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Optional<Integer> limit
+    ) {
+
+        int suggestions = limit.orElse(DEFAULT_SUGGEST_LIMIT);
+        if (suggestions < 1 || suggestions > MAX_SUGGEST_LIMIT) {
+            throw new InvalidPageRequestException("The limit should be between 1 and " + MAX_SUGGEST_LIMIT);
+        }
+
+        return ResponseEntity.ok().body(IngredientMapper.INSTANCE.toListIngredientDto(
+                ingredientService.suggest(prefix, suggestions)
+        ));
+    }
 }
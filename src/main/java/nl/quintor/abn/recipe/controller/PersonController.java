@@ -6,25 +6,45 @@ import io.swagger.v3.oas.annotations.Operation;
 import nl.quintor.abn.recipe.controller.dto.person.CreatePersonDto;
 import nl.quintor.abn.recipe.controller.dto.person.PersonDto;
 import nl.quintor.abn.recipe.controller.dto.person.PersonMapper;
+import nl.quintor.abn.recipe.exception.InvalidExportFormatException;
 import nl.quintor.abn.recipe.exception.PersonAlreadyExistEception;
+import nl.quintor.abn.recipe.exception.PersonNotFoundException;
+import nl.quintor.abn.recipe.exception.UnauthorizedException;
 import nl.quintor.abn.recipe.service.PersonService;
+import nl.quintor.abn.recipe.service.RecipeExportFormat;
+import nl.quintor.abn.recipe.service.RecipeExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/persons")
 public class PersonController {
 
+    private static final String GZIP = "gzip";
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
     private final PersonService personService;
 
-    public PersonController(PersonService personService) {
+    private final RecipeExportService recipeExportService;
+
+    public PersonController(PersonService personService, RecipeExportService recipeExportService) {
         this.personService = personService;
+        this.recipeExportService = recipeExportService;
     }
 
     /**
@@ -50,4 +70,68 @@ public class PersonController {
 
         return ResponseEntity.created(URI.create("/persons/" + personDto.getId())).body(personDto);
     }
+
+    /**
+     * Method which downloads all recipes of a person. The recipes are written while they are read from the
+     * database and compressed with gzip when the client accepts it
+     *
+     * @param id             the ID of the person whose recipes are exported
+     * @param personId       the ID of the requesting person
+     * @param format         json (default) or csv
+     * @param acceptEncoding the encodings the client accepts
+     * @param response       the response the recipes are written to
+     */
+    @GetMapping("/{id}/recipes/export")
+    @Operation(summary = "Download all recipes of a person as JSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully exported recipes"),
+            @ApiResponse(code = 400, message = "Export format is not supported", response = InvalidExportFormatException.class),
+            @ApiResponse(code = 401, message = "Not the owner of the recipes", response = UnauthorizedException.class),
+            @ApiResponse(code = 404, message = "Person not found", response = PersonNotFoundException.class)
+    })
+    public void exportRecipes(
+            @PathVariable long id,
+            @RequestHeader(HttpHeaders.AUTHORIZATION) long personId,
+            @RequestParam(required = false) Optional<String> format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) Optional<String> acceptEncoding,
+            HttpServletResponse response
+    ) {
+
+        RecipeExportFormat exportFormat = format.map(RecipeExportFormat::fromName).orElse(RecipeExportFormat.JSON);
+        boolean gzip = acceptEncoding.map(PersonController::acceptsGzip).orElse(false);
+
+        recipeExportService.export(personId, id, exportFormat, () -> openExport(response, id, exportFormat, gzip));
+    }
+
+    /**
+     * Private method that sets the headers of the download and opens the body
+     */
+    private static OutputStream openExport(HttpServletResponse response, long id, RecipeExportFormat format, boolean gzip) {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("recipes-" + id + "." + format.getExtension())
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        try {
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                return new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+            }
+            return response.getOutputStream();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Private method that checks if gzip is one of the accepted encodings, and not refused with a quality of 0
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(coding -> coding.replace(" ", "").toLowerCase(Locale.ROOT).split(";"))
+                .anyMatch(coding -> coding[0].equals(GZIP) && Arrays.stream(coding).skip(1).noneMatch(parameter -> parameter.matches("q=0(\\.0*)?")));
+    }
 }
@@ -1,5 +1,7 @@
 package nl.quintor.abn.recipe.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.v3.oas.annotations.Operation;
@@ -7,31 +9,82 @@ import nl.quintor.abn.recipe.controller.dto.instruction.CreateInstructionDto;
 import nl.quintor.abn.recipe.controller.dto.instruction.InstructionDto;
 import nl.quintor.abn.recipe.controller.dto.instruction.InstructionMapper;
 import nl.quintor.abn.recipe.controller.dto.recipe.CreateRecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.ImportRecipeDto;
 import nl.quintor.abn.recipe.controller.dto.recipe.PatchRecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeCursor;
 import nl.quintor.abn.recipe.controller.dto.recipe.RecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeFacetsDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeImportResultDto;
 import nl.quintor.abn.recipe.controller.dto.recipe.RecipeMapper;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeStreamImportResultDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeSuggestionDto;
 import nl.quintor.abn.recipe.exception.*;
 import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.service.ImportedRecipe;
+import nl.quintor.abn.recipe.service.IngredientService;
+import nl.quintor.abn.recipe.service.RecipeImportService;
+import nl.quintor.abn.recipe.service.RecipeKeyset;
 import nl.quintor.abn.recipe.service.RecipeService;
+import nl.quintor.abn.recipe.service.RecipeSort;
+import nl.quintor.abn.recipe.service.RecipeStreamImportService;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/recipes")
 public class RecipeController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String RESOLVED_INGREDIENTS_HEADER = "X-Resolved-Ingredients";
+    private static final String ID_SORT = "id";
+    private static final String NAME_SORT = "name";
+    private static final String SERVINGS_SORT = "servings";
+    private static final String INGREDIENTS_SORT = "ingredients";
+    private static final String SORT_SEPARATOR = ",";
+    private static final String DESCENDING_CURSOR_SUFFIX = ":desc";
+    private static final int DEFAULT_RANKED_LIMIT = 10;
+    private static final int MAX_RANKED_LIMIT = 100;
+    private static final int DEFAULT_PUBLIC_LIMIT = 100;
+    private static final int MAX_PUBLIC_LIMIT = 1000;
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+    private static final int MAX_SUGGEST_LIMIT = 50;
+    private static final String NDJSON = "application/x-ndjson";
+
     private final RecipeService recipeService;
 
-    public RecipeController(RecipeService recipeService) {
+    private final IngredientService ingredientService;
+
+    private final RecipeImportService recipeImportService;
+
+    private final RecipeStreamImportService recipeStreamImportService;
+
+    private final ObjectMapper objectMapper;
+
+    public RecipeController(RecipeService recipeService, IngredientService ingredientService, RecipeImportService recipeImportService, RecipeStreamImportService recipeStreamImportService, ObjectMapper objectMapper) {
         this.recipeService = recipeService;
+        this.ingredientService = ingredientService;
+        this.recipeImportService = recipeImportService;
+        this.recipeStreamImportService = recipeStreamImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -40,41 +93,535 @@ public class RecipeController {
      * @param personId          the ID of the requesting person
      * @param vegetarian        boolean if the dish needs to be vegetarian
      * @param servings          the amount of servings the dish needs to have
-     * @param includeIngredient include specific ingredients
-     * @param excludeIngredient exclude specific ingredients
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients, misspelled names are resolved to the nearest ingredient
+     *                          and echoed in the X-Resolved-Ingredients header
+     * @param matchAll          true when the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients, only resolved when the name differs in case, so a typo
+     *                          never excludes another ingredient
      * @param instruction       filter for specific text in instructions
-     * @return the recipes based on the person wishes
+     * @param ignoreCase        ignore the case of the instruction text
+     * @param q                 boolean query combined with the other wishes, like
+     *                          {@code (chicken OR tofu) AND NOT peanut AND vegetarian AND servings>=2}, see
+     *                          {@link nl.quintor.abn.recipe.query.RecipeQueryParser} for the grammar
+     * @param limit             the maximum amount of recipes on a page, at most {@value #MAX_PUBLIC_LIMIT}, all
+     *                          recipes are returned when empty
+     * @param after             the cursor of the previous page, taken from the X-Next-Cursor header
+     * @param sort              "id", "name" or "servings" for pages in that order, optionally followed by ",asc" or
+     *                          ",desc", or "ingredients" for the best {@code limit} recipes with the most included
+     *                          ingredients first, which needs includeIngredient, no cursor and a limit of at
+     *                          most {@value #MAX_RANKED_LIMIT}
+     * @return the recipes based on the person wishes, in the order of the sort
      */
     @GetMapping
     @Operation(summary = "Get all recipes from a specific person based on the wishes")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully fetched recipes"),
+            @ApiResponse(code = 400, message = "Invalid limit, cursor, sort or query", response = InvalidPageRequestException.class),
             @ApiResponse(code = 404, message = "Person not found", response = PersonNotFoundException.class)
     })
     public ResponseEntity<List<RecipeDto>> searchForRecipes(
             @RequestHeader(HttpHeaders.AUTHORIZATION) long personId,
             @RequestParam(required = false) Optional<Boolean> vegetarian,
             @RequestParam(required = false) Optional<Integer> servings,
+            @RequestParam(required = false) Optional<Integer> minServings,
+            @RequestParam(required = false) Optional<Integer> maxServings,
             @RequestParam(required = false) Optional<List<String>> includeIngredient,
+            @RequestParam(required = false) Optional<Boolean> matchAll,
             @RequestParam(required = false) Optional<List<String>> excludeIngredient,
-            @RequestParam(required = false) Optional<String> instruction
+            @RequestParam(required = false) Optional<String> instruction,
+            @RequestParam(required = false) Optional<Boolean> ignoreCase,
+            @RequestParam(required = false) Optional<String> q,
+            @RequestParam(required = false) Optional<Integer> limit,
+            @RequestParam(required = false) Optional<String> after,
+            @RequestParam(required = false) Optional<String> sort
     ) {
 
-        var recipes = recipeService.search(personId,
+        Map<String, String> resolvedIngredients = new LinkedHashMap<>();
+        includeIngredient = resolveIngredientNames(includeIngredient, ingredientService::resolveName, resolvedIngredients);
+        excludeIngredient = resolveIngredientNames(excludeIngredient, ingredientService::resolveExactName, resolvedIngredients);
+        q.ifPresent(query -> resolvedIngredients.putAll(recipeService.resolvedQueryIngredients(query)));
+
+        RecipeSort recipeSort = toRecipeSort(sort);
+        Sort.Direction direction = toSortDirection(sort);
+
+        if (recipeSort == RecipeSort.INGREDIENTS) {
+            if (includeIngredient.isEmpty() || after.isPresent()) {
+                throw new InvalidPageRequestException("Sorting on ingredients needs includeIngredient and no cursor");
+            }
+            int rankLimit = limit.orElse(DEFAULT_RANKED_LIMIT);
+            if (rankLimit < 1 || rankLimit > MAX_RANKED_LIMIT) {
+                throw new InvalidPageRequestException("The limit should be between 1 and " + MAX_RANKED_LIMIT);
+            }
+
+            var rankedRecipes = recipeService.rankViewsByIngredients(personId,
+                    vegetarian,
+                    servings,
+                    minServings,
+                    maxServings,
+                    includeIngredient.get(),
+                    matchAll,
+                    excludeIngredient,
+                    instruction,
+                    ignoreCase,
+                    q,
+                    rankLimit
+            );
+            return ResponseEntity.ok().headers(toResolvedIngredientsHeaders(resolvedIngredients)).body(RecipeMapper.INSTANCE.fromIngredientViews(rankedRecipes));
+        }
+
+        if (limit.isPresent() && (limit.get() < 1 || limit.get() > MAX_PUBLIC_LIMIT)) {
+            throw new InvalidPageRequestException("The limit should be between 1 and " + MAX_PUBLIC_LIMIT);
+        }
+
+        String cursorField = toCursorField(recipeSort, direction);
+        Optional<RecipeKeyset> keyset = after.map(cursor -> decodeCursor(cursor, cursorField));
+
+        var recipes = recipeService.searchViews(personId,
                 vegetarian,
                 servings,
+                minServings,
+                maxServings,
                 includeIngredient,
+                matchAll,
                 excludeIngredient,
-                instruction
+                instruction,
+                ignoreCase,
+                q,
+                recipeSort,
+                direction,
+                keyset,
+                limit
         );
 
-        List<RecipeDto> recipeList = RecipeMapper.INSTANCE.toListRecipeDto(
+        List<RecipeDto> recipeList = RecipeMapper.INSTANCE.fromIngredientViews(
                 recipes
         );
 
+        // A full page means there might be more recipes after the last one
+        if (limit.isPresent() && recipeList.size() == limit.get()) {
+            RecipeDto last = recipeList.get(recipeList.size() - 1);
+            String nextCursor = new RecipeCursor(cursorField, toSortKey(last, recipeSort), last.getId()).encode();
+
+            return ResponseEntity.ok().headers(toResolvedIngredientsHeaders(resolvedIngredients)).header(NEXT_CURSOR_HEADER, nextCursor).body(recipeList);
+        }
+        return ResponseEntity.ok().headers(toResolvedIngredientsHeaders(resolvedIngredients)).body(recipeList);
+    }
+
+    /**
+     * Method which fetches the recipes of all persons based on the input, one page at a time
+     *
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients, misspelled names are resolved to the nearest ingredient
+     *                          and echoed in the X-Resolved-Ingredients header
+     * @param matchAll          true when the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients, only resolved when the name differs in case, so a typo
+     *                          never excludes another ingredient
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        ignore the case of the instruction text
+     * @param q                 boolean query combined with the other wishes, like on {@link #searchForRecipes}
+     * @param limit             the maximum amount of recipes on a page, {@value #DEFAULT_PUBLIC_LIMIT} when empty
+     * @param after             the cursor of the previous page, taken from the X-Next-Cursor header
+     * @return the page of recipes based on the wishes, ordered by ID
+     */
+    @GetMapping("/public")
+    @Operation(summary = "Get the recipes of all persons based on the wishes")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully fetched recipes"),
+            @ApiResponse(code = 400, message = "Invalid limit, cursor or query", response = InvalidPageRequestException.class)
+    })
+    public ResponseEntity<List<RecipeDto>> searchForPublicRecipes(
+            @RequestParam(required = false) Optional<Boolean> vegetarian,
+            @RequestParam(required = false) Optional<Integer> servings,
+            @RequestParam(required = false) Optional<Integer> minServings,
+            @RequestParam(required = false) Optional<Integer> maxServings,
+            @RequestParam(required = false) Optional<List<String>> includeIngredient,
+            @RequestParam(required = false) Optional<Boolean> matchAll,
+            @RequestParam(required = false) Optional<List<String>> excludeIngredient,
+            @RequestParam(required = false) Optional<String> instruction,
+            @RequestParam(required = false) Optional<Boolean> ignoreCase,
+            @RequestParam(required = false) Optional<String> q,
+            @RequestParam(required = false) Optional<Integer> limit,
+            @RequestParam(required = false) Optional<String> after
+    ) {
+
+        Map<String, String> resolvedIngredients = new LinkedHashMap<>();
+        includeIngredient = resolveIngredientNames(includeIngredient, ingredientService::resolveName, resolvedIngredients);
+        excludeIngredient = resolveIngredientNames(excludeIngredient, ingredientService::resolveExactName, resolvedIngredients);
+        q.ifPresent(query -> resolvedIngredients.putAll(recipeService.resolvedQueryIngredients(query)));
+
+        int pageSize = limit.orElse(DEFAULT_PUBLIC_LIMIT);
+        if (pageSize < 1 || pageSize > MAX_PUBLIC_LIMIT) {
+            throw new InvalidPageRequestException("The limit should be between 1 and " + MAX_PUBLIC_LIMIT);
+        }
+
+        var recipes = recipeService.searchPublicViews(
+                vegetarian,
+                servings,
+                minServings,
+                maxServings,
+                includeIngredient,
+                matchAll,
+                excludeIngredient,
+                instruction,
+                ignoreCase,
+                q,
+                after.map(this::decodeIdCursor),
+                pageSize
+        );
+
+        List<RecipeDto> recipeList = RecipeMapper.INSTANCE.fromIngredientViews(recipes);
+
+        if (recipeList.size() == pageSize) {
+            long lastId = recipeList.get(recipeList.size() - 1).getId();
+            String nextCursor = new RecipeCursor(ID_SORT, String.valueOf(lastId), lastId).encode();
+
+            return ResponseEntity.ok().headers(toResolvedIngredientsHeaders(resolvedIngredients)).header(NEXT_CURSOR_HEADER, nextCursor).body(recipeList);
+        }
+        return ResponseEntity.ok().headers(toResolvedIngredientsHeaders(resolvedIngredients)).body(recipeList);
+    }
+
+    /**
+     * Method which counts the recipes matching the persons input per ingredient, amount of servings and vegetarian
+     * flag, so the effect of a filter can be shown without fetching the recipes
+     *
+     * @param personId          the ID of the requesting person
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients, misspelled names are resolved to the nearest ingredient
+     *                          and echoed in the X-Resolved-Ingredients header
+     * @param matchAll          true when the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients, only resolved when the name differs in case, so a typo
+     *                          never excludes another ingredient
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        ignore the case of the instruction text
+     * @param q                 boolean query combined with the other wishes, like on {@link #searchForRecipes}
+     * @return the total and the counts per facet value of the matching recipes
+     */
+    @GetMapping("/facets")
+    @Operation(summary = "Get the amount of matching recipes per ingredient, servings and vegetarian flag")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully counted recipes"),
+            @ApiResponse(code = 400, message = "Invalid query", response = InvalidQueryException.class),
+            @ApiResponse(code = 404, message = "Person not found", response = PersonNotFoundException.class)
+    })
+    public ResponseEntity<RecipeFacetsDto> getRecipeFacets(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) long personId,
+            @RequestParam(required = false) Optional<Boolean> vegetarian,
+            @RequestParam(required = false) Optional<Integer> servings,
+            @RequestParam(required = false) Optional<Integer> minServings,
+            @RequestParam(required = false) Optional<Integer> maxServings,
+            @RequestParam(required = false) Optional<List<String>> includeIngredient,
+            @RequestParam(required = false) Optional<Boolean> matchAll,
+            @RequestParam(required = false) Optional<List<String>> excludeIngredient,
+            @RequestParam(required = false) Optional<String> instruction,
+            @RequestParam(required = false) Optional<Boolean> ignoreCase,
+            @RequestParam(required = false) Optional<String> q
+    ) {
+
+        Map<String, String> resolvedIngredients = new LinkedHashMap<>();
+        includeIngredient = resolveIngredientNames(includeIngredient, ingredientService::resolveName, resolvedIngredients);
+        excludeIngredient = resolveIngredientNames(excludeIngredient, ingredientService::resolveExactName, resolvedIngredients);
+        q.ifPresent(query -> resolvedIngredients.putAll(recipeService.resolvedQueryIngredients(query)));
+
+        var facets = recipeService.facets(personId,
+                vegetarian,
+                servings,
+                minServings,
+                maxServings,
+                includeIngredient,
+                matchAll,
+                excludeIngredient,
+                instruction,
+                ignoreCase,
+                q
+        );
+
+        return ResponseEntity.ok().headers(toResolvedIngredientsHeaders(resolvedIngredients)).body(RecipeMapper.INSTANCE.toRecipeFacetsDto(facets));
+    }
+
+    /**
+     * Method which streams all the specific recipes based on the persons input as newline delimited JSON.
+     * Every recipe is written as soon as it is read from the database, so no list of recipes is built in memory
+     *
+     * @param personId          the ID of the requesting person
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients, misspelled names are resolved to the nearest ingredient
+     *                          and echoed in the X-Resolved-Ingredients header
+     * @param matchAll          true when the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients, only resolved when the name differs in case, so a typo
+     *                          never excludes another ingredient
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        ignore the case of the instruction text
+     * @param q                 boolean query combined with the other wishes, like on {@link #searchForRecipes}
+     * @param response          the response the recipes are written to
+     */
+    @GetMapping(produces = NDJSON)
+    @Operation(summary = "Stream all recipes from a specific person based on the wishes as NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully streamed recipes"),
+            @ApiResponse(code = 400, message = "Invalid query", response = InvalidQueryException.class),
+            @ApiResponse(code = 404, message = "Person not found", response = PersonNotFoundException.class)
+    })
+    public void streamRecipes(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) long personId,
+            @RequestParam(required = false) Optional<Boolean> vegetarian,
+            @RequestParam(required = false) Optional<Integer> servings,
+            @RequestParam(required = false) Optional<Integer> minServings,
+            @RequestParam(required = false) Optional<Integer> maxServings,
+            @RequestParam(required = false) Optional<List<String>> includeIngredient,
+            @RequestParam(required = false) Optional<Boolean> matchAll,
+            @RequestParam(required = false) Optional<List<String>> excludeIngredient,
+            @RequestParam(required = false) Optional<String> instruction,
+            @RequestParam(required = false) Optional<Boolean> ignoreCase,
+            @RequestParam(required = false) Optional<String> q,
+            HttpServletResponse response
+    ) throws IOException {
+
+        Map<String, String> resolvedIngredients = new LinkedHashMap<>();
+        includeIngredient = resolveIngredientNames(includeIngredient, ingredientService::resolveName, resolvedIngredients);
+        excludeIngredient = resolveIngredientNames(excludeIngredient, ingredientService::resolveExactName, resolvedIngredients);
+        q.ifPresent(query -> resolvedIngredients.putAll(recipeService.resolvedQueryIngredients(query)));
+
+        response.setContentType(NDJSON);
+        toResolvedIngredientsHeaders(resolvedIngredients).forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        OutputStream outputStream = response.getOutputStream();
+
+        recipeService.streamSearch(personId,
+                vegetarian,
+                servings,
+                minServings,
+                maxServings,
+                includeIngredient,
+                matchAll,
+                excludeIngredient,
+                instruction,
+                ignoreCase,
+                q,
+                recipe -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(RecipeMapper.INSTANCE.toRecipeDto(recipe)));
+                        outputStream.write('\n');
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                }
+        );
+
+        outputStream.flush();
+    }
+
+    /**
+     * Private method that resolves the requested ingredient names to the names of existing ingredients
+     *
+     * @param ingredientNames     the requested ingredient names
+     * @param resolver            resolves one name, returning the requested name when no ingredient matches
+     * @param resolvedIngredients collects the requested names that were changed, with the name they resolved to
+     * @return the resolved ingredient names, names without a matching ingredient are kept as requested
+     */
+    private Optional<List<String>> resolveIngredientNames(Optional<List<String>> ingredientNames, UnaryOperator<String> resolver, Map<String, String> resolvedIngredients) {
+        return ingredientNames.map(names -> names.stream()
+                .map(name -> {
+                    String resolvedName = resolver.apply(name);
+                    if (!resolvedName.equals(name)) {
+                        resolvedIngredients.put(name, resolvedName);
+                    }
+                    return resolvedName;
+                })
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Private method that echoes the resolved ingredient names as "requested=resolved" pairs
+     *
+     * @param resolvedIngredients the requested names that were changed, with the name they resolved to
+     * @return the headers of the response, empty when no name was changed
+     */
+    private HttpHeaders toResolvedIngredientsHeaders(Map<String, String> resolvedIngredients) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!resolvedIngredients.isEmpty()) {
+            headers.set(RESOLVED_INGREDIENTS_HEADER, resolvedIngredients.entrySet().stream()
+                    .map(resolved -> resolved.getKey() + "=" + resolved.getValue())
+                    .collect(Collectors.joining(",")));
+        }
+        return headers;
+    }
+
+    /**
+     * Private method that parses the field of the sort parameter, the search is ordered by ID when it is empty
+     *
+     * @param sort the sort parameter
+     * @return the order of the search
+     */
+    private RecipeSort toRecipeSort(Optional<String> sort) {
+        String field = sort.map(value -> value.split(SORT_SEPARATOR, 2)[0]).orElse(ID_SORT);
+
+        switch (field) {
+            case ID_SORT:
+                return RecipeSort.ID;
+            case NAME_SORT:
+                return RecipeSort.NAME;
+            case SERVINGS_SORT:
+                return RecipeSort.SERVINGS;
+            case INGREDIENTS_SORT:
+                return RecipeSort.INGREDIENTS;
+            default:
+                throw new InvalidPageRequestException("The sort " + sort.get() + " is not supported");
+        }
+    }
+
+    /**
+     * Private method that parses the direction of the sort parameter, the search is ascending when it is empty
+     *
+     * @param sort the sort parameter
+     * @return the direction of the order
+     */
+    private Sort.Direction toSortDirection(Optional<String> sort) {
+        String[] parts = sort.map(value -> value.split(SORT_SEPARATOR, 2)).orElse(new String[0]);
+        if (parts.length < 2) {
+            return Sort.Direction.ASC;
+        }
+        return Sort.Direction.fromOptionalString(parts[1])
+                .orElseThrow(() -> new InvalidPageRequestException("The sort direction " + parts[1] + " is not supported"));
+    }
+
+    /**
+     * Private method that builds the field of the cursor, so a cursor can only be used with the order it was made for.
+     * The ascending ID order keeps the plain field, the cursors of the public search are the same
+     */
+    private String toCursorField(RecipeSort sort, Sort.Direction direction) {
+        String field;
+        switch (sort) {
+            case NAME:
+                field = NAME_SORT;
+                break;
+            case SERVINGS:
+                field = SERVINGS_SORT;
+                break;
+            default:
+                field = ID_SORT;
+        }
+        return direction.isAscending() ? field : field + DESCENDING_CURSOR_SUFFIX;
+    }
+
+    /**
+     * Private method that returns the value of the recipe in the order, which is the sort key of the cursor
+     */
+    private String toSortKey(RecipeDto recipe, RecipeSort sort) {
+        switch (sort) {
+            case NAME:
+                return recipe.getName();
+            case SERVINGS:
+                return String.valueOf(recipe.getNumberOfServings());
+            default:
+                return String.valueOf(recipe.getId());
+        }
+    }
+
+    /**
+     * Private method that decodes a cursor of a sorted search
+     *
+     * @param after       the encoded cursor
+     * @param cursorField the field of the cursors of the search
+     * @return the position of the last recipe of the previous page
+     */
+    private RecipeKeyset decodeCursor(String after, String cursorField) {
+        RecipeCursor cursor = RecipeCursor.decode(after);
+
+        if (!cursorField.equals(cursor.getSortField())) {
+            throw new InvalidPageRequestException("The cursor " + after + " does not belong to this search");
+        }
+        return new RecipeKeyset(cursor.getSortKey(), cursor.getLastId());
+    }
+
+    /**
+     * Private method that decodes a cursor of the ID ordered search
+     *
+     * @param after the encoded cursor
+     * @return the ID of the last recipe of the previous page
+     */
+    private long decodeIdCursor(String after) {
+        RecipeCursor cursor = RecipeCursor.decode(after);
+
+        if (!ID_SORT.equals(cursor.getSortField())) {
+            throw new InvalidPageRequestException("The cursor " + after + " does not belong to this search");
+        }
+        return cursor.getLastId();
+    }
+
+    /**
+     * Method which fetches the recipes that best match a free text query, best match first
+     *
+     * @param personId the ID of the requesting person
+     * @param query    free text matched against the recipe names and instructions
+     * @param limit    the maximum amount of recipes, {@value #DEFAULT_RANKED_LIMIT} when empty
+     * @return the best matching recipes
+     */
+    @GetMapping("/ranked")
+    @Operation(summary = "Get the recipes from a specific person that best match a free text query")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully fetched recipes"),
+            @ApiResponse(code = 400, message = "Invalid limit", response = InvalidPageRequestException.class),
+            @ApiResponse(code = 404, message = "Person not found", response = PersonNotFoundException.class)
+    })
+    public ResponseEntity<List<RecipeDto>> rankedSearchForRecipes(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) long personId,
+            @RequestParam String query,
+            @RequestParam(required = false) Optional<Integer> limit
+    ) {
+
+        int rankedRecipes = limit.orElse(DEFAULT_RANKED_LIMIT);
+        if (rankedRecipes < 1 || rankedRecipes > MAX_RANKED_LIMIT) {
+            throw new InvalidPageRequestException("The limit should be between 1 and " + MAX_RANKED_LIMIT);
+        }
+
+        List<RecipeDto> recipeList = RecipeMapper.INSTANCE.toListRecipeDto(
+                recipeService.rankedSearch(personId, query, rankedRecipes)
+        );
+
         return ResponseEntity.ok().body(recipeList);
     }
 
+    /**
+     * Method which completes the start of a recipe name to the recipes of the person, for autocompletion
+     *
+     * @param personId the ID of the requesting person
+     * @param prefix   the start of the recipe name, the case is ignored
+     * @param limit    the maximum amount of recipes, {@value #DEFAULT_SUGGEST_LIMIT} when empty
+     * @return the recipes whose name starts with the prefix, ordered by name
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Complete the start of a recipe name to the recipes from a specific person")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully fetched suggestions"),
+            @ApiResponse(code = 400, message = "Invalid limit", response = InvalidPageRequestException.class),
+            @ApiResponse(code = 404, message = "Person not found", response = PersonNotFoundException.class)
+    })
+    public ResponseEntity<List<RecipeSuggestionDto>> suggestRecipes(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) long personId,
+            @RequestParam String prefix,
+            @RequestParam(required = false) Optional<Integer> limit
+    ) {
+
+        int suggestions = limit.orElse(DEFAULT_SUGGEST_LIMIT);
+        if (suggestions < 1 || suggestions > MAX_SUGGEST_LIMIT) {
+            throw new InvalidPageRequestException("The limit should be between 1 and " + MAX_SUGGEST_LIMIT);
+        }
+
+        return ResponseEntity.ok().body(RecipeMapper.INSTANCE.toListRecipeSuggestionDto(
+                recipeService.suggest(personId, prefix, suggestions)
+        ));
+    }
+
     /**
      * Method which creates a new recipe based on the given values
      *
@@ -101,6 +648,74 @@ public class RecipeController {
         return ResponseEntity.created(URI.create("/recipes/" + recipeDto.getId())).body(recipeDto);
     }
 
+    /**
+     * Method which creates many recipes with their instructions at once, for example when a person is onboarded.
+     * The recipes are written in one transaction, a recipe that is invalid or uses an unknown ingredient is skipped
+     * and reported by its position in the list
+     *
+     * @param importRecipeDtos the recipes with their instructions
+     * @param personId         the ID of the person who operates the action. The personID is based on the Authorization header
+     * @return the amount of imported recipes and instructions, the errors of the skipped recipes and the throughput
+     */
+    @PostMapping("/import")
+    @Operation(summary = "Import many recipes with their instructions")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully imported the valid recipes"),
+            @ApiResponse(code = 404, message = "Person with the given person id does not exist", response = PersonNotFoundException.class),
+    })
+    public ResponseEntity<RecipeImportResultDto> importRecipes(@RequestBody List<ImportRecipeDto> importRecipeDtos, @RequestHeader(HttpHeaders.AUTHORIZATION) long personId) {
+
+        var resultDto = RecipeMapper.INSTANCE.toRecipeImportResultDto(
+                recipeImportService.importRecipes(
+                        personId,
+                        RecipeMapper.INSTANCE.toListImportedRecipe(importRecipeDtos)
+                )
+        );
+
+        return ResponseEntity.ok().body(resultDto);
+    }
+
+    /**
+     * Method which imports a stream of recipes as newline delimited JSON, for example a nightly sync. The body is
+     * read while the recipes are saved in batches, so a stream of any size can be sent. Every batch is committed with
+     * the progress of the import, when the import fails it can be sent again with the same import ID and the
+     * committed records are skipped
+     *
+     * @param importId the ID of the import, chosen by the client and used to resume the import
+     * @param personId the ID of the person who operates the action. The personID is based on the Authorization header
+     * @param body     the recipes, one JSON object per line like the recipes of the bulk import
+     * @return the amount of resumed, imported and skipped recipes, the errors of the first skipped recipes and the throughput
+     * @throws IOException when the body cannot be opened
+     */
+    @PostMapping(value = "/import", consumes = NDJSON)
+    @Operation(summary = "Import a stream of recipes as NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully imported the valid recipes"),
+            @ApiResponse(code = 400, message = "A record is not valid JSON, the committed records are skipped when sent again", response = InvalidImportException.class),
+            @ApiResponse(code = 404, message = "Person with the given person id does not exist", response = PersonNotFoundException.class),
+            @ApiResponse(code = 409, message = "The import is already running", response = ImportInProgressException.class)
+    })
+    public ResponseEntity<RecipeStreamImportResultDto> importRecipeStream(@RequestParam String importId, @RequestHeader(HttpHeaders.AUTHORIZATION) long personId, InputStream body) throws IOException {
+
+        try (MappingIterator<ImportRecipeDto> records = objectMapper.readerFor(ImportRecipeDto.class).readValues(body)) {
+            Iterator<ImportedRecipe> recipes = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return records.hasNext();
+                }
+
+                @Override
+                public ImportedRecipe next() {
+                    return RecipeMapper.INSTANCE.toImportedRecipe(records.next());
+                }
+            };
+
+            return ResponseEntity.ok().body(RecipeMapper.INSTANCE.toRecipeStreamImportResultDto(
+                    recipeStreamImportService.importStream(personId, importId, recipes)
+            ));
+        }
+    }
+
     /**
      * Method which allows the user to modify a recipe
      *
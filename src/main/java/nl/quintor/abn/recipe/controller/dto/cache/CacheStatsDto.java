@@ -0,0 +1,16 @@
+package nl.quintor.abn.recipe.controller.dto.cache;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDto {
+
+    private String name;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private double hitRate;
+    private long loadCount;
+    private double averageLoadMillis;
+}
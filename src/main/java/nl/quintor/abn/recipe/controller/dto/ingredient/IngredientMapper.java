@@ -1,9 +1,12 @@
 package nl.quintor.abn.recipe.controller.dto.ingredient;
 
 import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.search.IngredientSuggestion;
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
+import java.util.List;
+
 @Mapper
 public interface IngredientMapper {
 
@@ -11,4 +14,6 @@ public interface IngredientMapper {
 
     IngredientDto toIngredientDto(Ingredient ingredient);
 
+    List<IngredientDto> toListIngredientDto(List<IngredientSuggestion> suggestions);
+
 }
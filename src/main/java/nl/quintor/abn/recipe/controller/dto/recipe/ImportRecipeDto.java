@@ -0,0 +1,17 @@
+package nl.quintor.abn.recipe.controller.dto.recipe;
+
+import lombok.Data;
+import nl.quintor.abn.recipe.controller.dto.instruction.CreateInstructionDto;
+
+import java.util.List;
+
+/**
+ * Recipe of a bulk import, it is validated by the import so an invalid recipe does not reject the others
+ */
+@Data
+public class ImportRecipeDto {
+
+    private String name;
+    private int numberOfServings;
+    private List<CreateInstructionDto> instructionList;
+}
@@ -0,0 +1,49 @@
+package nl.quintor.abn.recipe.controller.dto.recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import nl.quintor.abn.recipe.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the recipe search. It holds the sort field, the sort key and the ID of the last recipe
+ * of a page, the next page starts right after that recipe. The client only passes the encoded value back.
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final String sortField;
+    private final String sortKey;
+    private final long lastId;
+
+    public String encode() {
+        String value = sortField + SEPARATOR + sortKey + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecipeCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            // The sort key is in the middle, so it may contain the separator itself
+            int first = value.indexOf(SEPARATOR);
+            int last = value.lastIndexOf(SEPARATOR);
+            if (first < 0 || first == last) {
+                throw new InvalidPageRequestException("The cursor " + cursor + " is invalid");
+            }
+
+            return new RecipeCursor(
+                    value.substring(0, first),
+                    value.substring(first + 1, last),
+                    Long.parseLong(value.substring(last + 1))
+            );
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidPageRequestException("The cursor " + cursor + " is invalid");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package nl.quintor.abn.recipe.controller.dto.recipe;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class RecipeFacetsDto {
+
+    private long total;
+    private Map<String, Long> ingredients;
+    private Map<Integer, Long> servings;
+    private Map<Boolean, Long> vegetarian;
+}
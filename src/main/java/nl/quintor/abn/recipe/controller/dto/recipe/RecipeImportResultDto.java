@@ -0,0 +1,15 @@
+package nl.quintor.abn.recipe.controller.dto.recipe;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RecipeImportResultDto {
+
+    private int importedRecipes;
+    private int importedInstructions;
+    private List<RecipeImportErrorDto> errors;
+    private long durationMillis;
+    private double recipesPerSecond;
+}
@@ -1,9 +1,18 @@
 package nl.quintor.abn.recipe.controller.dto.recipe;
 
+import nl.quintor.abn.recipe.controller.dto.ingredient.IngredientDto;
+import nl.quintor.abn.recipe.controller.dto.instruction.InstructionDto;
 import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.RecipeIngredientView;
+import nl.quintor.abn.recipe.search.RecipeFacets;
+import nl.quintor.abn.recipe.search.RecipeSuggestion;
+import nl.quintor.abn.recipe.service.ImportedRecipe;
+import nl.quintor.abn.recipe.service.RecipeImportResult;
+import nl.quintor.abn.recipe.service.RecipeStreamImportResult;
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Mapper
@@ -15,4 +24,59 @@ public interface RecipeMapper {
 
     List<RecipeDto> toListRecipeDto(List<Recipe> recipes);
 
+    RecipeFacetsDto toRecipeFacetsDto(RecipeFacets facets);
+
+    List<RecipeSuggestionDto> toListRecipeSuggestionDto(List<RecipeSuggestion> suggestions);
+
+    ImportedRecipe toImportedRecipe(ImportRecipeDto recipe);
+
+    List<ImportedRecipe> toListImportedRecipe(List<ImportRecipeDto> recipes);
+
+    RecipeImportResultDto toRecipeImportResultDto(RecipeImportResult result);
+
+    RecipeStreamImportResultDto toRecipeStreamImportResultDto(RecipeStreamImportResult result);
+
+    /**
+     * Assembles the recipes from flat rows, the rows of one recipe have to be next to each other
+     *
+     * @param views the rows ordered by recipe
+     * @return the recipes in the order of the rows
+     */
+    default List<RecipeDto> fromIngredientViews(List<RecipeIngredientView> views) {
+        List<RecipeDto> recipes = new ArrayList<>();
+        RecipeDto recipe = null;
+
+        for (RecipeIngredientView view : views) {
+            if (recipe == null || recipe.getId() != view.getRecipeId()) {
+                recipe = new RecipeDto();
+                recipe.setId(view.getRecipeId());
+                recipe.setName(view.getRecipeName());
+                recipe.setNumberOfServings(view.getNumberOfServings());
+                recipe.setInstructionList(new ArrayList<>());
+                recipes.add(recipe);
+            }
+
+            // Recipes without instructions have a single row without instruction
+            if (view.getInstructionId() != null) {
+                recipe.getInstructionList().add(toInstructionDto(view));
+            }
+        }
+        return recipes;
+    }
+
+    private InstructionDto toInstructionDto(RecipeIngredientView view) {
+        InstructionDto instruction = new InstructionDto();
+        instruction.setId(view.getInstructionId());
+        instruction.setWayOfPreperation(view.getWayOfPreperation());
+
+        if (view.getIngredientId() != null) {
+            IngredientDto ingredient = new IngredientDto();
+            ingredient.setId(view.getIngredientId());
+            ingredient.setName(view.getIngredientName());
+            ingredient.setVegetarian(view.getVegetarian());
+            instruction.setIngredient(ingredient);
+        }
+        return instruction;
+    }
+
 }
@@ -0,0 +1,18 @@
+package nl.quintor.abn.recipe.controller.dto.recipe;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RecipeStreamImportResultDto {
+
+    private String importId;
+    private long resumedRecords;
+    private long importedRecipes;
+    private long importedInstructions;
+    private long skippedRecords;
+    private List<RecipeImportErrorDto> errors;
+    private long durationMillis;
+    private double recipesPerSecond;
+}
@@ -0,0 +1,10 @@
+package nl.quintor.abn.recipe.controller.dto.recipe;
+
+import lombok.Data;
+
+@Data
+public class RecipeSuggestionDto {
+
+    private long id;
+    private String name;
+}
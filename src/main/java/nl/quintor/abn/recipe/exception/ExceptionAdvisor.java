@@ -71,6 +71,31 @@ public class ExceptionAdvisor extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(setBody(exception), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidPageRequestException.class)
+    protected ResponseEntity<Object> handleInvalidPageRequest(InvalidPageRequestException exception) {
+        return new ResponseEntity<>(setBody(exception), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidQueryException.class)
+    protected ResponseEntity<Object> handleInvalidQuery(InvalidQueryException exception) {
+        return new ResponseEntity<>(setBody(exception), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    protected ResponseEntity<Object> handleInvalidImport(InvalidImportException exception) {
+        return new ResponseEntity<>(setBody(exception), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ImportInProgressException.class)
+    protected ResponseEntity<Object> handleImportInProgress(ImportInProgressException exception) {
+        return new ResponseEntity<>(setBody(exception), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InvalidExportFormatException.class)
+    protected ResponseEntity<Object> handleInvalidExportFormat(InvalidExportFormatException exception) {
+        return new ResponseEntity<>(setBody(exception), HttpStatus.BAD_REQUEST);
+    }
+
     private Map<String, Object> setBody(RuntimeException ex) {
         Map<String, Object> body = new HashMap<>();
         body.put("timestamp", LocalDateTime.now());
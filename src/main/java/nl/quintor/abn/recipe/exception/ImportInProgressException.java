@@ -0,0 +1,8 @@
+package nl.quintor.abn.recipe.exception;
+
+public class ImportInProgressException extends RuntimeException {
+
+    public ImportInProgressException(String importId) {
+        super("Import with id " + importId + " is already in progress");
+    }
+}
@@ -0,0 +1,8 @@
+package nl.quintor.abn.recipe.exception;
+
+public class InvalidExportFormatException extends RuntimeException {
+
+    public InvalidExportFormatException(String format) {
+        super("Export format " + format + " is not supported, use json or csv");
+    }
+}
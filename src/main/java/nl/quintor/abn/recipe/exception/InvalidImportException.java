@@ -0,0 +1,8 @@
+package nl.quintor.abn.recipe.exception;
+
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
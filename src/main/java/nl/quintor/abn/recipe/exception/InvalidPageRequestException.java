@@ -0,0 +1,8 @@
+package nl.quintor.abn.recipe.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package nl.quintor.abn.recipe.exception;
+
+public class InvalidQueryException extends RuntimeException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
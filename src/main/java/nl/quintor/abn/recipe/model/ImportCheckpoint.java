@@ -0,0 +1,47 @@
+package nl.quintor.abn.recipe.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * Progress of a streamed import, committed together with every batch of recipes. The records are counted from the
+ * start of the stream, so an import that is sent again with the same ID skips the records that are already committed.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+public class ImportCheckpoint {
+
+    /**
+     * The ID of the import, chosen by the client
+     */
+    @Id
+    private String id;
+
+    @ManyToOne
+    private Person person;
+
+    /**
+     * Amount of records from the start of the stream that are committed, including the skipped records
+     */
+    @Column
+    private long records;
+
+    @Column
+    private long importedRecipes;
+
+    @Column
+    private long importedInstructions;
+
+    @Column
+    private long skippedRecords;
+
+    public ImportCheckpoint(String id, Person person) {
+        this.id = id;
+        this.person = person;
+    }
+}
@@ -1,9 +1,13 @@
 package nl.quintor.abn.recipe.model;
 
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
@@ -11,10 +15,15 @@ import javax.persistence.*;
 @Setter
 @Entity
 @NoArgsConstructor
+@Table(indexes = @Index(name = Ingredient.NAME_INDEX, columnList = "lowerCaseName", unique = true))
 public class Ingredient {
 
+    public static final String NAME_INDEX = "idx_ingredient_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "ingredient_seq")
+    @GenericGenerator(name = "ingredient_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "ingredient_seq"))
     private Long id;
 
     @Column
@@ -23,6 +32,14 @@ public class Ingredient {
     @Column
     private boolean vegetarian;
 
+    /**
+     * The name in lower case, computed by the database so the unique index rejects names that only differ in case
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @Column(insertable = false, updatable = false, columnDefinition = "varchar(255) generated always as (lower(name))")
+    private String lowerCaseName;
+
     public Ingredient(String name, boolean vegetarian) {
         this.name = name;
         this.vegetarian = vegetarian;
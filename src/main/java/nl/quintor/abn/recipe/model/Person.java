@@ -3,6 +3,9 @@ package nl.quintor.abn.recipe.model;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -12,10 +15,15 @@ import java.util.List;
 @Setter
 @Entity
 @NoArgsConstructor
+@Table(indexes = @Index(name = Person.USERNAME_INDEX, columnList = "username", unique = true))
 public class Person {
 
+    public static final String USERNAME_INDEX = "idx_person_username";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "person_seq")
+    @GenericGenerator(name = "person_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "person_seq"))
     private Long id;
 
     @Column
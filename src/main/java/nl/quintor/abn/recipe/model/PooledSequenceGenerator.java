@@ -0,0 +1,36 @@
+package nl.quintor.abn.recipe.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator that reserves a block of IDs per call to the sequence. Unlike an identity column the ID is known
+ * before the insert, so Hibernate can delay the inserts and send them as JDBC batches.
+ * <p>
+ * The size of the blocks is the Hibernate setting {@value #ALLOCATION_SIZE_SETTING}, which is also the increment of
+ * the sequence. The sequence holds the lowest ID of the next block (pooled-lo), so after inserting rows with explicit
+ * IDs the sequence only has to be restarted at the highest ID plus one, whatever the allocation size is.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "nl.quintor.abn.recipe.model.PooledSequenceGenerator";
+    public static final String ALLOCATION_SIZE_SETTING = "recipe.id.allocation-size";
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE_SETTING,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -3,6 +3,9 @@ package nl.quintor.abn.recipe.model;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -12,10 +15,19 @@ import java.util.List;
 @Setter
 @Entity
 @NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_recipe_created_by_non_vegetarian", columnList = "created_by_id, nonVegetarianIngredients"),
+        // Sorted pages of a person are read in index order, the ID is the tie breaker of the keyset
+        @Index(name = "idx_recipe_created_by_id", columnList = "created_by_id, id"),
+        @Index(name = "idx_recipe_created_by_servings", columnList = "created_by_id, numberOfServings, id"),
+        @Index(name = "idx_recipe_created_by_name", columnList = "created_by_id, name, id")
+})
 public class Recipe {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "recipe_seq")
+    @GenericGenerator(name = "recipe_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "recipe_seq"))
     private Long id;
 
     @Column
@@ -24,6 +36,14 @@ public class Recipe {
     @Column
     private int numberOfServings;
 
+    /**
+     * Derived amount of instructions with a non-vegetarian ingredient, a recipe is vegetarian when this is 0.
+     * It is maintained by the InstructionService, so the vegetarian filter does not need to join the ingredients.
+     * Only set on insert, later changes are atomic updates so saving a loaded recipe cannot write back a stale count
+     */
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int nonVegetarianIngredients;
+
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL)
     private List<Instruction> instructionList;
 
@@ -0,0 +1,238 @@
+package nl.quintor.abn.recipe.query;
+
+import lombok.Value;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.RecipeSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Node of the syntax tree of a recipe query. The nodes are immutable values, so equal sub-expressions can be
+ * detected and removed by the {@link QueryOptimizer}, and a tree can be shared by all searches with the same query.
+ */
+public interface QueryNode {
+
+    /**
+     * Method which turns the node into the predicate on the recipe
+     *
+     * @return the predicate of the recipes matching the node
+     */
+    Specification<Recipe> toSpecification();
+
+    /**
+     * Method which estimates the part of the recipes matching the node
+     *
+     * @param estimator the statistics of the recipes
+     * @return a fraction between 0 and 1
+     */
+    double selectivity(SelectivityEstimator estimator);
+
+    @Value
+    class And implements QueryNode {
+        List<QueryNode> children;
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            Specification<Recipe> specification = children.get(0).toSpecification();
+            for (QueryNode child : children.subList(1, children.size())) {
+                specification = specification.and(child.toSpecification());
+            }
+            return specification;
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            double selectivity = 1.0;
+            for (QueryNode child : children) {
+                selectivity *= child.selectivity(estimator);
+            }
+            return selectivity;
+        }
+
+        @Override
+        public String toString() {
+            return children.stream().map(QueryNode::toString).collect(Collectors.joining(" AND ", "(", ")"));
+        }
+    }
+
+    @Value
+    class Or implements QueryNode {
+        List<QueryNode> children;
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            Specification<Recipe> specification = children.get(0).toSpecification();
+            for (QueryNode child : children.subList(1, children.size())) {
+                specification = specification.or(child.toSpecification());
+            }
+            return specification;
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            double none = 1.0;
+            for (QueryNode child : children) {
+                none *= 1.0 - child.selectivity(estimator);
+            }
+            return 1.0 - none;
+        }
+
+        @Override
+        public String toString() {
+            return children.stream().map(QueryNode::toString).collect(Collectors.joining(" OR ", "(", ")"));
+        }
+    }
+
+    @Value
+    class Not implements QueryNode {
+        QueryNode child;
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            return Specification.not(child.toSpecification());
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            return 1.0 - child.selectivity(estimator);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + child;
+        }
+    }
+
+    /**
+     * Recipes with an instruction on the ingredient
+     */
+    @Value
+    class Ingredient implements QueryNode {
+        String name;
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            return RecipeSpecifications.includesAnyIngredient(List.of(name));
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            return estimator.ingredient(name);
+        }
+
+        @Override
+        public String toString() {
+            return "ingredient:\"" + name + "\"";
+        }
+    }
+
+    /**
+     * Recipes with an amount of servings in the inclusive range, the comparisons of the query are all turned
+     * into a range so they can be intersected. An open end is {@link Integer#MIN_VALUE} or {@link Integer#MAX_VALUE}
+     */
+    @Value
+    class Servings implements QueryNode {
+        int minimum;
+        int maximum;
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            if (minimum == maximum) {
+                return RecipeSpecifications.servings(minimum);
+            } else if (minimum == Integer.MIN_VALUE) {
+                return RecipeSpecifications.servingsAtMost(maximum);
+            } else if (maximum == Integer.MAX_VALUE) {
+                return RecipeSpecifications.servingsAtLeast(minimum);
+            }
+            return RecipeSpecifications.servingsBetween(minimum, maximum);
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            return estimator.servings(minimum, maximum);
+        }
+
+        @Override
+        public String toString() {
+            if (minimum == maximum) {
+                return "servings=" + minimum;
+            } else if (minimum == Integer.MIN_VALUE) {
+                return "servings<=" + maximum;
+            } else if (maximum == Integer.MAX_VALUE) {
+                return "servings>=" + minimum;
+            }
+            return "(servings>=" + minimum + " AND servings<=" + maximum + ")";
+        }
+    }
+
+    @Value
+    class Vegetarian implements QueryNode {
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            return RecipeSpecifications.vegetarian();
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            return estimator.vegetarian();
+        }
+
+        @Override
+        public String toString() {
+            return "vegetarian";
+        }
+    }
+
+    /**
+     * Recipes with an instruction containing the text, ignoring the case
+     */
+    @Value
+    class Instruction implements QueryNode {
+        String text;
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            return RecipeSpecifications.instructionContains(text, true);
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            return estimator.instruction();
+        }
+
+        @Override
+        public String toString() {
+            return "instruction:\"" + text + "\"";
+        }
+    }
+
+    /**
+     * Result of folding a sub-expression that matches all or no recipes, only the root of an optimized tree can
+     * be a constant
+     */
+    @Value
+    class Constant implements QueryNode {
+        public static final Constant TRUE = new Constant(true);
+        public static final Constant FALSE = new Constant(false);
+
+        boolean value;
+
+        @Override
+        public Specification<Recipe> toSpecification() {
+            return (recipe, query, builder) -> value ? builder.conjunction() : builder.disjunction();
+        }
+
+        @Override
+        public double selectivity(SelectivityEstimator estimator) {
+            return value ? 1.0 : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return value ? "TRUE" : "FALSE";
+        }
+    }
+}
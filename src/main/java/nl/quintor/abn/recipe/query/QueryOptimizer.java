@@ -0,0 +1,197 @@
+package nl.quintor.abn.recipe.query;
+
+import nl.quintor.abn.recipe.query.QueryNode.And;
+import nl.quintor.abn.recipe.query.QueryNode.Constant;
+import nl.quintor.abn.recipe.query.QueryNode.Ingredient;
+import nl.quintor.abn.recipe.query.QueryNode.Not;
+import nl.quintor.abn.recipe.query.QueryNode.Or;
+import nl.quintor.abn.recipe.query.QueryNode.Servings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Rewrites a parsed query into an equivalent tree that is cheaper to execute:
+ * <ul>
+ *     <li>ingredient names are resolved to the names of the catalog, an ingredient that is not in the catalog
+ *     matches no recipe. A misspelled name is resolved to the nearest ingredient, except under an odd amount of
+ *     NOTs, where a nearby ingredient would silently exclude recipes, so there the name has to match exactly</li>
+ *     <li>nested AND and OR nodes are flattened, duplicate children are removed and double negations are dropped</li>
+ *     <li>sub-expressions matching all or no recipes are folded, like {@code x AND NOT x} or
+ *     {@code servings>4 AND servings<2}, so a query that can not match is answered without the database</li>
+ *     <li>the servings comparisons of an AND are merged into one range</li>
+ *     <li>the children of an AND are ordered from the most to the least selective term, and the children of an OR
+ *     the other way around, so the evaluation of each can stop as early as possible</li>
+ * </ul>
+ * Only the root of the result can be a constant.
+ */
+public class QueryOptimizer {
+
+    private final Function<String, Optional<String>> ingredientResolver;
+    private final Function<String, Optional<String>> exactIngredientResolver;
+    private final SelectivityEstimator estimator;
+    private final Map<String, String> resolvedIngredients = new LinkedHashMap<>();
+
+    /**
+     * @param ingredientResolver      finds the catalog name of a possibly misspelled ingredient, empty when no
+     *                                ingredient is near enough
+     * @param exactIngredientResolver finds the catalog name of an ingredient ignoring case, empty when the ingredient
+     *                                does not exist
+     * @param estimator               the statistics to order the terms on
+     */
+    public QueryOptimizer(Function<String, Optional<String>> ingredientResolver, Function<String, Optional<String>> exactIngredientResolver, SelectivityEstimator estimator) {
+        this.ingredientResolver = ingredientResolver;
+        this.exactIngredientResolver = exactIngredientResolver;
+        this.estimator = estimator;
+    }
+
+    /**
+     * @return the misspelled ingredient names of the optimized queries, with the name they were resolved to
+     */
+    public Map<String, String> getResolvedIngredients() {
+        return Collections.unmodifiableMap(resolvedIngredients);
+    }
+
+    /**
+     * Method which optimizes the tree of a query
+     *
+     * @param node the root of the parsed query
+     * @return the root of the optimized tree
+     */
+    public QueryNode optimize(QueryNode node) {
+        return optimize(node, false);
+    }
+
+    /**
+     * Private method that optimizes a node, negated is true when the node is under an odd amount of NOTs
+     */
+    private QueryNode optimize(QueryNode node, boolean negated) {
+        if (node instanceof And) {
+            return optimizeAnd(((And) node).getChildren(), negated);
+        } else if (node instanceof Or) {
+            return optimizeOr(((Or) node).getChildren(), negated);
+        } else if (node instanceof Not) {
+            return optimizeNot(((Not) node).getChild(), negated);
+        } else if (node instanceof Ingredient) {
+            return resolve(((Ingredient) node).getName(), negated)
+                    .<QueryNode>map(Ingredient::new)
+                    .orElse(Constant.FALSE);
+        } else if (node instanceof Servings) {
+            Servings servings = (Servings) node;
+            return servings.getMinimum() > servings.getMaximum() ? Constant.FALSE : servings;
+        }
+        return node;
+    }
+
+    private Optional<String> resolve(String name, boolean negated) {
+        if (negated) {
+            return exactIngredientResolver.apply(name);
+        }
+
+        Optional<String> resolved = ingredientResolver.apply(name);
+        resolved.filter(resolvedName -> !resolvedName.equalsIgnoreCase(name))
+                .ifPresent(resolvedName -> resolvedIngredients.put(name, resolvedName));
+        return resolved;
+    }
+
+    private QueryNode optimizeNot(QueryNode child, boolean negated) {
+        QueryNode optimized = optimize(child, !negated);
+
+        if (optimized instanceof Constant) {
+            return ((Constant) optimized).isValue() ? Constant.FALSE : Constant.TRUE;
+        } else if (optimized instanceof Not) {
+            return ((Not) optimized).getChild();
+        }
+        return new Not(optimized);
+    }
+
+    private QueryNode optimizeAnd(List<QueryNode> children, boolean negated) {
+        Set<QueryNode> terms = new LinkedHashSet<>();
+        Servings servings = null;
+
+        for (QueryNode child : flatten(children, And.class, negated)) {
+            if (child.equals(Constant.FALSE)) {
+                return Constant.FALSE;
+            } else if (child instanceof Servings) {
+                servings = servings == null ? (Servings) child : intersect(servings, (Servings) child);
+                if (servings == null) {
+                    return Constant.FALSE;
+                }
+            } else if (!child.equals(Constant.TRUE)) {
+                terms.add(child);
+            }
+        }
+        if (servings != null) {
+            terms.add(servings);
+        }
+        if (containsComplement(terms)) {
+            return Constant.FALSE;
+        }
+        return combine(terms, Constant.TRUE, Comparator.naturalOrder(), And::new);
+    }
+
+    private QueryNode optimizeOr(List<QueryNode> children, boolean negated) {
+        Set<QueryNode> terms = new LinkedHashSet<>();
+
+        for (QueryNode child : flatten(children, Or.class, negated)) {
+            if (child.equals(Constant.TRUE)) {
+                return Constant.TRUE;
+            } else if (!child.equals(Constant.FALSE)) {
+                terms.add(child);
+            }
+        }
+        if (containsComplement(terms)) {
+            return Constant.TRUE;
+        }
+        return combine(terms, Constant.FALSE, Comparator.reverseOrder(), Or::new);
+    }
+
+    /**
+     * Private method that optimizes the children and lifts the children of nested nodes of the same type
+     */
+    private List<QueryNode> flatten(List<QueryNode> children, Class<? extends QueryNode> type, boolean negated) {
+        List<QueryNode> flattened = new ArrayList<>();
+        for (QueryNode child : children) {
+            QueryNode optimized = optimize(child, negated);
+            if (type.isInstance(optimized)) {
+                flattened.addAll(optimized instanceof And ? ((And) optimized).getChildren() : ((Or) optimized).getChildren());
+            } else {
+                flattened.add(optimized);
+            }
+        }
+        return flattened;
+    }
+
+    /**
+     * Private method that builds the node of the terms ordered on selectivity, or the identity when there are no terms
+     */
+    private QueryNode combine(Set<QueryNode> terms, Constant identity, Comparator<Double> order, Function<List<QueryNode>, QueryNode> constructor) {
+        if (terms.isEmpty()) {
+            return identity;
+        } else if (terms.size() == 1) {
+            return terms.iterator().next();
+        }
+
+        List<QueryNode> ordered = new ArrayList<>(terms);
+        ordered.sort(Comparator.comparing(term -> term.selectivity(estimator), order));
+        return constructor.apply(List.copyOf(ordered));
+    }
+
+    private static boolean containsComplement(Set<QueryNode> terms) {
+        return terms.stream().anyMatch(term -> term instanceof Not && terms.contains(((Not) term).getChild()));
+    }
+
+    private static Servings intersect(Servings first, Servings second) {
+        int minimum = Math.max(first.getMinimum(), second.getMinimum());
+        int maximum = Math.min(first.getMaximum(), second.getMaximum());
+        return minimum > maximum ? null : new Servings(minimum, maximum);
+    }
+}
@@ -0,0 +1,40 @@
+package nl.quintor.abn.recipe.query;
+
+import lombok.Getter;
+import nl.quintor.abn.recipe.model.Recipe;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+
+/**
+ * Optimized query together with its predicate, which is built once and shared by all searches with the query
+ */
+@Getter
+public class QueryPlan {
+
+    private final String expression;
+    private final QueryNode root;
+    private final Specification<Recipe> specification;
+    private final Map<String, String> resolvedIngredients;
+
+    /**
+     * @param expression          the normalized text of the query
+     * @param root                the root of the optimized tree
+     * @param resolvedIngredients the misspelled ingredient names of the query, with the name they resolved to
+     */
+    public QueryPlan(String expression, QueryNode root, Map<String, String> resolvedIngredients) {
+        this.expression = expression;
+        this.root = root;
+        this.specification = root.toSpecification();
+        this.resolvedIngredients = Map.copyOf(resolvedIngredients);
+    }
+
+    /**
+     * Method which tells if the optimizer proved that the query matches no recipe, so it does not need to be executed
+     *
+     * @return true when no recipe can match
+     */
+    public boolean matchesNothing() {
+        return root.equals(QueryNode.Constant.FALSE);
+    }
+}
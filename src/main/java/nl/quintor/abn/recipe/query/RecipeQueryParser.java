@@ -0,0 +1,256 @@
+package nl.quintor.abn.recipe.query;
+
+import nl.quintor.abn.recipe.exception.InvalidQueryException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Recursive descent parser of the recipe query language into a tree of {@link QueryNode}s. The grammar, from the
+ * lowest to the highest precedence:
+ * <pre>
+ * query   := or
+ * or      := and ( OR and )*
+ * and     := unary ( AND unary )*
+ * unary   := NOT unary | primary
+ * primary := '(' or ')' | term
+ * term    := vegetarian | servings ( = | &lt; | &lt;= | &gt; | &gt;= ) number | instruction : value
+ *          | ingredient : value | value
+ * value   := word | "quoted text"
+ * </pre>
+ * The operators and the names of the terms are case insensitive, a bare value is an ingredient. Names with spaces,
+ * or names that are also a keyword, are quoted: {@code "rib eye" AND NOT ingredient:vegetarian}.
+ */
+public final class RecipeQueryParser {
+
+    static final int MAX_LENGTH = 1000;
+    static final int MAX_DEPTH = 32;
+
+    private final List<Token> tokens;
+    private int position;
+    private int depth;
+
+    private RecipeQueryParser(String query) {
+        this.tokens = tokenize(query);
+    }
+
+    /**
+     * Method which parses the query into a syntax tree
+     *
+     * @param query the query text
+     * @return the root of the syntax tree, not yet optimized
+     */
+    public static QueryNode parse(String query) {
+        if (query.length() > MAX_LENGTH) {
+            throw new InvalidQueryException("The query is longer than " + MAX_LENGTH + " characters");
+        }
+
+        RecipeQueryParser parser = new RecipeQueryParser(query);
+        if (parser.tokens.isEmpty()) {
+            throw new InvalidQueryException("The query is empty");
+        }
+
+        QueryNode root = parser.parseOr();
+        if (parser.position < parser.tokens.size()) {
+            throw parser.error("Expected AND, OR or the end of the query");
+        }
+        return root;
+    }
+
+    private QueryNode parseOr() {
+        List<QueryNode> children = new ArrayList<>();
+        children.add(parseAnd());
+        while (nextIsKeyword("or")) {
+            position++;
+            children.add(parseAnd());
+        }
+        return children.size() == 1 ? children.get(0) : new QueryNode.Or(List.copyOf(children));
+    }
+
+    private QueryNode parseAnd() {
+        List<QueryNode> children = new ArrayList<>();
+        children.add(parseUnary());
+        while (nextIsKeyword("and")) {
+            position++;
+            children.add(parseUnary());
+        }
+        return children.size() == 1 ? children.get(0) : new QueryNode.And(List.copyOf(children));
+    }
+
+    private QueryNode parseUnary() {
+        if (nextIsKeyword("not")) {
+            position++;
+            enter();
+            QueryNode child = parseUnary();
+            depth--;
+            return new QueryNode.Not(child);
+        }
+        return parsePrimary();
+    }
+
+    private QueryNode parsePrimary() {
+        if (nextIs(TokenType.OPEN)) {
+            position++;
+            enter();
+            QueryNode node = parseOr();
+            depth--;
+            expect(TokenType.CLOSE, "Expected a closing parenthesis");
+            return node;
+        }
+        return parseTerm();
+    }
+
+    private QueryNode parseTerm() {
+        if (nextIsKeyword("vegetarian")) {
+            position++;
+            return new QueryNode.Vegetarian();
+        }
+        if (nextIsKeyword("servings")) {
+            position++;
+            return parseServings();
+        }
+        if (nextIsKeyword("instruction")) {
+            position++;
+            expect(TokenType.COLON, "Expected a colon after instruction");
+            return new QueryNode.Instruction(parseValue());
+        }
+        if (nextIsKeyword("ingredient")) {
+            position++;
+            expect(TokenType.COLON, "Expected a colon after ingredient");
+            return new QueryNode.Ingredient(parseValue());
+        }
+        if (nextIsKeyword("and") || nextIsKeyword("or")) {
+            throw error("Expected a term before " + tokens.get(position).text.toUpperCase(Locale.ROOT));
+        }
+        return new QueryNode.Ingredient(parseValue());
+    }
+
+    private QueryNode parseServings() {
+        Token comparison = expect(TokenType.COMPARISON, "Expected =, <, <=, > or >= after servings");
+        Token number = expect(TokenType.WORD, "Expected an amount of servings");
+
+        int servings;
+        try {
+            servings = Integer.parseInt(number.text);
+        } catch (NumberFormatException exception) {
+            throw new InvalidQueryException("Expected an amount of servings at position " + number.start + " but found " + number.text);
+        }
+
+        switch (comparison.text) {
+            case "=":
+                return new QueryNode.Servings(servings, servings);
+            case "<":
+                return servings == Integer.MIN_VALUE ? QueryNode.Constant.FALSE : new QueryNode.Servings(Integer.MIN_VALUE, servings - 1);
+            case "<=":
+                return new QueryNode.Servings(Integer.MIN_VALUE, servings);
+            case ">":
+                return servings == Integer.MAX_VALUE ? QueryNode.Constant.FALSE : new QueryNode.Servings(servings + 1, Integer.MAX_VALUE);
+            default:
+                return new QueryNode.Servings(servings, Integer.MAX_VALUE);
+        }
+    }
+
+    private String parseValue() {
+        if (nextIs(TokenType.WORD) || nextIs(TokenType.QUOTED)) {
+            Token value = tokens.get(position++);
+            if (value.text.isBlank()) {
+                throw new InvalidQueryException("Expected a non-empty value at position " + value.start);
+            }
+            return value.text;
+        }
+        throw error("Expected an ingredient name or a quoted text");
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw new InvalidQueryException("The query is nested deeper than " + MAX_DEPTH + " levels");
+        }
+    }
+
+    private Token expect(TokenType type, String message) {
+        if (!nextIs(type)) {
+            throw error(message);
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean nextIs(TokenType type) {
+        return position < tokens.size() && tokens.get(position).type == type;
+    }
+
+    private boolean nextIsKeyword(String keyword) {
+        return nextIs(TokenType.WORD) && tokens.get(position).text.equalsIgnoreCase(keyword);
+    }
+
+    private InvalidQueryException error(String message) {
+        if (position >= tokens.size()) {
+            return new InvalidQueryException(message + " at the end of the query");
+        }
+        Token token = tokens.get(position);
+        return new InvalidQueryException(message + " at position " + token.start + " but found " + token.text);
+    }
+
+    /**
+     * Private method that splits the query into tokens. A word is a run of characters without white space,
+     * parentheses, quotes, colons and comparisons, a quoted text keeps everything up to the next quote
+     */
+    private static List<Token> tokenize(String query) {
+        List<Token> tokens = new ArrayList<>();
+        int index = 0;
+
+        while (index < query.length()) {
+            char character = query.charAt(index);
+            int start = index;
+
+            if (Character.isWhitespace(character)) {
+                index++;
+            } else if (character == '(' || character == ')') {
+                tokens.add(new Token(character == '(' ? TokenType.OPEN : TokenType.CLOSE, String.valueOf(character), start));
+                index++;
+            } else if (character == ':') {
+                tokens.add(new Token(TokenType.COLON, ":", start));
+                index++;
+            } else if (character == '=' || character == '<' || character == '>') {
+                index++;
+                if (character != '=' && index < query.length() && query.charAt(index) == '=') {
+                    index++;
+                }
+                tokens.add(new Token(TokenType.COMPARISON, query.substring(start, index), start));
+            } else if (character == '"') {
+                int end = query.indexOf('"', start + 1);
+                if (end < 0) {
+                    throw new InvalidQueryException("Missing the closing quote of the text at position " + start);
+                }
+                tokens.add(new Token(TokenType.QUOTED, query.substring(start + 1, end), start));
+                index = end + 1;
+            } else {
+                while (index < query.length() && isWordCharacter(query.charAt(index))) {
+                    index++;
+                }
+                tokens.add(new Token(TokenType.WORD, query.substring(start, index), start));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isWordCharacter(char character) {
+        return !Character.isWhitespace(character) && "()\":=<>".indexOf(character) < 0;
+    }
+
+    private enum TokenType {
+        OPEN, CLOSE, COLON, COMPARISON, WORD, QUOTED
+    }
+
+    private static class Token {
+        final TokenType type;
+        final String text;
+        final int start;
+
+        Token(TokenType type, String text, int start) {
+            this.type = type;
+            this.text = text;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package nl.quintor.abn.recipe.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import nl.quintor.abn.recipe.cache.MonitoredCache;
+import nl.quintor.abn.recipe.exception.InvalidQueryException;
+import nl.quintor.abn.recipe.repository.IngredientRecipeCount;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.search.IngredientNameResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the text of a recipe query into a {@link QueryPlan}: the query is parsed by the {@link RecipeQueryParser},
+ * optimized by the {@link QueryOptimizer} and compiled into a predicate on the recipe. Plans are cached on the
+ * normalized text, so a hot query is only parsed and optimized once.
+ * <p>
+ * The optimizer resolves the ingredient names with the catalog, misspelled names only outside a NOT, so all plans
+ * are dropped when an ingredient is created. The counts of recipes per ingredient, which decide the order of the terms, are read
+ * again when they are older than the configured refresh interval.
+ */
+@Component
+public class RecipeQueryPlanner implements MonitoredCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeQueryPlanner.class);
+
+    private final IngredientNameResolver ingredientNameResolver;
+    private final IngredientRepository ingredientRepository;
+    private final RecipeRepository recipeRepository;
+    private final long statisticsRefreshMillis;
+
+    private final Cache<String, QueryPlan> cache;
+
+    private volatile SelectivityEstimator estimator;
+    private volatile long estimatorLoadedAt;
+
+    public RecipeQueryPlanner(IngredientNameResolver ingredientNameResolver,
+                              IngredientRepository ingredientRepository,
+                              RecipeRepository recipeRepository,
+                              @Value("${recipe.query.plan-cache.maximum-size:1000}") long maximumSize,
+                              @Value("${recipe.query.statistics.refresh-seconds:300}") long statisticsRefreshSeconds) {
+        this.ingredientNameResolver = ingredientNameResolver;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeRepository = recipeRepository;
+        this.statisticsRefreshMillis = Duration.ofSeconds(statisticsRefreshSeconds).toMillis();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Method which returns the cached plan of the query, or parses, optimizes and caches it
+     *
+     * @param query the text of the query
+     * @return the plan of the query
+     * @throws InvalidQueryException when the query does not follow the grammar, these are not cached
+     */
+    public QueryPlan plan(String query) {
+        return cache.get(normalize(query), this::compile);
+    }
+
+    /**
+     * Method which drops all plans, for when the ingredient catalog changes
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        LOG.debug("Invalidated the cached query plans");
+    }
+
+    private QueryPlan compile(String expression) {
+        QueryNode parsed = RecipeQueryParser.parse(expression);
+        QueryOptimizer optimizer = new QueryOptimizer(ingredientNameResolver::resolve, ingredientNameResolver::resolveExact, estimator());
+        QueryNode optimized = optimizer.optimize(parsed);
+
+        LOG.info("Planned query " + expression + " as " + optimized);
+        return new QueryPlan(expression, optimized, optimizer.getResolvedIngredients());
+    }
+
+    /**
+     * Private method that returns the statistics of the recipes, they are read again when they are too old
+     */
+    private SelectivityEstimator estimator() {
+        long now = System.currentTimeMillis();
+        if (estimator == null || now - estimatorLoadedAt > statisticsRefreshMillis) {
+            synchronized (this) {
+                if (estimator == null || now - estimatorLoadedAt > statisticsRefreshMillis) {
+                    Map<String, Long> recipesPerIngredient = ingredientRepository.countRecipesPerIngredient().stream()
+                            .collect(Collectors.toMap(IngredientRecipeCount::getName, IngredientRecipeCount::getRecipes));
+                    estimator = new SelectivityEstimator(recipeRepository.count(),
+                            recipeRepository.countByNonVegetarianIngredients(0),
+                            recipesPerIngredient);
+                    estimatorLoadedAt = now;
+                }
+            }
+        }
+        return estimator;
+    }
+
+    /**
+     * Method which normalizes the text of a query without parsing it: white space is collapsed and everything
+     * outside quotes is lower case, as the keywords and the ingredient names are case insensitive. Quoted text is
+     * kept as it is.
+     *
+     * @param query the text of the query
+     * @return the normalized text
+     */
+    static String normalize(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean quoted = false;
+        boolean whitespace = false;
+
+        for (int index = 0; index < query.length(); index++) {
+            char character = query.charAt(index);
+
+            if (!quoted && Character.isWhitespace(character)) {
+                whitespace = true;
+                continue;
+            }
+            if (whitespace && normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            whitespace = false;
+
+            if (character == '"') {
+                quoted = !quoted;
+            }
+            normalized.append(quoted ? character : Character.toLowerCase(character));
+        }
+        return normalized.toString();
+    }
+
+    @Override
+    public String getName() {
+        return "recipe-query-plans";
+    }
+
+    @Override
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,65 @@
+package nl.quintor.abn.recipe.query;
+
+import java.util.Map;
+
+/**
+ * Estimates the part of the recipes matching a term of a query, used by the {@link QueryOptimizer} to put the most
+ * selective terms first. Ingredients and the vegetarian flag are estimated from counts of the recipes, the other
+ * terms from fixed guesses.
+ */
+public class SelectivityEstimator {
+
+    static final double UNKNOWN_INGREDIENT = 0.1;
+    static final double UNKNOWN_VEGETARIAN = 0.5;
+    static final double SINGLE_SERVINGS = 0.2;
+    static final double SERVINGS_RANGE = 0.5;
+    static final double INSTRUCTION = 0.1;
+
+    private final long recipes;
+    private final long vegetarianRecipes;
+    private final Map<String, Long> recipesPerIngredient;
+
+    /**
+     * @param recipes              the amount of recipes
+     * @param vegetarianRecipes    the amount of vegetarian recipes
+     * @param recipesPerIngredient the amount of recipes per ingredient name, ingredients without recipes can be left out
+     */
+    public SelectivityEstimator(long recipes, long vegetarianRecipes, Map<String, Long> recipesPerIngredient) {
+        this.recipes = recipes;
+        this.vegetarianRecipes = vegetarianRecipes;
+        this.recipesPerIngredient = Map.copyOf(recipesPerIngredient);
+    }
+
+    /**
+     * Creates an estimator without statistics, which only uses the fixed guesses
+     */
+    public static SelectivityEstimator withoutStatistics() {
+        return new SelectivityEstimator(0, 0, Map.of());
+    }
+
+    double ingredient(String name) {
+        if (recipes == 0) {
+            return UNKNOWN_INGREDIENT;
+        }
+        // One is added to the counts, so an ingredient without recipes is the most selective but not free
+        return (recipesPerIngredient.getOrDefault(name, 0L) + 1.0) / (recipes + 1.0);
+    }
+
+    double vegetarian() {
+        if (recipes == 0) {
+            return UNKNOWN_VEGETARIAN;
+        }
+        return (vegetarianRecipes + 1.0) / (recipes + 1.0);
+    }
+
+    double servings(int minimum, int maximum) {
+        if (minimum == Integer.MIN_VALUE || maximum == Integer.MAX_VALUE) {
+            return SERVINGS_RANGE;
+        }
+        return Math.min(SERVINGS_RANGE, SINGLE_SERVINGS * ((long) maximum - minimum + 1));
+    }
+
+    double instruction() {
+        return INSTRUCTION;
+    }
+}
@@ -0,0 +1,11 @@
+package nl.quintor.abn.recipe.repository;
+
+/**
+ * Projection of the lowest and highest ID in a set of rows
+ */
+public interface IdRange {
+
+    Long getMinimum();
+
+    Long getMaximum();
+}
@@ -0,0 +1,9 @@
+package nl.quintor.abn.recipe.repository;
+
+import nl.quintor.abn.recipe.model.ImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, String> {
+}
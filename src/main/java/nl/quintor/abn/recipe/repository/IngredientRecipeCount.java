@@ -0,0 +1,11 @@
+package nl.quintor.abn.recipe.repository;
+
+/**
+ * Projection of the amount of recipes with an instruction on an ingredient
+ */
+public interface IngredientRecipeCount {
+
+    String getName();
+
+    Long getRecipes();
+}
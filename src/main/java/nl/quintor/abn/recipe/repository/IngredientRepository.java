@@ -2,11 +2,34 @@ package nl.quintor.abn.recipe.repository;
 
 import nl.quintor.abn.recipe.model.Ingredient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
-    Optional<Ingredient> findByName(String name);
+    /**
+     * The ingredient with the lower case name, found through the unique index on the lower case name
+     */
+    Optional<Ingredient> findByLowerCaseName(String lowerCaseName);
+
+    /**
+     * The ingredients whose lower case name is one of the names
+     */
+    @Query(value = "select ingredient from Ingredient ingredient where ingredient.lowerCaseName in :names")
+    List<Ingredient> findByLowerCaseNameIn(@Param("names") Collection<String> names);
+
+    @Query(value = "select ingredient.name from Ingredient ingredient")
+    List<String> findAllNames();
+
+    /**
+     * Amount of recipes per ingredient, ingredients without instructions are left out
+     */
+    @Query(value = "select ingredient.name as name, count(distinct instruction.recipe.id) as recipes " +
+            "from Instruction instruction join instruction.ingredient ingredient group by ingredient.name")
+    List<IngredientRecipeCount> countRecipesPerIngredient();
 }
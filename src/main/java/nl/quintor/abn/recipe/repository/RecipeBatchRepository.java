@@ -0,0 +1,106 @@
+package nl.quintor.abn.recipe.repository;
+
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Recipe;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Inserts many recipes and instructions with batched JDBC statements, which skips the persistence context and its
+ * flush of every entity. The IDs come from the same sequence generators as the IDs of persisted entities, so mostly
+ * from the block that is already reserved. The statements run on the connection of the current transaction, the
+ * inserted entities are not managed afterwards.
+ */
+@Repository
+public class RecipeBatchRepository {
+
+    private static final String INSERT_RECIPE = "insert into recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id) values (?, ?, ?, ?, ?)";
+    private static final String INSERT_INSTRUCTION = "insert into instruction (id, way_of_preperation, ingredient_id, recipe_id) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public RecipeBatchRepository(JdbcTemplate jdbcTemplate, EntityManager entityManager, @Value("${recipe.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts the recipes and sets their generated IDs
+     *
+     * @param recipes new recipes with the person that created them
+     */
+    public void insertRecipes(List<Recipe> recipes) {
+        generateIds(Recipe.class, recipes, Recipe::setId);
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_RECIPE)) {
+                for (int from = 0; from < recipes.size(); from += batchSize) {
+                    for (Recipe recipe : recipes.subList(from, Math.min(from + batchSize, recipes.size()))) {
+                        statement.setLong(1, recipe.getId());
+                        statement.setString(2, recipe.getName());
+                        statement.setInt(3, recipe.getNumberOfServings());
+                        statement.setInt(4, recipe.getNonVegetarianIngredients());
+                        statement.setLong(5, recipe.getCreatedBy().getId());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Inserts the instructions and sets their generated IDs, the recipes and ingredients of the instructions need
+     * to have an ID
+     *
+     * @param instructions new instructions
+     */
+    public void insertInstructions(List<Instruction> instructions) {
+        generateIds(Instruction.class, instructions, Instruction::setId);
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_INSTRUCTION)) {
+                for (int from = 0; from < instructions.size(); from += batchSize) {
+                    for (Instruction instruction : instructions.subList(from, Math.min(from + batchSize, instructions.size()))) {
+                        statement.setLong(1, instruction.getId());
+                        statement.setString(2, instruction.getWayOfPreperation());
+                        statement.setLong(3, instruction.getIngredient().getId());
+                        statement.setLong(4, instruction.getRecipe().getId());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Private method that takes the IDs from the generator Hibernate uses for the entity
+     *
+     * @param entityClass the class of the entities
+     * @param entities    the new entities
+     * @param setId       sets the ID of an entity
+     */
+    private <T> void generateIds(Class<T> entityClass, List<T> entities, BiConsumer<T, Long> setId) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = session.getFactory().getMetamodel().entityPersister(entityClass).getIdentifierGenerator();
+
+        for (T entity : entities) {
+            setId.accept(entity, (Long) generator.generate(session, entity));
+        }
+    }
+}
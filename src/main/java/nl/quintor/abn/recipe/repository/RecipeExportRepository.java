@@ -0,0 +1,62 @@
+package nl.quintor.abn.recipe.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Reads the recipes of a person for an export as plain JDBC rows, without loading entities into the persistence
+ * context. The rows are read through a forward-only, read-only cursor that fetches
+ * {@code recipe.export.fetch-size} rows at a time, so the export can be written while it is read.
+ */
+@Repository
+public class RecipeExportRepository {
+
+    public static final String RECIPE_ID = "recipe_id";
+    public static final String RECIPE_NAME = "recipe_name";
+    public static final String NUMBER_OF_SERVINGS = "number_of_servings";
+    public static final String INSTRUCTION_ID = "instruction_id";
+    public static final String WAY_OF_PREPERATION = "way_of_preperation";
+    public static final String INGREDIENT_ID = "ingredient_id";
+    public static final String INGREDIENT_NAME = "ingredient_name";
+    public static final String INGREDIENT_VEGETARIAN = "ingredient_vegetarian";
+
+    private static final String SELECT_EXPORT_ROWS = "select r.id as " + RECIPE_ID + ", r.name as " + RECIPE_NAME
+            + ", r.number_of_servings as " + NUMBER_OF_SERVINGS + ", i.id as " + INSTRUCTION_ID
+            + ", i.way_of_preperation as " + WAY_OF_PREPERATION + ", g.id as " + INGREDIENT_ID
+            + ", g.name as " + INGREDIENT_NAME + ", g.vegetarian as " + INGREDIENT_VEGETARIAN
+            + " from recipe r"
+            + " left join instruction i on i.recipe_id = r.id"
+            + " left join ingredient g on g.id = i.ingredient_id"
+            + " where r.created_by_id = ?"
+            + " order by r.id, i.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public RecipeExportRepository(JdbcTemplate jdbcTemplate, @Value("${recipe.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Passes a row per instruction of the recipes of the person to the handler, ordered by recipe and instruction ID.
+     * A recipe without instructions has one row with null instruction and ingredient columns. The columns are named
+     * by the constants of this class.
+     *
+     * @param personId the ID of the person that created the recipes
+     * @param handler  receives the rows one at a time
+     */
+    public void forEachRow(long personId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_EXPORT_ROWS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, personId);
+            return statement;
+        }, handler);
+    }
+}
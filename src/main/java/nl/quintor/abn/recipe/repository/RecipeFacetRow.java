@@ -0,0 +1,18 @@
+package nl.quintor.abn.recipe.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Row of a matching recipe with the name of one of its ingredients, created by a constructor expression. A recipe
+ * without instructions has a single row without ingredient name.
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeFacetRow {
+
+    private final Long recipeId;
+    private final Integer numberOfServings;
+    private final Integer nonVegetarianIngredients;
+    private final String ingredientName;
+}
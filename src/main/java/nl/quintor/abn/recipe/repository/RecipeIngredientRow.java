@@ -0,0 +1,22 @@
+package nl.quintor.abn.recipe.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Plain implementation of {@link RecipeIngredientView} created by a JPQL constructor expression. Unlike an interface
+ * projection, which proxies every getter through a map of the tuple, this is a single object per row.
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeIngredientRow implements RecipeIngredientView {
+
+    private final Long recipeId;
+    private final String recipeName;
+    private final Integer numberOfServings;
+    private final Long instructionId;
+    private final String wayOfPreperation;
+    private final Long ingredientId;
+    private final String ingredientName;
+    private final Boolean vegetarian;
+}
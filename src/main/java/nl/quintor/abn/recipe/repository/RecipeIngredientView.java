@@ -0,0 +1,24 @@
+package nl.quintor.abn.recipe.repository;
+
+/**
+ * Flat projection of a recipe joined with one of its instructions and the ingredient of that instruction.
+ * Recipes without instructions result in one row where the instruction and ingredient columns are null.
+ */
+public interface RecipeIngredientView {
+
+    Long getRecipeId();
+
+    String getRecipeName();
+
+    Integer getNumberOfServings();
+
+    Long getInstructionId();
+
+    String getWayOfPreperation();
+
+    Long getIngredientId();
+
+    String getIngredientName();
+
+    Boolean getVegetarian();
+}
@@ -1,39 +1,74 @@
 package nl.quintor.abn.recipe.repository;
 
 import nl.quintor.abn.recipe.model.Recipe;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface RecipeRepository extends JpaRepository<Recipe, Long> {
-
-    @Query(value = "select distinct recipe from Recipe recipe where recipe.createdBy.id = :personId " +
-            "and (:vegetarian is null or :vegetarian is false or (( select count(r) from Recipe r join Instruction instruction on r.id = instruction.recipe.id " +
-            "join Ingredient ingredient on instruction.ingredient.id = ingredient.id " +
-            "where r.id = recipe.id and vegetarian is not :vegetarian)  = 0)) " +
-
-            "and (:servings is null or :servings = recipe.numberOfServings)" +
-
-            "and (:includeIngredients is null or (( select count(r) from Recipe r join Instruction instruction on r.id = instruction.recipe.id " +
-            "join Ingredient ingredient on instruction.ingredient.id = ingredient.id " +
-            "where r.id = recipe.id and ingredient.name in :includeIngredients) >= 1)) " +
-
-            "and (:excludeIngredients is null or (( select count(r) from Recipe r join Instruction instruction on r.id = instruction.recipe.id " +
-            "join Ingredient ingredient on instruction.ingredient.id = ingredient.id " +
-            "where r.id = recipe.id and ingredient.name in :excludeIngredients) = 0)) " +
-
-            "and (:instruction is null or (( select count(r) from Recipe r join Instruction instruction on r.id = instruction.recipe.id " +
-            "where r.id = recipe.id and instruction.wayOfPreperation like concat('%', :instruction, '%')) >= 1))")
-    List<Recipe> searchAll(
-            @Param("personId") long personId,
-            @Param("vegetarian") Boolean vegetarian,
-            @Param("servings") Integer servings,
-            @Param("includeIngredients") List<String> includeIngredients,
-            @Param("excludeIngredients") List<String> excludeIngredients,
-            @Param("instruction") String instruction);
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, RecipeSearchRepository {
+
+    /**
+     * Loads the recipes with their instructions and ingredients in one statement. The search queries only select
+     * the recipes of a page, this second query fetches the rest of the aggregate without lazy loading per recipe
+     */
+    @Query(value = "select distinct recipe from Recipe recipe left join fetch recipe.instructionList instruction " +
+            "left join fetch instruction.ingredient where recipe.id in :recipeIds order by recipe.id")
+    List<Recipe> findWithInstructionsByIdIn(@Param("recipeIds") Collection<Long> recipeIds);
+
+    /**
+     * Loads the recipe with its creator, instructions and their ingredients in one statement. The creator is part of
+     * the same row, so a missing recipe and a recipe of another person are told apart without a second query
+     */
+    @EntityGraph(attributePaths = {"createdBy", "instructionList", "instructionList.ingredient"})
+    Optional<Recipe> findWithInstructionsById(long recipeId);
+
+    @Query(value = "select recipe.id as recipeId, recipe.name as recipeName, recipe.numberOfServings as numberOfServings, " +
+            "instruction.id as instructionId, instruction.wayOfPreperation as wayOfPreperation, ingredient.id as ingredientId, ingredient.name as ingredientName, " +
+            "ingredient.vegetarian as vegetarian " +
+            "from Recipe recipe left join recipe.instructionList instruction left join instruction.ingredient ingredient " +
+            "where recipe.createdBy.id = :personId")
+    List<RecipeIngredientView> findIngredientViewsByPerson(@Param("personId") long personId);
+
+    /**
+     * Flat rows of the recipes with their instructions and ingredients, ordered by recipe and instruction.
+     * Only scalar values are selected, so no entities are hydrated or tracked by the persistence context
+     */
+    @Query(value = "select new nl.quintor.abn.recipe.repository.RecipeIngredientRow(recipe.id, recipe.name, recipe.numberOfServings, " +
+            "instruction.id, instruction.wayOfPreperation, ingredient.id, ingredient.name, ingredient.vegetarian) " +
+            "from Recipe recipe left join recipe.instructionList instruction left join instruction.ingredient ingredient " +
+            "where recipe.id in :recipeIds order by recipe.id, instruction.id")
+    List<RecipeIngredientView> findIngredientViewsByRecipeIdIn(@Param("recipeIds") Collection<Long> recipeIds);
+
+    /**
+     * Lowest and highest recipe ID, both are null without recipes
+     */
+    @Query(value = "select min(recipe.id) as minimum, max(recipe.id) as maximum from Recipe recipe")
+    IdRange findIdRange();
+
+    long countByNonVegetarianIngredients(int nonVegetarianIngredients);
+
+    @Modifying
+    @Query(value = "update Recipe recipe set recipe.nonVegetarianIngredients = recipe.nonVegetarianIngredients + :delta " +
+            "where recipe.id = :recipeId")
+    int addNonVegetarianIngredients(@Param("recipeId") long recipeId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "update Recipe recipe set recipe.nonVegetarianIngredients = " +
+            "(select count(instruction) from Instruction instruction join instruction.ingredient ingredient " +
+            "where instruction.recipe.id = recipe.id and ingredient.vegetarian = false)")
+    int backfillNonVegetarianIngredients();
+
+    @Query(value = "select recipe.id from Recipe recipe where recipe.nonVegetarianIngredients <> " +
+            "(select count(instruction) from Instruction instruction join instruction.ingredient ingredient " +
+            "where instruction.recipe.id = recipe.id and ingredient.vegetarian = false)")
+    List<Long> findIdsWithInconsistentNonVegetarianIngredients();
 
 }
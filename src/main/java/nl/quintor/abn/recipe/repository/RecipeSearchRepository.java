@@ -0,0 +1,64 @@
+package nl.quintor.abn.recipe.repository;
+
+import nl.quintor.abn.recipe.model.Recipe;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Search queries built from {@link RecipeSpecifications}, the results are ordered by recipe ID unless an order is given
+ */
+public interface RecipeSearchRepository {
+
+    /**
+     * Selects only the IDs of the matching recipes, the caller loads the page as entities or as flat projections
+     *
+     * @param specification the predicates of the search
+     * @param limit         the maximum amount of IDs, all IDs are returned when null
+     * @return the IDs of the matching recipes
+     */
+    List<Long> searchIds(Specification<Recipe> specification, Integer limit);
+
+    /**
+     * Selects only the IDs of the matching recipes in the given order
+     *
+     * @param specification the predicates of the search
+     * @param sort          the order of the recipes, nested attributes are separated by dots
+     * @param limit         the maximum amount of IDs, all IDs are returned when null
+     * @return the IDs of the matching recipes
+     */
+    List<Long> searchIds(Specification<Recipe> specification, Sort sort, Integer limit);
+
+    /**
+     * Passes the recipe ID and ingredient name of every instruction of the matching recipes to the consumer, ordered
+     * by recipe ID. The rows are read through a forward-only cursor, so they are never held in memory as a whole
+     *
+     * @param specification the predicates of the search
+     * @param consumer      receives the recipe ID and ingredient name of every row
+     */
+    @Transactional(readOnly = true)
+    void forEachIngredientName(Specification<Recipe> specification, BiConsumer<Long, String> consumer);
+
+    /**
+     * Passes the facet values of the matching recipes to the consumer, one row per ingredient of a recipe ordered by
+     * recipe ID. Recipes without instructions have a single row without ingredient name
+     *
+     * @param specification the predicates of the search
+     * @param consumer      receives every row
+     */
+    @Transactional(readOnly = true)
+    void forEachFacetRow(Specification<Recipe> specification, Consumer<RecipeFacetRow> consumer);
+
+    /**
+     * Forward-only cursor over the matching recipes, the caller has to close the stream inside a transaction
+     *
+     * @param specification the predicates of the search
+     * @return the matching recipes
+     */
+    Stream<Recipe> streamAll(Specification<Recipe> specification);
+}
@@ -0,0 +1,126 @@
+package nl.quintor.abn.recipe.repository;
+
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Recipe;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class RecipeSearchRepositoryImpl implements RecipeSearchRepository {
+
+    private static final int STREAM_FETCH_SIZE = 100;
+
+    private final EntityManager entityManager;
+
+    public RecipeSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Long> searchIds(Specification<Recipe> specification, Integer limit) {
+        return searchIds(specification, Sort.by("id"), limit);
+    }
+
+    @Override
+    public List<Long> searchIds(Specification<Recipe> specification, Sort sort, Integer limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Recipe> recipe = query.from(Recipe.class);
+
+        query.select(recipe.get("id"))
+                .where(specification.toPredicate(recipe, query, builder))
+                .orderBy(toOrders(sort, recipe, builder));
+
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public void forEachIngredientName(Specification<Recipe> specification, BiConsumer<Long, String> consumer) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+        Root<Recipe> recipe = query.from(Recipe.class);
+        Join<Instruction, Ingredient> ingredient = recipe.<Recipe, Instruction>join("instructionList").join("ingredient");
+
+        query.multiselect(recipe.get("id"), ingredient.get("name"))
+                .where(specification.toPredicate(recipe, query, builder))
+                .orderBy(builder.asc(recipe.get("id")));
+
+        try (Stream<Object[]> rows = entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(row -> consumer.accept((Long) row[0], (String) row[1]));
+        }
+    }
+
+    @Override
+    public void forEachFacetRow(Specification<Recipe> specification, Consumer<RecipeFacetRow> consumer) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RecipeFacetRow> query = builder.createQuery(RecipeFacetRow.class);
+        Root<Recipe> recipe = query.from(Recipe.class);
+        Join<Instruction, Ingredient> ingredient = recipe.<Recipe, Instruction>join("instructionList", JoinType.LEFT)
+                .join("ingredient", JoinType.LEFT);
+
+        query.select(builder.construct(RecipeFacetRow.class,
+                        recipe.get("id"), recipe.get("numberOfServings"), recipe.get("nonVegetarianIngredients"), ingredient.get("name")))
+                .where(specification.toPredicate(recipe, query, builder))
+                .orderBy(builder.asc(recipe.get("id")));
+
+        try (Stream<RecipeFacetRow> rows = entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @Override
+    public Stream<Recipe> streamAll(Specification<Recipe> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Recipe> query = builder.createQuery(Recipe.class);
+        Root<Recipe> recipe = query.from(Recipe.class);
+
+        query.select(recipe)
+                .where(specification.toPredicate(recipe, query, builder))
+                .orderBy(builder.asc(recipe.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * Private method that turns the sort into criteria orders, a dotted property like createdBy.id is a path of
+     * attributes, which for the ID of a many-to-one is the foreign key column without a join
+     */
+    private static List<Order> toOrders(Sort sort, Root<Recipe> recipe, CriteriaBuilder builder) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<?> path = recipe;
+            for (String attribute : order.getProperty().split("\\.")) {
+                path = path.get(attribute);
+            }
+            orders.add(order.isAscending() ? builder.asc(path) : builder.desc(path));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,135 @@
+package nl.quintor.abn.recipe.repository;
+
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Recipe;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Predicates of the recipe search. Only the predicates of the supplied filters are combined, so the database gets
+ * a query without the clauses of the filters that are not used. Filters on instructions are semi-joins with
+ * EXISTS and NOT EXISTS, which can stop at the first matching instruction instead of counting all of them.
+ */
+public final class RecipeSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private RecipeSpecifications() {
+    }
+
+    public static Specification<Recipe> createdBy(long personId) {
+        return (recipe, query, builder) -> builder.equal(recipe.get("createdBy").get("id"), personId);
+    }
+
+    public static Specification<Recipe> idBetween(long fromId, long toId) {
+        return (recipe, query, builder) -> builder.between(recipe.get("id"), fromId, toId);
+    }
+
+    public static Specification<Recipe> idAfter(long afterId) {
+        return (recipe, query, builder) -> builder.greaterThan(recipe.get("id"), afterId);
+    }
+
+    public static Specification<Recipe> idBefore(long beforeId) {
+        return (recipe, query, builder) -> builder.lessThan(recipe.get("id"), beforeId);
+    }
+
+    /**
+     * Keyset predicate of the recipes after the last recipe of a page ordered on the attribute and then the ID
+     */
+    public static <T extends Comparable<? super T>> Specification<Recipe> after(String attribute, T key, long lastId, boolean descending) {
+        return (recipe, query, builder) -> {
+            Path<T> value = recipe.get(attribute);
+            Path<Long> id = recipe.get("id");
+
+            return descending
+                    ? builder.or(builder.lessThan(value, key), builder.and(builder.equal(value, key), builder.lessThan(id, lastId)))
+                    : builder.or(builder.greaterThan(value, key), builder.and(builder.equal(value, key), builder.greaterThan(id, lastId)));
+        };
+    }
+
+    public static Specification<Recipe> vegetarian() {
+        return (recipe, query, builder) -> builder.equal(recipe.get("nonVegetarianIngredients"), 0);
+    }
+
+    public static Specification<Recipe> servings(int numberOfServings) {
+        return (recipe, query, builder) -> builder.equal(recipe.get("numberOfServings"), numberOfServings);
+    }
+
+    public static Specification<Recipe> servingsBetween(int minimum, int maximum) {
+        return (recipe, query, builder) -> builder.between(recipe.get("numberOfServings"), minimum, maximum);
+    }
+
+    public static Specification<Recipe> servingsAtLeast(int minimum) {
+        return (recipe, query, builder) -> builder.greaterThanOrEqualTo(recipe.get("numberOfServings"), minimum);
+    }
+
+    public static Specification<Recipe> servingsAtMost(int maximum) {
+        return (recipe, query, builder) -> builder.lessThanOrEqualTo(recipe.get("numberOfServings"), maximum);
+    }
+
+    public static Specification<Recipe> includesAnyIngredient(Collection<String> ingredientNames) {
+        return (recipe, query, builder) -> builder.exists(instructionWithIngredient(recipe, query, builder, ingredientNames));
+    }
+
+    public static Specification<Recipe> includesAllIngredients(Collection<String> ingredientNames) {
+        return (recipe, query, builder) -> builder.and(ingredientNames.stream()
+                .distinct()
+                .map(ingredientName -> builder.exists(instructionWithIngredient(recipe, query, builder, List.of(ingredientName))))
+                .toArray(Predicate[]::new));
+    }
+
+    public static Specification<Recipe> excludesIngredients(Collection<String> ingredientNames) {
+        return (recipe, query, builder) -> builder.not(builder.exists(instructionWithIngredient(recipe, query, builder, ingredientNames)));
+    }
+
+    public static Specification<Recipe> instructionContains(String text, boolean ignoreCase) {
+        return (recipe, query, builder) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Instruction> instruction = subquery.from(Instruction.class);
+
+            Predicate contains = ignoreCase
+                    ? builder.like(builder.lower(instruction.get("wayOfPreperation")), toContainsPattern(text.toLowerCase(Locale.ROOT)), LIKE_ESCAPE)
+                    : builder.like(instruction.get("wayOfPreperation"), toContainsPattern(text), LIKE_ESCAPE);
+
+            return builder.exists(subquery
+                    .select(builder.literal(1L))
+                    .where(builder.equal(instruction.get("recipe"), recipe), contains));
+        };
+    }
+
+    /**
+     * Private method that builds the LIKE pattern for text anywhere in a column, the wildcards in the text are escaped
+     * so they match literally, like the in-memory index does
+     */
+    private static String toContainsPattern(String text) {
+        String escaped = text
+                .replace(String.valueOf(LIKE_ESCAPE), String.valueOf(LIKE_ESCAPE) + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * Private method that builds the subquery for an instruction of the recipe with one of the ingredients
+     */
+    private static Subquery<Long> instructionWithIngredient(Root<Recipe> recipe, CriteriaQuery<?> query, CriteriaBuilder builder, Collection<String> ingredientNames) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Instruction> instruction = subquery.from(Instruction.class);
+        Join<Instruction, Ingredient> ingredient = instruction.join("ingredient");
+
+        return subquery
+                .select(builder.literal(1L))
+                .where(builder.equal(instruction.get("recipe"), recipe), ingredient.get("name").in(ingredientNames));
+    }
+}
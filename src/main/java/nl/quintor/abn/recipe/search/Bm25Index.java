@@ -0,0 +1,85 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.*;
+
+/**
+ * Inverted index that ranks documents with Okapi BM25. Every term keeps the term frequency per document and every
+ * document keeps its terms, so a document can be replaced without rebuilding the index.
+ * This class is not thread-safe, the owner has to synchronize the access.
+ */
+class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    void put(long id, List<String> terms) {
+        remove(id);
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+            postings.computeIfAbsent(frequency.getKey(), key -> new HashMap<>()).put(id, frequency.getValue());
+        }
+
+        documents.put(id, frequencies);
+        lengths.put(id, terms.size());
+        totalLength += terms.size();
+    }
+
+    void remove(long id) {
+        Map<String, Integer> frequencies = documents.remove(id);
+        if (frequencies == null) {
+            return;
+        }
+
+        for (String term : frequencies.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengths.remove(id);
+    }
+
+    /**
+     * Scores every document containing at least one of the query terms and keeps the best ones
+     *
+     * @param queryTerms the analyzed query
+     * @param limit      the maximum amount of results
+     * @return the IDs of the best matching documents, best match first
+     */
+    List<Long> search(List<String> queryTerms, int limit) {
+        if (documents.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        double averageLength = Math.max(1.0, (double) totalLength / documents.size());
+        Map<Long, Double> scores = new HashMap<>();
+
+        for (String term : new HashSet<>(queryTerms)) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+
+            double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+            for (Map.Entry<Long, Integer> document : posting.entrySet()) {
+                double frequency = document.getValue();
+                double norm = K1 * (1 - B + B * lengths.get(document.getKey()) / averageLength);
+                scores.merge(document.getKey(), idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+            }
+        }
+
+        TopK topK = new TopK(limit);
+        scores.forEach(topK::offer);
+        return topK.toSortedIds();
+    }
+}
@@ -0,0 +1,176 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable trie of the ingredient catalog, stored in flat arrays instead of node objects. The ingredients are sorted
+ * on their lower case name, so the ingredients below a node are a contiguous range of that array and a node only
+ * needs the bounds of its range. The nodes are numbered breadth first, which makes the edges of a node a contiguous
+ * range of the edge arrays as well. A completion walks the edges of the prefix and returns the start of the range of
+ * the node it ends on, no matter how many ingredients share the prefix.
+ * <p>
+ * Adding an ingredient builds a new trie, so a trie can be read by any amount of threads without locking.
+ */
+final class IngredientCatalogTrie {
+
+    static final Comparator<IngredientSuggestion> ORDER = Comparator.comparing((IngredientSuggestion ingredient) -> key(ingredient.getName()))
+            .thenComparing(IngredientSuggestion::getName)
+            .thenComparingLong(IngredientSuggestion::getId);
+
+    private final IngredientSuggestion[] ingredients;
+
+    // The edges of node n are edgeStart[n] until edgeStart[n + 1], sorted on their label
+    private final int[] edgeStart;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+
+    // The ingredients below node n are rangeStart[n] until rangeEnd[n]
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+
+    private IngredientCatalogTrie(IngredientSuggestion[] ingredients, int[] edgeStart, char[] edgeLabels, int[] edgeTargets, int[] rangeStart, int[] rangeEnd) {
+        this.ingredients = ingredients;
+        this.edgeStart = edgeStart;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
+    static IngredientCatalogTrie of(Collection<IngredientSuggestion> ingredients) {
+        IngredientSuggestion[] sorted = ingredients.toArray(new IngredientSuggestion[0]);
+        Arrays.sort(sorted, ORDER);
+        return build(sorted);
+    }
+
+    /**
+     * @return a new trie with the ingredient added, this trie is left as it is
+     */
+    IngredientCatalogTrie with(IngredientSuggestion ingredient) {
+        int insertion = Arrays.binarySearch(ingredients, ingredient, ORDER);
+        if (insertion >= 0) {
+            return this;
+        }
+        insertion = -insertion - 1;
+
+        IngredientSuggestion[] sorted = new IngredientSuggestion[ingredients.length + 1];
+        System.arraycopy(ingredients, 0, sorted, 0, insertion);
+        sorted[insertion] = ingredient;
+        System.arraycopy(ingredients, insertion, sorted, insertion + 1, ingredients.length - insertion);
+        return build(sorted);
+    }
+
+    /**
+     * @param prefix the start of the name, the case is ignored
+     * @param limit  the maximum amount of ingredients
+     * @return the ingredients whose name starts with the prefix, ordered by name
+     */
+    List<IngredientSuggestion> complete(String prefix, int limit) {
+        String key = key(prefix);
+
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            int edge = Arrays.binarySearch(edgeLabels, edgeStart[node], edgeStart[node + 1], key.charAt(i));
+            if (edge < 0) {
+                return Collections.emptyList();
+            }
+            node = edgeTargets[edge];
+        }
+
+        int end = Math.min(rangeEnd[node], rangeStart[node] + limit);
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(ingredients, rangeStart[node], end)));
+    }
+
+    int size() {
+        return ingredients.length;
+    }
+
+    /**
+     * Builds the nodes breadth first from the sorted ingredients. The ingredients of a node whose name ends at the
+     * node come first in its range, the rest is split into the ranges of the children on the next character.
+     */
+    private static IngredientCatalogTrie build(IngredientSuggestion[] ingredients) {
+        String[] keys = new String[ingredients.length];
+        for (int i = 0; i < ingredients.length; i++) {
+            keys[i] = key(ingredients[i].getName());
+        }
+
+        IntList edgeStart = new IntList();
+        StringBuilder edgeLabels = new StringBuilder();
+        IntList edgeTargets = new IntList();
+        IntList rangeStart = new IntList();
+        IntList rangeEnd = new IntList();
+
+        IntList depths = new IntList();
+        rangeStart.add(0);
+        rangeEnd.add(keys.length);
+        depths.add(0);
+
+        for (int node = 0; node < rangeStart.size(); node++) {
+            int depth = depths.get(node);
+            int from = rangeStart.get(node);
+            int to = rangeEnd.get(node);
+            edgeStart.add(edgeLabels.length());
+
+            int child = from;
+            while (child < to && keys[child].length() == depth) {
+                child++;
+            }
+            while (child < to) {
+                char label = keys[child].charAt(depth);
+                int childEnd = child;
+                while (childEnd < to && keys[childEnd].charAt(depth) == label) {
+                    childEnd++;
+                }
+
+                edgeLabels.append(label);
+                edgeTargets.add(rangeStart.size());
+                rangeStart.add(child);
+                rangeEnd.add(childEnd);
+                depths.add(depth + 1);
+                child = childEnd;
+            }
+        }
+        edgeStart.add(edgeLabels.length());
+
+        return new IngredientCatalogTrie(ingredients, edgeStart.toArray(), edgeLabels.toString().toCharArray(),
+                edgeTargets.toArray(), rangeStart.toArray(), rangeEnd.toArray());
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Growable array of ints, the trie arrays are built once so boxing them in a list would only cost memory
+     */
+    private static final class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int get(int index) {
+            return values[index];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
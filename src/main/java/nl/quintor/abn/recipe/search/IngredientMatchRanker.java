@@ -0,0 +1,70 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ranks recipes on how many of the requested ingredients they contain, in one pass over the ingredient names of the
+ * recipes. Only the k best recipes are kept in a bounded heap, so the matches are never sorted as a whole.
+ * <p>
+ * The score is the amount of matched ingredient names. Recipes with the same amount are ordered on coverage, the
+ * part of the ingredients of the recipe that was requested, and then on ascending ID. With matchAll only recipes
+ * containing every requested ingredient are kept.
+ */
+public class IngredientMatchRanker {
+
+    private final Set<String> requestedIngredients;
+    private final boolean matchAll;
+    private final TopK topK;
+
+    private long currentRecipeId;
+    private final Set<String> matchedIngredients = new HashSet<>();
+    private final Set<String> recipeIngredients = new HashSet<>();
+
+    public IngredientMatchRanker(Collection<String> requestedIngredients, boolean matchAll, int k) {
+        this.requestedIngredients = Set.copyOf(requestedIngredients);
+        this.matchAll = matchAll;
+        this.topK = new TopK(k);
+    }
+
+    /**
+     * Method which adds an ingredient of a recipe, all ingredients of one recipe have to be added after each other
+     *
+     * @param recipeId       the ID of the recipe
+     * @param ingredientName the name of an ingredient of the recipe
+     */
+    public void accept(long recipeId, String ingredientName) {
+        if (recipeId != currentRecipeId) {
+            scoreCurrentRecipe();
+            currentRecipeId = recipeId;
+        }
+
+        recipeIngredients.add(ingredientName);
+        if (requestedIngredients.contains(ingredientName)) {
+            matchedIngredients.add(ingredientName);
+        }
+    }
+
+    /**
+     * @return the IDs of the k best matching recipes, best match first
+     */
+    public List<Long> toRankedIds() {
+        scoreCurrentRecipe();
+        return topK.toSortedIds();
+    }
+
+    private void scoreCurrentRecipe() {
+        int matched = matchedIngredients.size();
+
+        if (matched > 0 && (!matchAll || matched == requestedIngredients.size())) {
+            double coverage = (double) matched / recipeIngredients.size();
+            // The coverage is at most 1, halving it keeps it below the difference of one matched ingredient
+            topK.offer(currentRecipeId, matched + coverage / 2);
+        }
+
+        matchedIngredients.clear();
+        recipeIngredients.clear();
+    }
+}
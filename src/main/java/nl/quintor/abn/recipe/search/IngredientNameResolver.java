@@ -0,0 +1,146 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Resolves misspelled ingredient names to the nearest name of the ingredient catalog, so a search on "brocoli"
+ * finds the recipes with broccoli. The names are compared in lower case in a {@link LevenshteinTrie}, which is
+ * built from the ingredient names in the database on the first lookup and kept up to date with the created
+ * ingredients.
+ * <p>
+ * The allowed amount of edits is the configured maximum, but at most a third of the length of the name, so short
+ * names like "egg" are not resolved to another short word like "fig".
+ */
+@Component
+public class IngredientNameResolver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngredientNameResolver.class);
+
+    private final IngredientRepository ingredientRepository;
+    private final int maxDistance;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private LevenshteinTrie trie;
+    private Map<String, String> namesByKey;
+
+    public IngredientNameResolver(IngredientRepository ingredientRepository,
+                                  @Value("${recipe.ingredient.fuzzy.max-distance:2}") int maxDistance) {
+        this.ingredientRepository = ingredientRepository;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Method which finds the catalog name for a possibly misspelled ingredient name
+     *
+     * @param name the requested name
+     * @return the name of the catalog with the least edits, empty when no name is within the allowed edits
+     */
+    public Optional<String> resolve(String name) {
+        String key = toKey(name);
+        int allowedDistance = Math.min(maxDistance, key.length() / 3);
+
+        return withCatalog(() -> lookup(key, allowedDistance));
+    }
+
+    /**
+     * Method which finds the catalog name for an ingredient name that only differs in case, for lookups where a
+     * nearby ingredient would change the meaning, like an exclusion
+     *
+     * @param name the requested name
+     * @return the name of the catalog, empty when no ingredient has the name
+     */
+    public Optional<String> resolveExact(String name) {
+        String key = toKey(name);
+
+        return withCatalog(() -> Optional.ofNullable(namesByKey.get(key)));
+    }
+
+    /**
+     * Method which adds the name of a created ingredient, before the catalog is loaded this is a no-op
+     *
+     * @param name the name of the new ingredient
+     */
+    public void addName(String name) {
+        lock.writeLock().lock();
+        try {
+            if (trie != null) {
+                add(name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Private method that runs a lookup under the read lock, loading the catalog first when it is not loaded yet
+     */
+    private Optional<String> withCatalog(Supplier<Optional<String>> lookup) {
+        lock.readLock().lock();
+        try {
+            if (trie != null) {
+                return lookup.get();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            load();
+            return lookup.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Optional<String> lookup(String key, int allowedDistance) {
+        // The exact name is by far the most common case and does not need the trie
+        String name = namesByKey.get(key);
+        if (name != null) {
+            return Optional.of(name);
+        }
+        // Most misspellings are one edit away, a search with a small radius visits far fewer nodes of the trie
+        for (int distance = 1; distance <= allowedDistance; distance++) {
+            Optional<String> nearest = trie.nearest(key, distance);
+            if (nearest.isPresent()) {
+                return nearest.map(namesByKey::get);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void load() {
+        if (trie != null) {
+            return;
+        }
+
+        trie = new LevenshteinTrie();
+        namesByKey = new HashMap<>();
+        for (String name : ingredientRepository.findAllNames()) {
+            add(name);
+        }
+        LOG.info("Loaded " + trie.size() + " ingredient names for the fuzzy search");
+    }
+
+    private void add(String name) {
+        String key = toKey(name);
+        namesByKey.putIfAbsent(key, name);
+        trie.add(key);
+    }
+
+    private static String toKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
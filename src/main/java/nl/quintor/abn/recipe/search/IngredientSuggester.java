@@ -0,0 +1,73 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Completes the start of an ingredient name to the ingredients of the catalog. The catalog is an immutable
+ * {@link IngredientCatalogTrie}, which is built from the database on the first lookup. A created ingredient is added
+ * to a copy of the trie and the copy replaces the published trie, so lookups never wait for a lock and always see
+ * a complete catalog.
+ */
+@Component
+public class IngredientSuggester {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngredientSuggester.class);
+
+    private final IngredientRepository ingredientRepository;
+
+    private volatile IngredientCatalogTrie trie;
+
+    public IngredientSuggester(IngredientRepository ingredientRepository) {
+        this.ingredientRepository = ingredientRepository;
+    }
+
+    /**
+     * Method which completes the prefix to the names of the ingredients
+     *
+     * @param prefix the start of the name, the case is ignored
+     * @param limit  the maximum amount of ingredients
+     * @return the ingredients whose name starts with the prefix, ordered by name
+     */
+    public List<IngredientSuggestion> suggest(String prefix, int limit) {
+        IngredientCatalogTrie current = trie;
+        if (current == null) {
+            current = load();
+        }
+        return current.complete(prefix, limit);
+    }
+
+    /**
+     * Method which adds a created ingredient, before the catalog is loaded this is a no-op. Writers are serialized,
+     * so two ingredients created at the same time both end up in the trie.
+     *
+     * @param ingredient the new ingredient
+     */
+    public synchronized void addIngredient(Ingredient ingredient) {
+        if (trie != null) {
+            trie = trie.with(toSuggestion(ingredient));
+        }
+    }
+
+    private synchronized IngredientCatalogTrie load() {
+        if (trie == null) {
+            List<IngredientSuggestion> ingredients = ingredientRepository.findAll().stream()
+                    .map(IngredientSuggester::toSuggestion)
+                    .collect(Collectors.toList());
+
+            trie = IngredientCatalogTrie.of(ingredients);
+            LOG.info("Loaded " + trie.size() + " ingredients for the suggestions");
+        }
+        return trie;
+    }
+
+    private static IngredientSuggestion toSuggestion(Ingredient ingredient) {
+        return new IngredientSuggestion(ingredient.getId(), ingredient.getName(), ingredient.isVegetarian());
+    }
+}
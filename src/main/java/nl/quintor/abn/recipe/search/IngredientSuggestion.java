@@ -0,0 +1,14 @@
+package nl.quintor.abn.recipe.search;
+
+import lombok.Value;
+
+/**
+ * Ingredient whose name completes a prefix
+ */
+@Value
+public class IngredientSuggestion {
+
+    long id;
+    String name;
+    boolean vegetarian;
+}
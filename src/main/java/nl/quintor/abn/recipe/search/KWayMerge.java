@@ -0,0 +1,56 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges ascending lists of IDs into one ascending list. A heap holds the head of every list, so taking the first
+ * {@code limit} IDs costs O(limit log k) for k lists, without concatenating and sorting the partial results.
+ */
+final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    /**
+     * @param sortedLists lists of ascending and distinct IDs, no ID occurs in more than one list
+     * @param limit       the maximum amount of IDs to take
+     * @return the smallest IDs of all lists, ascending
+     */
+    static List<Long> merge(List<List<Long>> sortedLists, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sortedLists.size()), Comparator.comparingLong(Head::id));
+        for (List<Long> sortedList : sortedLists) {
+            if (!sortedList.isEmpty()) {
+                heads.add(new Head(sortedList, 0));
+            }
+        }
+
+        List<Long> merged = new ArrayList<>(Math.min(limit, 1024));
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            merged.add(head.id());
+
+            if (head.index + 1 < head.list.size()) {
+                heads.add(new Head(head.list, head.index + 1));
+            }
+        }
+        return merged;
+    }
+
+    private static final class Head {
+
+        private final List<Long> list;
+        private final int index;
+
+        private Head(List<Long> list, int index) {
+            this.list = list;
+            this.index = index;
+        }
+
+        private long id() {
+            return list.get(index);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Trie of words that finds the nearest word under the Levenshtein distance. The search walks the trie depth first
+ * and keeps one row of the edit distance table per depth, which acts as a Levenshtein automaton for the query: a
+ * prefix shared by many words is compared once, and a branch is skipped as soon as the lowest value of its row
+ * exceeds the search radius, because no word below it can come closer. The radius shrinks to the best distance
+ * found so far.
+ */
+class LevenshteinTrie {
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Adds the word, a word that is already in the trie is ignored
+     */
+    void add(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.childOrCreate(word.charAt(i));
+        }
+
+        if (node.word == null) {
+            node.word = word;
+            size++;
+        }
+    }
+
+    /**
+     * @param query       the word to look up
+     * @param maxDistance the highest allowed distance
+     * @return the word with the lowest distance to the query within the maximum distance, the alphabetically first
+     * word when several have the same distance
+     */
+    Optional<String> nearest(String query, int maxDistance) {
+        Search search = new Search(query, maxDistance);
+
+        int[] firstRow = search.row(0);
+        for (int i = 0; i <= query.length(); i++) {
+            firstRow[i] = i;
+        }
+        search.accept(root, firstRow);
+
+        for (int i = 0; i < root.childCount; i++) {
+            search.visit(root.children[i], root.labels[i], 1);
+        }
+        return Optional.ofNullable(search.best);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Levenshtein distance with two rows of the dynamic programming table
+     */
+    static int distance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            char character = first.charAt(i - 1);
+
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = previous[j - 1] + (character == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+
+    private static final class Search {
+
+        private final String query;
+        private final List<int[]> rows = new ArrayList<>();
+        private int radius;
+        private String best;
+
+        private Search(String query, int radius) {
+            this.query = query;
+            this.radius = radius;
+        }
+
+        private void visit(Node node, char label, int depth) {
+            int[] previous = row(depth - 1);
+            int[] current = row(depth);
+
+            current[0] = previous[0] + 1;
+            int minimum = current[0];
+            for (int i = 1; i <= query.length(); i++) {
+                int substitution = previous[i - 1] + (query.charAt(i - 1) == label ? 0 : 1);
+                current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+                minimum = Math.min(minimum, current[i]);
+            }
+
+            accept(node, current);
+
+            if (minimum <= radius) {
+                for (int i = 0; i < node.childCount; i++) {
+                    visit(node.children[i], node.labels[i], depth + 1);
+                }
+            }
+        }
+
+        private void accept(Node node, int[] row) {
+            int distance = row[query.length()];
+            if (node.word != null && (distance < radius || (distance == radius && (best == null || node.word.compareTo(best) < 0)))) {
+                best = node.word;
+                radius = distance;
+            }
+        }
+
+        private int[] row(int depth) {
+            while (rows.size() <= depth) {
+                rows.add(new int[query.length() + 1]);
+            }
+            return rows.get(depth);
+        }
+    }
+
+    /**
+     * Node with its children in arrays sorted on their character, which is smaller than a map for the few children
+     * of most nodes and visits the children in alphabetical order
+     */
+    private static final class Node {
+
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private String word;
+
+        private Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, 0, childCount, label);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertion = -index - 1;
+            if (childCount == labels.length) {
+                int capacity = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, insertion, labels, insertion + 1, childCount - insertion);
+            System.arraycopy(children, insertion, children, insertion + 1, childCount - insertion);
+
+            Node child = new Node();
+            labels[insertion] = label;
+            children[insertion] = child;
+            childCount++;
+            return child;
+        }
+    }
+}
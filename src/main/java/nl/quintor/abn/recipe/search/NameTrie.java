@@ -0,0 +1,136 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Trie of recipe names for completing a prefix. The names are stored in lower case, so completion ignores case, and
+ * every node that ends a name keeps the IDs of the recipes with that name. The completions are collected depth first
+ * in alphabetical order and the walk stops at the limit, so a lookup costs the length of the prefix plus the nodes
+ * of the first {@code limit} names, however many recipes share the prefix.
+ */
+class NameTrie {
+
+    private final Node root = new Node();
+
+    void add(String name, long recipeId) {
+        String key = normalize(name);
+
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.recipes.put(recipeId, name);
+    }
+
+    /**
+     * Removes the recipe from the name, the nodes that no longer lead to a name are dropped
+     */
+    void remove(String name, long recipeId) {
+        remove(root, normalize(name), 0, recipeId);
+    }
+
+    /**
+     * @param prefix the start of the name, the case is ignored
+     * @param limit  the maximum amount of completions
+     * @return the recipes whose name starts with the prefix, ordered by name and then by ID
+     */
+    List<RecipeSuggestion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<RecipeSuggestion> completions = new ArrayList<>(Math.min(limit, 16));
+
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node != null) {
+            collect(node, limit, completions);
+        }
+        return completions;
+    }
+
+    private static void collect(Node node, int limit, List<RecipeSuggestion> completions) {
+        for (Map.Entry<Long, String> recipe : node.recipes.entrySet()) {
+            if (completions.size() == limit) {
+                return;
+            }
+            completions.add(new RecipeSuggestion(recipe.getKey(), recipe.getValue()));
+        }
+
+        for (int i = 0; i < node.childCount && completions.size() < limit; i++) {
+            collect(node.children[i], limit, completions);
+        }
+    }
+
+    /**
+     * @return true when the node no longer leads to a name and can be dropped by its parent
+     */
+    private static boolean remove(Node node, String key, int depth, long recipeId) {
+        if (depth == key.length()) {
+            node.recipes.remove(recipeId);
+        } else {
+            int index = node.indexOf(key.charAt(depth));
+            if (index >= 0 && remove(node.children[index], key, depth + 1, recipeId)) {
+                node.removeChild(index);
+            }
+        }
+        return node.recipes.isEmpty() && node.childCount == 0;
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Node with its children in arrays sorted on their character, like the nodes of the {@link LevenshteinTrie}
+     */
+    private static final class Node {
+
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private final Map<Long, String> recipes = new TreeMap<>();
+
+        private int indexOf(char label) {
+            return Arrays.binarySearch(labels, 0, childCount, label);
+        }
+
+        private Node child(char label) {
+            int index = indexOf(label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char label) {
+            int index = indexOf(label);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int insertion = -index - 1;
+            if (childCount == labels.length) {
+                int capacity = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, insertion, labels, insertion + 1, childCount - insertion);
+            System.arraycopy(children, insertion, children, insertion + 1, childCount - insertion);
+
+            Node child = new Node();
+            labels[insertion] = label;
+            children[insertion] = child;
+            childCount++;
+            return child;
+        }
+
+        private void removeChild(int index) {
+            System.arraycopy(labels, index + 1, labels, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+}
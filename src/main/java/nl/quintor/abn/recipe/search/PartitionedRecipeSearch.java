@@ -0,0 +1,125 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.IdRange;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.repository.RecipeSpecifications;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Search over the recipes of all persons. The recipes are partitioned on ranges of the recipe ID and the partitions
+ * are searched in parallel on a bounded pool. Every partition returns at most the first {@code limit} IDs in
+ * ascending order, and the partial results are combined with a k-way merge into the first {@code limit} IDs overall.
+ * <p>
+ * The partitions are ranges of the primary key instead of the creator, so every partition is a range scan in the
+ * order of the result that stops after {@code limit} matches. Ranges of persons had to be read through the index
+ * on the creator and sorted, and are skewed by persons with many recipes.
+ * <p>
+ * The pool is separate from the common pool, because the partitions block on the database. Its parallelism should
+ * not exceed the size of the connection pool. Without a configured amount there are a few partitions per thread,
+ * so a thread that finished a partition without matches can take over work from a partition with many.
+ */
+@Component
+public class PartitionedRecipeSearch {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionedRecipeSearch.class);
+
+    static final int PARTITIONS_PER_THREAD = 4;
+
+    private final RecipeRepository recipeRepository;
+    private final ForkJoinPool pool;
+    private final int partitions;
+
+    /**
+     * @param recipeRepository the repository to search the partitions with
+     * @param parallelism      the amount of partitions that are searched at the same time
+     * @param partitions       the amount of partitions, 0 for {@value #PARTITIONS_PER_THREAD} per thread of the pool
+     */
+    public PartitionedRecipeSearch(RecipeRepository recipeRepository,
+                                   @Value("${recipe.search.global.parallelism:4}") int parallelism,
+                                   @Value("${recipe.search.global.partitions:0}") int partitions) {
+        this.recipeRepository = recipeRepository;
+        this.pool = new ForkJoinPool(parallelism);
+        this.partitions = partitions > 0 ? partitions : parallelism * PARTITIONS_PER_THREAD;
+    }
+
+    /**
+     * Method which finds the IDs of the matching recipes of all persons
+     *
+     * @param specification the predicates of the search, without a restriction on the person
+     * @param afterId       only return recipes with a higher ID when not null, the last ID of the previous page
+     * @param limit         the maximum amount of IDs
+     * @return the first matching IDs, ascending
+     */
+    public List<Long> searchIds(Specification<Recipe> specification, Long afterId, int limit) {
+        IdRange range = recipeRepository.findIdRange();
+        if (range == null || range.getMinimum() == null) {
+            return new ArrayList<>();
+        }
+
+        long from = afterId == null ? range.getMinimum() : Math.max(range.getMinimum(), afterId + 1);
+        if (from > range.getMaximum()) {
+            return new ArrayList<>();
+        }
+
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        for (long[] partition : partition(from, range.getMaximum(), partitions)) {
+            Specification<Recipe> partitionSpecification = RecipeSpecifications.idBetween(partition[0], partition[1])
+                    .and(specification);
+            tasks.add(() -> recipeRepository.searchIds(partitionSpecification, limit));
+        }
+
+        LOG.info("Searching " + tasks.size() + " partitions of recipes " + from + " to " + range.getMaximum());
+        return KWayMerge.merge(getAll(pool.invokeAll(tasks)), limit);
+    }
+
+    /**
+     * Splits the inclusive range into at most the given amount of adjacent inclusive ranges of about equal width
+     *
+     * @return the ranges as pairs of the first and last ID
+     */
+    static List<long[]> partition(long from, long to, int partitions) {
+        long width = Math.max(1, (to - from + partitions) / partitions);
+
+        List<long[]> ranges = new ArrayList<>();
+        for (long start = from; start <= to; start += width) {
+            ranges.add(new long[]{start, Math.min(to, start + width - 1)});
+        }
+        return ranges;
+    }
+
+    private List<List<Long>> getAll(List<Future<List<Long>>> futures) {
+        List<List<Long>> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<List<Long>> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching the partitions", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new IllegalStateException("Searching a partition failed", exception.getCause());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
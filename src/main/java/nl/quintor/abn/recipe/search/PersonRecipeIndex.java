@@ -0,0 +1,246 @@
+package nl.quintor.abn.recipe.search;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bitmap index over the recipes of a single person. Every bitmap holds recipe IDs, so the search filters can be
+ * answered with AND, OR and ANDNOT operations instead of subqueries. The instruction texts are kept in a
+ * {@link TrigramIndex}, which is resolved to recipe IDs through the instructions of the recipe entries.
+ * The recipe name and instruction texts together form the document of a recipe in the {@link Bm25Index}, and the
+ * names are completed from a {@link NameTrie}.
+ * All methods are synchronized, a person's index is small and mutations are rare compared to searches.
+ */
+class PersonRecipeIndex {
+
+    private final Roaring64NavigableMap allRecipes = new Roaring64NavigableMap();
+    private final Roaring64NavigableMap nonVegetarianRecipes = new Roaring64NavigableMap();
+    private final Map<Integer, Roaring64NavigableMap> recipesByServings = new HashMap<>();
+    private final Map<Long, Roaring64NavigableMap> recipesByIngredient = new HashMap<>();
+
+    private final Map<Long, RecipeEntry> entries = new HashMap<>();
+    private final Map<Long, Long> recipeIdsByInstruction = new HashMap<>();
+    private final TrigramIndex instructionTexts = new TrigramIndex();
+    private final Bm25Index rankedTexts = new Bm25Index();
+    private final NameTrie recipeNames = new NameTrie();
+
+    synchronized void putRecipe(long recipeId, String name, int numberOfServings) {
+        RecipeEntry entry = entries.get(recipeId);
+        if (entry == null) {
+            entry = new RecipeEntry(name, numberOfServings);
+            entries.put(recipeId, entry);
+            allRecipes.addLong(recipeId);
+        } else {
+            unindex(recipeId, entry);
+            recipeNames.remove(entry.name, recipeId);
+            entry.name = name;
+            entry.numberOfServings = numberOfServings;
+        }
+        index(recipeId, entry);
+        recipeNames.add(name, recipeId);
+    }
+
+    synchronized void removeRecipe(long recipeId) {
+        RecipeEntry entry = entries.remove(recipeId);
+        if (entry != null) {
+            unindex(recipeId, entry);
+            allRecipes.removeLong(recipeId);
+            rankedTexts.remove(recipeId);
+            recipeNames.remove(entry.name, recipeId);
+
+            for (Long instructionId : entry.instructions.keySet()) {
+                recipeIdsByInstruction.remove(instructionId);
+                instructionTexts.remove(instructionId);
+            }
+        }
+    }
+
+    synchronized void putInstruction(long recipeId, long instructionId, String wayOfPreperation, long ingredientId, boolean vegetarian) {
+        RecipeEntry entry = entries.get(recipeId);
+        if (entry != null) {
+            unindex(recipeId, entry);
+            entry.instructions.put(instructionId, new InstructionRef(wayOfPreperation, ingredientId, vegetarian));
+            index(recipeId, entry);
+
+            recipeIdsByInstruction.put(instructionId, recipeId);
+            instructionTexts.put(instructionId, wayOfPreperation);
+        }
+    }
+
+    synchronized void removeInstruction(long recipeId, long instructionId) {
+        RecipeEntry entry = entries.get(recipeId);
+        if (entry != null) {
+            unindex(recipeId, entry);
+            entry.instructions.remove(instructionId);
+            index(recipeId, entry);
+
+            recipeIdsByInstruction.remove(instructionId);
+            instructionTexts.remove(instructionId);
+        }
+    }
+
+    /**
+     * Evaluates the filters as bitmap operations, a null filter is not applied
+     *
+     * @param vegetarian           only keep recipes without non-vegetarian ingredients when true
+     * @param servings             the exact amount of servings
+     * @param includeIngredientIds keep recipes that contain at least one of these ingredients, every element holds
+     *                             the IDs of one requested ingredient name
+     * @param matchAll             keep only recipes that contain every requested ingredient name
+     * @param excludeIngredientIds drop recipes that contain any of these ingredients
+     * @param instruction          keep recipes with at least one instruction containing this text
+     * @param ignoreCase           true when the case of the instruction text should be ignored
+     * @return the IDs of the matching recipes in ascending order
+     */
+    synchronized long[] search(Boolean vegetarian, Integer servings, List<Set<Long>> includeIngredientIds, boolean matchAll, Collection<Long> excludeIngredientIds, String instruction, boolean ignoreCase) {
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        result.or(allRecipes);
+
+        if (servings != null) {
+            result.and(recipesByServings.getOrDefault(servings, new Roaring64NavigableMap()));
+        }
+        if (Boolean.TRUE.equals(vegetarian)) {
+            result.andNot(nonVegetarianRecipes);
+        }
+        if (includeIngredientIds != null) {
+            if (matchAll) {
+                for (Set<Long> ingredientIds : includeIngredientIds) {
+                    result.and(union(ingredientIds));
+                }
+            } else {
+                Roaring64NavigableMap matching = new Roaring64NavigableMap();
+                for (Set<Long> ingredientIds : includeIngredientIds) {
+                    matching.or(union(ingredientIds));
+                }
+                result.and(matching);
+            }
+        }
+        if (excludeIngredientIds != null) {
+            result.andNot(union(excludeIngredientIds));
+        }
+        if (instruction != null && !result.isEmpty()) {
+            result.and(recipesWithInstruction(instruction, ignoreCase));
+        }
+
+        return result.toArray();
+    }
+
+    /**
+     * Ranks the recipes on their name and instruction texts with BM25
+     *
+     * @param query free text
+     * @param limit the maximum amount of recipes
+     * @return the IDs of the best matching recipes, best match first
+     */
+    synchronized List<Long> rank(String query, int limit) {
+        return rankedTexts.search(TextAnalyzer.analyze(query), limit);
+    }
+
+    /**
+     * Completes the prefix to the names of the recipes
+     *
+     * @param prefix the start of the name, the case is ignored
+     * @param limit  the maximum amount of recipes
+     * @return the recipes whose name starts with the prefix, ordered by name
+     */
+    synchronized List<RecipeSuggestion> suggest(String prefix, int limit) {
+        return recipeNames.complete(prefix, limit);
+    }
+
+    private Roaring64NavigableMap recipesWithInstruction(String instruction, boolean ignoreCase) {
+        Roaring64NavigableMap recipes = new Roaring64NavigableMap();
+
+        LongIterator instructionIds = instructionTexts.search(instruction, ignoreCase).getLongIterator();
+        while (instructionIds.hasNext()) {
+            recipes.addLong(recipeIdsByInstruction.get(instructionIds.next()));
+        }
+        return recipes;
+    }
+
+    private Roaring64NavigableMap union(Collection<Long> ingredientIds) {
+        Roaring64NavigableMap union = new Roaring64NavigableMap();
+        for (Long ingredientId : ingredientIds) {
+            Roaring64NavigableMap recipes = recipesByIngredient.get(ingredientId);
+            if (recipes != null) {
+                union.or(recipes);
+            }
+        }
+        return union;
+    }
+
+    private void index(long recipeId, RecipeEntry entry) {
+        recipesByServings.computeIfAbsent(entry.numberOfServings, key -> new Roaring64NavigableMap()).addLong(recipeId);
+
+        for (InstructionRef instruction : entry.instructions.values()) {
+            recipesByIngredient.computeIfAbsent(instruction.ingredientId, key -> new Roaring64NavigableMap()).addLong(recipeId);
+            if (!instruction.vegetarian) {
+                nonVegetarianRecipes.addLong(recipeId);
+            }
+        }
+
+        rankedTexts.put(recipeId, document(entry));
+    }
+
+    /**
+     * The name is counted twice, a query term in the recipe name says more than the same term in an instruction
+     */
+    private static List<String> document(RecipeEntry entry) {
+        List<String> nameTerms = TextAnalyzer.analyze(entry.name);
+        List<String> terms = new ArrayList<>(nameTerms);
+        terms.addAll(nameTerms);
+
+        for (InstructionRef instruction : entry.instructions.values()) {
+            terms.addAll(TextAnalyzer.analyze(instruction.wayOfPreperation));
+        }
+        return terms;
+    }
+
+    private void unindex(long recipeId, RecipeEntry entry) {
+        removeFrom(recipesByServings, entry.numberOfServings, recipeId);
+
+        for (InstructionRef instruction : entry.instructions.values()) {
+            removeFrom(recipesByIngredient, instruction.ingredientId, recipeId);
+        }
+        nonVegetarianRecipes.removeLong(recipeId);
+    }
+
+    private static <K> void removeFrom(Map<K, Roaring64NavigableMap> bitmaps, K key, long recipeId) {
+        Roaring64NavigableMap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.removeLong(recipeId);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static class RecipeEntry {
+        private String name;
+        private int numberOfServings;
+        private final Map<Long, InstructionRef> instructions = new HashMap<>();
+
+        private RecipeEntry(String name, int numberOfServings) {
+            this.name = name;
+            this.numberOfServings = numberOfServings;
+        }
+    }
+
+    private static class InstructionRef {
+        private final String wayOfPreperation;
+        private final long ingredientId;
+        private final boolean vegetarian;
+
+        private InstructionRef(String wayOfPreperation, long ingredientId, boolean vegetarian) {
+            this.wayOfPreperation = wayOfPreperation;
+            this.ingredientId = ingredientId;
+            this.vegetarian = vegetarian;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.repository.RecipeFacetRow;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Counts the facets of the matching recipes in one pass over their ingredient rows, so every facet is computed from
+ * the same read instead of a query per facet. An ingredient is counted once per recipe, also when several
+ * instructions of the recipe use it.
+ */
+public class RecipeFacetCounter {
+
+    private final Map<String, Long> ingredients = new TreeMap<>();
+    private final Map<Integer, Long> servings = new TreeMap<>();
+    private final Map<Boolean, Long> vegetarian = new TreeMap<>();
+    private long total;
+
+    private Long currentRecipeId;
+    private final Set<String> recipeIngredients = new HashSet<>();
+
+    /**
+     * Method which adds a row of a recipe, all rows of one recipe have to be added after each other
+     *
+     * @param row the recipe with one of its ingredient names
+     */
+    public void accept(RecipeFacetRow row) {
+        if (!row.getRecipeId().equals(currentRecipeId)) {
+            countRecipe(row);
+        }
+
+        if (row.getIngredientName() != null && recipeIngredients.add(row.getIngredientName())) {
+            ingredients.merge(row.getIngredientName(), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * @return the counts of the rows added so far, ordered by key
+     */
+    public RecipeFacets toFacets() {
+        return new RecipeFacets(total, Collections.unmodifiableMap(ingredients), Collections.unmodifiableMap(servings), Collections.unmodifiableMap(vegetarian));
+    }
+
+    private void countRecipe(RecipeFacetRow row) {
+        currentRecipeId = row.getRecipeId();
+        recipeIngredients.clear();
+
+        total++;
+        servings.merge(row.getNumberOfServings(), 1L, Long::sum);
+        vegetarian.merge(row.getNonVegetarianIngredients() == 0, 1L, Long::sum);
+    }
+}
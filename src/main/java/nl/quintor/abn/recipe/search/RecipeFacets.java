@@ -0,0 +1,17 @@
+package nl.quintor.abn.recipe.search;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Amount of matching recipes per ingredient name, per amount of servings and per vegetarian flag
+ */
+@Value
+public class RecipeFacets {
+
+    long total;
+    Map<String, Long> ingredients;
+    Map<Integer, Long> servings;
+    Map<Boolean, Long> vegetarian;
+}
@@ -0,0 +1,297 @@
+package nl.quintor.abn.recipe.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import nl.quintor.abn.recipe.cache.MonitoredCache;
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.RecipeIngredientView;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory search engine for the recipe filters. It keeps a {@link PersonRecipeIndex} per person, which is built
+ * from the database the first time that person searches and is kept up to date by the mutations in the RecipeService.
+ * The filters only use the index when {@code recipe.search.index.enabled} is set, otherwise the JPQL query is used.
+ * The ranked full-text search has no JPQL counterpart and always uses the index.
+ * <p>
+ * At most {@code recipe.search.index.maximum-size} indexes are kept, the least used ones are evicted and built again
+ * when that person searches. An index is built outside of any lock, other searches of the same person wait for it.
+ */
+@Component
+public class RecipeSearchIndex implements MonitoredCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeSearchIndex.class);
+
+    private final RecipeRepository recipeRepository;
+    private final boolean enabled;
+
+    private final Cache<Long, CompletableFuture<PersonRecipeIndex>> indexes;
+    private final Map<String, Set<Long>> ingredientIdsByName = new ConcurrentHashMap<>();
+
+    public RecipeSearchIndex(RecipeRepository recipeRepository, @Value("${recipe.search.index.enabled:false}") boolean enabled,
+                             @Value("${recipe.search.index.maximum-size:1000}") long maximumSize) {
+        this.recipeRepository = recipeRepository;
+        this.enabled = enabled;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method to find the IDs of the recipes of a person matching the filters, a null filter is not applied
+     *
+     * @param personId           the ID of the requesting person
+     * @param vegetarian         boolean if the dish needs to be vegetarian
+     * @param servings           the amount of servings the dish needs to have
+     * @param includeIngredients include specific ingredients
+     * @param matchAll           true when a recipe needs to contain all included ingredients instead of one
+     * @param excludeIngredients exclude specific ingredients
+     * @param instruction        filter for specific text in instructions
+     * @param ignoreCase         true when the case of the instruction text should be ignored
+     * @return the IDs of the matching recipes in ascending order
+     */
+    public List<Long> search(long personId, Boolean vegetarian, Integer servings, List<String> includeIngredients, boolean matchAll, List<String> excludeIngredients, String instruction, boolean ignoreCase) {
+        PersonRecipeIndex index = index(personId);
+
+        long[] recipeIds = index.search(
+                vegetarian,
+                servings,
+                toIngredientIdsPerName(includeIngredients),
+                matchAll,
+                toIngredientIds(excludeIngredients),
+                instruction,
+                ignoreCase
+        );
+
+        List<Long> result = new ArrayList<>(recipeIds.length);
+        for (long recipeId : recipeIds) {
+            result.add(recipeId);
+        }
+        return result;
+    }
+
+    /**
+     * Method to rank the recipes of a person on how well their name and instructions match a free text query
+     *
+     * @param personId the ID of the requesting person
+     * @param query    free text
+     * @param limit    the maximum amount of recipes
+     * @return the IDs of the best matching recipes, best match first
+     */
+    public List<Long> rank(long personId, String query, int limit) {
+        return index(personId).rank(query, limit);
+    }
+
+    /**
+     * Method to complete a prefix to the names of the recipes of a person
+     *
+     * @param personId the ID of the requesting person
+     * @param prefix   the start of the name, the case is ignored
+     * @param limit    the maximum amount of recipes
+     * @return the recipes whose name starts with the prefix, ordered by name
+     */
+    public List<RecipeSuggestion> suggest(long personId, String prefix, int limit) {
+        return index(personId).suggest(prefix, limit);
+    }
+
+    /**
+     * Adds a new recipe or updates the name and number of servings of an existing one. Like all mutations it is
+     * applied after the commit when called inside a transaction, so a rolled back change never reaches the index.
+     *
+     * @param recipe the created or modified recipe
+     */
+    public void putRecipe(Recipe recipe) {
+        long personId = recipe.getCreatedBy().getId();
+        long recipeId = recipe.getId();
+        String name = recipe.getName();
+        int numberOfServings = recipe.getNumberOfServings();
+
+        afterCommit(() -> mutate(personId, index -> index.putRecipe(recipeId, name, numberOfServings)));
+    }
+
+    public void removeRecipe(Recipe recipe) {
+        long personId = recipe.getCreatedBy().getId();
+        long recipeId = recipe.getId();
+
+        afterCommit(() -> mutate(personId, index -> index.removeRecipe(recipeId)));
+    }
+
+    public void putInstruction(long personId, Instruction instruction) {
+        Ingredient ingredient = instruction.getIngredient();
+        long recipeId = instruction.getRecipe().getId();
+        long instructionId = instruction.getId();
+        String wayOfPreperation = instruction.getWayOfPreperation();
+        long ingredientId = ingredient.getId();
+        String ingredientName = ingredient.getName();
+        boolean vegetarian = ingredient.isVegetarian();
+
+        afterCommit(() -> {
+            registerIngredient(ingredientId, ingredientName);
+            mutate(personId, index -> index.putInstruction(recipeId, instructionId, wayOfPreperation, ingredientId, vegetarian));
+        });
+    }
+
+    public void removeInstruction(long personId, long recipeId, long instructionId) {
+        afterCommit(() -> mutate(personId, index -> index.removeInstruction(recipeId, instructionId)));
+    }
+
+    /**
+     * Drops the index of a person, so it is built again by the next search. Used when many recipes change at once,
+     * which costs less to load again than to apply one by one. Inside a transaction the index is dropped after the
+     * commit, otherwise a search in between could build it again from rows without the changes.
+     *
+     * @param personId the ID of the person
+     */
+    public void invalidatePerson(long personId) {
+        afterCommit(() -> indexes.invalidate(personId));
+    }
+
+    /**
+     * Private method that returns the index of a person, building it when it is not loaded yet. Only the thread that
+     * registers the pending index runs the query, so no lock is held while the database is read.
+     */
+    private PersonRecipeIndex index(long personId) {
+        CompletableFuture<PersonRecipeIndex> index = indexes.getIfPresent(personId);
+        if (index == null) {
+            CompletableFuture<PersonRecipeIndex> building = new CompletableFuture<>();
+            index = indexes.asMap().putIfAbsent(personId, building);
+
+            if (index == null) {
+                index = building;
+                try {
+                    building.complete(build(personId));
+                } catch (RuntimeException exception) {
+                    indexes.asMap().remove(personId, building);
+                    building.completeExceptionally(exception);
+                }
+            }
+        }
+
+        try {
+            return index.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Private method that applies a mutation to the index of a person when it is loaded. An index that is still
+     * being built may have read the rows before the mutation, so it is dropped and built again by the next search.
+     */
+    private void mutate(long personId, Consumer<PersonRecipeIndex> mutation) {
+        CompletableFuture<PersonRecipeIndex> index = indexes.getIfPresent(personId);
+        if (index == null) {
+            return;
+        }
+
+        if (index.isDone() && !index.isCompletedExceptionally()) {
+            mutation.accept(index.join());
+        } else {
+            indexes.asMap().remove(personId, index);
+        }
+    }
+
+    /**
+     * Private method that runs a change of the indexes after the commit of the current transaction, or right away
+     * when there is no transaction
+     */
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Builds the index of a person with a single query. Every mutation is idempotent, so a mutation that is already
+     * part of the loaded rows is applied harmlessly.
+     *
+     * @param personId the ID of the person
+     * @return the index containing all the recipes of the person
+     */
+    private PersonRecipeIndex build(long personId) {
+        LOG.info("Building the search index for person " + personId);
+        PersonRecipeIndex index = new PersonRecipeIndex();
+
+        for (RecipeIngredientView row : recipeRepository.findIngredientViewsByPerson(personId)) {
+            index.putRecipe(row.getRecipeId(), row.getRecipeName(), row.getNumberOfServings());
+
+            if (row.getInstructionId() != null && row.getIngredientId() != null) {
+                registerIngredient(row.getIngredientId(), row.getIngredientName());
+                index.putInstruction(row.getRecipeId(), row.getInstructionId(), row.getWayOfPreperation(), row.getIngredientId(), Boolean.TRUE.equals(row.getVegetarian()));
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public String getName() {
+        return "recipe-search-index";
+    }
+
+    @Override
+    public long estimatedSize() {
+        return indexes.estimatedSize();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return indexes.stats();
+    }
+
+    private void registerIngredient(long ingredientId, String name) {
+        ingredientIdsByName.computeIfAbsent(name, key -> ConcurrentHashMap.newKeySet()).add(ingredientId);
+    }
+
+    private List<Set<Long>> toIngredientIdsPerName(List<String> names) {
+        if (names == null) {
+            return null;
+        }
+
+        List<Set<Long>> ingredientIds = new ArrayList<>();
+        for (String name : new HashSet<>(names)) {
+            ingredientIds.add(ingredientIdsByName.getOrDefault(name, Collections.emptySet()));
+        }
+        return ingredientIds;
+    }
+
+    private Set<Long> toIngredientIds(List<String> names) {
+        if (names == null) {
+            return null;
+        }
+
+        Set<Long> ingredientIds = new HashSet<>();
+        for (String name : names) {
+            ingredientIds.addAll(ingredientIdsByName.getOrDefault(name, Collections.emptySet()));
+        }
+        return ingredientIds;
+    }
+}
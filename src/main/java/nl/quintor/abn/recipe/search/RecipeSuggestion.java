@@ -0,0 +1,13 @@
+package nl.quintor.abn.recipe.search;
+
+import lombok.Value;
+
+/**
+ * Recipe whose name completes a prefix
+ */
+@Value
+public class RecipeSuggestion {
+
+    long id;
+    String name;
+}
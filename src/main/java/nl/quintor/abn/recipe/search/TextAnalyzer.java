@@ -0,0 +1,80 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns free text into index terms: the text is split on everything that is not a letter or digit, lower cased,
+ * stripped of stop words and stemmed. The same analysis is used for documents and queries, so "Baked potatoes"
+ * matches "bake the potato".
+ */
+final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "for", "in", "into", "it", "of", "on", "or", "the", "to", "with"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Light suffix stripping stemmer for English. It removes plurals, -ing, -ed and -ly and a trailing e,
+     * which is enough to bring the common word forms in cooking instructions to the same stem
+     *
+     * @param word the lower case word
+     * @return the stem of the word
+     */
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+
+        String stem = word;
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("es") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.endsWith("ing") && stem.length() > 5) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.endsWith("ed") && stem.length() > 4) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        } else if (stem.endsWith("ly") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+
+        if (stem.endsWith("e") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > 2 && stem.charAt(length - 1) == stem.charAt(length - 2) && "lsz".indexOf(stem.charAt(length - 1)) < 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
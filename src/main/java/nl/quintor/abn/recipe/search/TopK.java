@@ -0,0 +1,63 @@
+package nl.quintor.abn.recipe.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the k best scoring IDs in a bounded min-heap, so selecting the best results costs O(n log k) instead of
+ * sorting every match. Equal scores are ordered by ascending ID to keep the result stable.
+ */
+class TopK {
+
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble((Scored scored) -> scored.score)
+            .thenComparing(Comparator.comparingLong((Scored scored) -> scored.id).reversed());
+
+    private final int k;
+    private final PriorityQueue<Scored> heap;
+
+    TopK(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.max(1, k), WORST_FIRST);
+    }
+
+    void offer(long id, double score) {
+        if (k <= 0) {
+            return;
+        }
+
+        Scored candidate = new Scored(id, score);
+        if (heap.size() < k) {
+            heap.add(candidate);
+        } else if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    /**
+     * @return the kept IDs with the best score first
+     */
+    List<Long> toSortedIds() {
+        List<Scored> sorted = new ArrayList<>(heap);
+        sorted.sort(Collections.reverseOrder(WORST_FIRST));
+
+        List<Long> ids = new ArrayList<>(sorted.size());
+        for (Scored scored : sorted) {
+            ids.add(scored.id);
+        }
+        return ids;
+    }
+
+    private static class Scored {
+        private final long id;
+        private final double score;
+
+        private Scored(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package nl.quintor.abn.recipe.search;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.util.*;
+
+/**
+ * Substring index over short texts. Every text is split into lower case trigrams and every trigram keeps a posting
+ * list with the IDs of the texts it occurs in. A search intersects the posting lists of the trigrams of the query,
+ * starting with the smallest, and only verifies the remaining candidates against the query.
+ * The lower case trigrams make the candidates a superset for both case-sensitive and case-insensitive searches.
+ * This class is not thread-safe, the owner has to synchronize the access.
+ */
+class TrigramIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Roaring64NavigableMap> postings = new HashMap<>();
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Roaring64NavigableMap allIds = new Roaring64NavigableMap();
+
+    void put(long id, String text) {
+        remove(id);
+
+        texts.put(id, text);
+        allIds.addLong(id);
+        for (String gram : trigrams(text)) {
+            postings.computeIfAbsent(gram, key -> new Roaring64NavigableMap()).addLong(id);
+        }
+    }
+
+    void remove(long id) {
+        String text = texts.remove(id);
+        if (text == null) {
+            return;
+        }
+
+        allIds.removeLong(id);
+        for (String gram : trigrams(text)) {
+            Roaring64NavigableMap posting = postings.get(gram);
+            if (posting != null) {
+                posting.removeLong(id);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the texts that contain the query
+     *
+     * @param query      the substring to search for
+     * @param ignoreCase true when the case of the query and texts should be ignored
+     * @return the IDs of the texts containing the query
+     */
+    Roaring64NavigableMap search(String query, boolean ignoreCase) {
+        String needle = ignoreCase ? query.toLowerCase(Locale.ROOT) : query;
+        Roaring64NavigableMap matches = new Roaring64NavigableMap();
+
+        LongIterator candidates = candidates(query).getLongIterator();
+        while (candidates.hasNext()) {
+            long id = candidates.next();
+            String text = texts.get(id);
+            String haystack = ignoreCase ? text.toLowerCase(Locale.ROOT) : text;
+
+            if (haystack.contains(needle)) {
+                matches.addLong(id);
+            }
+        }
+        return matches;
+    }
+
+    private Roaring64NavigableMap candidates(String query) {
+        Roaring64NavigableMap candidates = new Roaring64NavigableMap();
+        Set<String> grams = trigrams(query);
+
+        // Queries shorter than a trigram can not be narrowed, every text is a candidate
+        if (grams.isEmpty()) {
+            candidates.or(allIds);
+            return candidates;
+        }
+
+        List<Roaring64NavigableMap> lists = new ArrayList<>();
+        for (String gram : grams) {
+            Roaring64NavigableMap posting = postings.get(gram);
+            if (posting == null) {
+                return candidates;
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingLong(Roaring64NavigableMap::getLongCardinality));
+
+        candidates.or(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.and(lists.get(i));
+        }
+        return candidates;
+    }
+
+    static Set<String> trigrams(String text) {
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        Set<String> grams = new HashSet<>();
+
+        for (int i = 0; i + GRAM_LENGTH <= lowerCase.length(); i++) {
+            grams.add(lowerCase.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
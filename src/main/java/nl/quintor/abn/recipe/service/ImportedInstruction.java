@@ -0,0 +1,21 @@
+package nl.quintor.abn.recipe.service;
+
+import lombok.Value;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+/**
+ * Instruction of an imported recipe, with the same constraints as an instruction that is created on its own
+ */
+@Value
+public class ImportedInstruction {
+
+    @NotEmpty
+    @Size(min = 8, message = "The way of preperation should be at least 8 characters")
+    String wayOfPreperation;
+
+    @NotEmpty
+    @Size(min = 2, message = "Ingredient Name should be at least 2 characters")
+    String ingredientName;
+}
@@ -0,0 +1,26 @@
+package nl.quintor.abn.recipe.service;
+
+import lombok.Value;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Recipe of a bulk import, with the same constraints as a recipe that is created on its own
+ */
+@Value
+public class ImportedRecipe {
+
+    @NotEmpty
+    @Size(min = 2, message = "Name should be at least 2 characters")
+    String name;
+
+    @Min(value = 1, message = "There should be at least 1 serving")
+    int numberOfServings;
+
+    List<@NotNull @Valid ImportedInstruction> instructionList;
+}
@@ -1,13 +1,21 @@
 package nl.quintor.abn.recipe.service;
 
+import nl.quintor.abn.recipe.cache.IngredientCatalogCache;
 import nl.quintor.abn.recipe.exception.IngredientAlreadyExistException;
 import nl.quintor.abn.recipe.exception.IngredientDoesNotExistException;
 import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.query.RecipeQueryPlanner;
 import nl.quintor.abn.recipe.repository.IngredientRepository;
+import nl.quintor.abn.recipe.search.IngredientNameResolver;
+import nl.quintor.abn.recipe.search.IngredientSuggester;
+import nl.quintor.abn.recipe.search.IngredientSuggestion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class IngredientService {
 
@@ -15,52 +23,97 @@ public class IngredientService {
 
     private final IngredientRepository ingredientRepository;
 
-    public IngredientService(IngredientRepository ingredientRepository) {
+    private final IngredientNameResolver ingredientNameResolver;
+
+    private final RecipeQueryPlanner recipeQueryPlanner;
+
+    private final IngredientSuggester ingredientSuggester;
+
+    private final IngredientCatalogCache ingredientCatalogCache;
+
+    public IngredientService(IngredientRepository ingredientRepository, IngredientNameResolver ingredientNameResolver, RecipeQueryPlanner recipeQueryPlanner, IngredientSuggester ingredientSuggester, IngredientCatalogCache ingredientCatalogCache) {
         this.ingredientRepository = ingredientRepository;
+        this.ingredientNameResolver = ingredientNameResolver;
+        this.recipeQueryPlanner = recipeQueryPlanner;
+        this.ingredientSuggester = ingredientSuggester;
+        this.ingredientCatalogCache = ingredientCatalogCache;
     }
 
     /**
-     * Method for finding an ingredient by name
+     * Method for finding an ingredient by name, ignoring case. The ingredient comes from the catalog cache, only a
+     * miss goes to the database
      *
      * @param ingredientName the name of the ingredient
-     * @return the found ingredient
+     * @return a detached copy of the found ingredient
      */
     public Ingredient findByName(String ingredientName) {
-        if (doesIngredientExist(ingredientName)) {
-            LOG.info("Finding ingredient " + ingredientName);
-            return ingredientRepository.findByName(ingredientName).get();
-        } else {
+        LOG.info("Finding ingredient " + ingredientName);
+        return ingredientCatalogCache.findByName(ingredientName).orElseThrow(() -> {
             LOG.error("Ingredient " + ingredientName + " does not exist");
-            throw new IngredientDoesNotExistException(ingredientName);
-        }
+            return new IngredientDoesNotExistException(ingredientName);
+        });
     }
 
     /**
-     * Method for creating a new ingredient
+     * Method for creating a new ingredient. The insert is the existence check: the unique index on the lower case name
+     * rejects a duplicate, also when it only differs in case or two requests create the same ingredient at the same time.
+     * Other integrity violations are passed on
      *
      * @param name       the name for the new ingredient
      * @param vegetarian specifies if the ingredient is vegetarian
      * @return the created ingredient
      */
     public Ingredient createIngredient(String name, boolean vegetarian) {
-        if (!doesIngredientExist(name)) {
-            LOG.info("Creating an ingredient with the name " + name);
-            return ingredientRepository.save(new Ingredient(name, vegetarian));
-        } else {
+        LOG.info("Creating an ingredient with the name " + name);
+
+        Ingredient ingredient;
+        try {
+            ingredient = ingredientRepository.saveAndFlush(new Ingredient(name, vegetarian));
+        } catch (DataIntegrityViolationException exception) {
+            if (!UniqueIndexViolations.isViolationOf(exception, Ingredient.NAME_INDEX)) {
+                throw exception;
+            }
             LOG.error("The ingredient " + name + " already exists");
             throw new IngredientAlreadyExistException(name);
         }
+
+        ingredientNameResolver.addName(name);
+        ingredientSuggester.addIngredient(ingredient);
+        ingredientCatalogCache.put(ingredient);
+        // The plans resolved the ingredient names against the catalog without the new ingredient
+        recipeQueryPlanner.invalidateAll();
+        return ingredient;
+    }
+
+    /**
+     * Method for resolving a possibly misspelled ingredient name to the name of an existing ingredient
+     *
+     * @param name the requested name of the ingredient
+     * @return the name of the nearest ingredient, or the requested name when no ingredient is near enough
+     */
+    public String resolveName(String name) {
+        return ingredientNameResolver.resolve(name).orElse(name);
+    }
+
+    /**
+     * Method for resolving an ingredient name to the name of the existing ingredient that only differs in case
+     *
+     * @param name the requested name of the ingredient
+     * @return the name of the ingredient, or the requested name when no ingredient has that name
+     */
+    public String resolveExactName(String name) {
+        return ingredientNameResolver.resolveExact(name).orElse(name);
     }
 
     /**
-     * Private method to check if the ingredient exist
+     * Method for completing the start of an ingredient name to the ingredients of the catalog
      *
-     * @param name the name of the ingredient that needs to be checked
-     * @return a boolean value if the ingredient exist
+     * @param prefix the start of the name, the case is ignored
+     * @param limit  the maximum amount of ingredients
+     * @return the ingredients whose name starts with the prefix, ordered by name
      */
-    private boolean doesIngredientExist(String name) {
-        LOG.info("Checking if the ingredient " + name + "exist");
-        return ingredientRepository.findByName(name).isPresent();
+    public List<IngredientSuggestion> suggest(String prefix, int limit) {
+        return ingredientSuggester.suggest(prefix, limit);
     }
 
 
@@ -10,6 +10,7 @@ import nl.quintor.abn.recipe.repository.InstructionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -47,35 +48,40 @@ public class InstructionService {
     }
 
     /**
-     * Method for creating a new instruction
+     * Method for creating a new instruction. The non-vegetarian counter of the recipe is updated in the same transaction
      *
      * @param wayOfPreperation the way an ingredient needs to be preperated
      * @param ingredientName   the name of the correlated ingredient
-     * @param recipeId         the recipe where the instruction belongs to
+     * @param recipe           the recipe where the instruction belongs to
      * @return the created instruction
      */
-    public Instruction create(String wayOfPreperation, String ingredientName, long recipeId) {
-        //Check if the ingredient and recipe exist
+    @Transactional
+    public Instruction create(String wayOfPreperation, String ingredientName, Recipe recipe) {
+        //Check if the ingredient exists
         Ingredient ingredient = ingredientService.findByName(ingredientName);
 
-        Recipe recipe = recipeService.findById(recipeId);
-
         LOG.info("Creating instruction based on " + ingredientName);
 
-        return instructionRepository.save(
+        Instruction instruction = instructionRepository.save(
                 new Instruction(
                         wayOfPreperation,
                         ingredient,
                         recipe
                 ));
+
+        if (!ingredient.isVegetarian()) {
+            recipeService.addNonVegetarianIngredients(recipe.getId(), 1);
+        }
+        return instruction;
     }
 
     /**
-     * Method for deleting an instruction
+     * Method for deleting an instruction. The non-vegetarian counter of the recipe is updated in the same transaction
      *
      * @param instructionId the ID of the instruction
      * @param recipe        the recipe where the instruction belongs to
      */
+    @Transactional
     public void delete(long instructionId, Recipe recipe) {
         // Checking if instruction does exist
         Instruction instruction = findById(instructionId);
@@ -83,7 +89,13 @@ public class InstructionService {
         // If instruction exist, check if it belongs to the recipe
         if (instruction.getRecipe().equals(recipe)) {
             LOG.info("Deleting the instruction");
+            // The loaded recipe would otherwise save the instruction again through its cascade
+            recipe.getInstructionList().remove(instruction);
             instructionRepository.delete(instruction);
+
+            if (!instruction.getIngredient().isVegetarian()) {
+                recipeService.addNonVegetarianIngredients(recipe.getId(), -1);
+            }
         } else {
             LOG.error("The instruction does not belong to the recipe");
             throw new DoesNotBelongException("The instruction does not belong to the recipe");
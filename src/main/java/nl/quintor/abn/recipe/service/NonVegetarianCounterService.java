@@ -0,0 +1,50 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class NonVegetarianCounterService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NonVegetarianCounterService.class);
+
+    private final RecipeRepository recipeRepository;
+
+    public NonVegetarianCounterService(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    /**
+     * Method which recalculates the non-vegetarian counter of every recipe based on its instructions.
+     * This is needed once for rows that were inserted without maintaining the counter
+     *
+     * @return the amount of updated recipes
+     */
+    @Transactional
+    public int backfill() {
+        LOG.info("Backfilling the non-vegetarian ingredients of all recipes");
+        return recipeRepository.backfillNonVegetarianIngredients();
+    }
+
+    /**
+     * Method which verifies the non-vegetarian counter against the instructions and ingredients
+     *
+     * @return the IDs of the recipes where the counter does not match the joins
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findInconsistentRecipes() {
+        List<Long> recipeIds = recipeRepository.findIdsWithInconsistentNonVegetarianIngredients();
+
+        if (recipeIds.isEmpty()) {
+            LOG.info("The non-vegetarian ingredients of all recipes are consistent");
+        } else {
+            LOG.error("The non-vegetarian ingredients of recipes " + recipeIds + " are inconsistent");
+        }
+        return recipeIds;
+    }
+}
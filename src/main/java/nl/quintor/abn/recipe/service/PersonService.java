@@ -6,6 +6,7 @@ import nl.quintor.abn.recipe.model.Person;
 import nl.quintor.abn.recipe.repository.PersonRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -41,30 +42,25 @@ public class PersonService {
     }
 
     /**
-     * Method which creates a new person
+     * Method which creates a new person. The insert is the existence check: the unique index on the username rejects
+     * a duplicate, also when two requests create the same person at the same time. Other integrity violations are
+     * passed on
      *
      * @param username the given username
      * @param password the given password
      * @return the created person object
      */
     public Person createPerson(String username, String password) {
-        if (!doesPersonExist(username)) {
-            LOG.info("Creating a person with the username " + username);
-            return personRepository.save(new Person(username, password));
-        } else {
+        LOG.info("Creating a person with the username " + username);
+
+        try {
+            return personRepository.saveAndFlush(new Person(username, password));
+        } catch (DataIntegrityViolationException exception) {
+            if (!UniqueIndexViolations.isViolationOf(exception, Person.USERNAME_INDEX)) {
+                throw exception;
+            }
             LOG.error("The user " + username + " already exists");
             throw new PersonAlreadyExistEception(username);
         }
     }
-
-    /**
-     * Private method that checks if the user exists by username
-     *
-     * @param username the username of the person
-     * @return a boolean if the person exist
-     */
-    private boolean doesPersonExist(String username) {
-        LOG.info("Checking if user with usename " + username + " exist");
-        return personRepository.findByUsername(username).isPresent();
-    }
 }
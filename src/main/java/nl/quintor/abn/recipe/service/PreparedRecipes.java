@@ -0,0 +1,18 @@
+package nl.quintor.abn.recipe.service;
+
+import lombok.Value;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Recipe;
+
+import java.util.List;
+
+/**
+ * New recipes of an import that passed validation, with their instructions, and the errors of the other recipes
+ */
+@Value
+public class PreparedRecipes {
+
+    List<Recipe> recipes;
+    List<Instruction> instructions;
+    List<RecipeImportError> errors;
+}
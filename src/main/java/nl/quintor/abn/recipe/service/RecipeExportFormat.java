@@ -0,0 +1,50 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.exception.InvalidExportFormatException;
+
+/**
+ * The formats the recipes of a person can be downloaded in
+ */
+public enum RecipeExportFormat {
+
+    /**
+     * One array with a recipe object per recipe, shaped like the recipes of the API
+     */
+    JSON("application/json", "json"),
+
+    /**
+     * One line per instruction, recipes without instructions get one line with empty instruction columns
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    RecipeExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Method to find the format by its name, ignoring the case
+     *
+     * @param name the name of the format
+     * @return the format with the name
+     */
+    public static RecipeExportFormat fromName(String name) {
+        for (RecipeExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new InvalidExportFormatException(name);
+    }
+}
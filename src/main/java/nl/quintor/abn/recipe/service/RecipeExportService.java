@@ -0,0 +1,227 @@
+package nl.quintor.abn.recipe.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.quintor.abn.recipe.exception.UnauthorizedException;
+import nl.quintor.abn.recipe.repository.RecipeExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+import static nl.quintor.abn.recipe.repository.RecipeExportRepository.*;
+
+/**
+ * Writes all recipes of a person to a stream while they are read from the database. Every row is written as soon as
+ * it is read and only the ID of the current recipe is kept, so the memory use does not depend on the amount of
+ * recipes.
+ */
+@Service
+public class RecipeExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeExportService.class);
+    private static final String CSV_HEADER = "recipe_id,recipe_name,number_of_servings,instruction_id,way_of_preperation,ingredient_id,ingredient_name,ingredient_vegetarian";
+
+    private final PersonService personService;
+
+    private final RecipeExportRepository recipeExportRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public RecipeExportService(PersonService personService, RecipeExportRepository recipeExportRepository, ObjectMapper objectMapper) {
+        this.personService = personService;
+        this.recipeExportRepository = recipeExportRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Method to write all recipes of a person in the format. The target is only opened after the checks, so a
+     * failed check can still be answered with a normal response, and it is closed after the last recipe
+     *
+     * @param requesterId the ID of the requesting person
+     * @param personId    the ID of the person whose recipes are exported
+     * @param format      the format to write the recipes in
+     * @param target      opens the stream the recipes are written to
+     * @return the amount of exported recipes
+     */
+    @Transactional(readOnly = true)
+    public long export(long requesterId, long personId, RecipeExportFormat format, Supplier<OutputStream> target) {
+        //Check if person with the ID exists
+        personService.getById(personId);
+
+        if (requesterId != personId) {
+            LOG.error(requesterId + " is not allowed to export the recipes of " + personId);
+            throw new UnauthorizedException("Not the owner of the recipes");
+        }
+
+        LOG.info("Exporting recipes of person " + personId + " as " + format);
+        try (OutputStream outputStream = target.get()) {
+            long recipes = format == RecipeExportFormat.JSON
+                    ? writeJson(personId, outputStream)
+                    : writeCsv(personId, outputStream);
+            LOG.info("Exported " + recipes + " recipes of person " + personId);
+            return recipes;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Private method that writes the recipes as one JSON array, the rows of a recipe are consecutive because they
+     * are ordered by recipe ID
+     */
+    private long writeJson(long personId, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.writeStartArray();
+
+        JsonRows rows = new JsonRows(generator);
+        recipeExportRepository.forEachRow(personId, rows);
+
+        if (rows.recipes > 0) {
+            endRecipe(generator);
+        }
+        generator.writeEndArray();
+        generator.flush();
+        return rows.recipes;
+    }
+
+    /**
+     * Private method that writes a line per row
+     */
+    private long writeCsv(long personId, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        CsvRows rows = new CsvRows(writer);
+        recipeExportRepository.forEachRow(personId, rows);
+
+        writer.flush();
+        return rows.recipes;
+    }
+
+    private static void endRecipe(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Private method that quotes a CSV value when it contains a separator, quote or line break
+     */
+    private static String toCsvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Writes the rows as recipe objects with their instructions
+     */
+    private static final class JsonRows implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private long recipeId = -1;
+        private long recipes;
+
+        private JsonRows(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet row) throws SQLException {
+            try {
+                long rowRecipeId = row.getLong(RECIPE_ID);
+                if (rowRecipeId != recipeId) {
+                    if (recipes > 0) {
+                        endRecipe(generator);
+                    }
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rowRecipeId);
+                    generator.writeStringField("name", row.getString(RECIPE_NAME));
+                    generator.writeNumberField("numberOfServings", row.getInt(NUMBER_OF_SERVINGS));
+                    generator.writeArrayFieldStart("instructionList");
+                    recipeId = rowRecipeId;
+                    recipes++;
+                }
+
+                long instructionId = row.getLong(INSTRUCTION_ID);
+                if (row.wasNull()) {
+                    return;
+                }
+                generator.writeStartObject();
+                generator.writeNumberField("id", instructionId);
+                generator.writeStringField("wayOfPreperation", row.getString(WAY_OF_PREPERATION));
+                generator.writeObjectFieldStart("ingredient");
+                generator.writeNumberField("id", row.getLong(INGREDIENT_ID));
+                generator.writeStringField("name", row.getString(INGREDIENT_NAME));
+                generator.writeBooleanField("vegetarian", row.getBoolean(INGREDIENT_VEGETARIAN));
+                generator.writeEndObject();
+                generator.writeEndObject();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    /**
+     * Writes every row as a CSV line
+     */
+    private static final class CsvRows implements RowCallbackHandler {
+
+        private final Writer writer;
+        private long recipeId = -1;
+        private long recipes;
+
+        private CsvRows(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet row) throws SQLException {
+            long rowRecipeId = row.getLong(RECIPE_ID);
+            if (rowRecipeId != recipeId) {
+                recipeId = rowRecipeId;
+                recipes++;
+            }
+
+            String instructionId = row.getString(INSTRUCTION_ID);
+            boolean hasInstruction = instructionId != null;
+            try {
+                writer.write(Long.toString(rowRecipeId));
+                writer.write(',');
+                writer.write(toCsvValue(row.getString(RECIPE_NAME)));
+                writer.write(',');
+                writer.write(Integer.toString(row.getInt(NUMBER_OF_SERVINGS)));
+                writer.write(',');
+                writer.write(hasInstruction ? instructionId : "");
+                writer.write(',');
+                writer.write(toCsvValue(row.getString(WAY_OF_PREPERATION)));
+                writer.write(',');
+                writer.write(toCsvValue(row.getString(INGREDIENT_ID)));
+                writer.write(',');
+                writer.write(toCsvValue(row.getString(INGREDIENT_NAME)));
+                writer.write(',');
+                writer.write(hasInstruction ? Boolean.toString(row.getBoolean(INGREDIENT_VEGETARIAN)) : "");
+                writer.write('\n');
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package nl.quintor.abn.recipe.service;
+
+import lombok.Value;
+
+/**
+ * Reason why a recipe of a bulk import was skipped
+ */
+@Value
+public class RecipeImportError {
+
+    /**
+     * Position of the recipe in the import, starting at 0
+     */
+    long index;
+    String message;
+}
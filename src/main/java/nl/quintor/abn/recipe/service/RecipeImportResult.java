@@ -0,0 +1,23 @@
+package nl.quintor.abn.recipe.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import, the recipes with an error are skipped and the others are imported
+ */
+@Value
+public class RecipeImportResult {
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    int importedRecipes;
+    int importedInstructions;
+    List<RecipeImportError> errors;
+    long durationMillis;
+
+    public double getRecipesPerSecond() {
+        return importedRecipes * MILLIS_PER_SECOND / Math.max(1, durationMillis);
+    }
+}
@@ -0,0 +1,205 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.cache.RecipeSearchCache;
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import nl.quintor.abn.recipe.repository.RecipeBatchRepository;
+import nl.quintor.abn.recipe.search.RecipeSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Imports many recipes of a person at once. The person is checked once, the ingredients of all recipes are resolved
+ * with a single query and the recipes and instructions are written with batched inserts, all in one transaction.
+ * A recipe that is invalid or uses an unknown ingredient is reported and skipped, the other recipes are imported.
+ */
+@Service
+public class RecipeImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private final PersonService personService;
+
+    private final IngredientRepository ingredientRepository;
+
+    private final RecipeBatchRepository recipeBatchRepository;
+
+    private final RecipeSearchIndex recipeSearchIndex;
+
+    private final RecipeSearchCache recipeSearchCache;
+
+    private final Validator validator;
+
+    public RecipeImportService(PersonService personService, IngredientRepository ingredientRepository, RecipeBatchRepository recipeBatchRepository, RecipeSearchIndex recipeSearchIndex, RecipeSearchCache recipeSearchCache, Validator validator) {
+        this.personService = personService;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeBatchRepository = recipeBatchRepository;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.recipeSearchCache = recipeSearchCache;
+        this.validator = validator;
+    }
+
+    /**
+     * Method to import recipes with their instructions for a person
+     *
+     * @param personId the ID of the person that creates the recipes
+     * @param imports  the recipes to create
+     * @return the amount of imported recipes and instructions, and the errors of the skipped recipes
+     */
+    @Transactional
+    public RecipeImportResult importRecipes(long personId, List<ImportedRecipe> imports) {
+        long start = System.nanoTime();
+        Person person = personService.getById(personId);
+
+        PreparedRecipes prepared = prepare(person, imports, 0);
+        recipeBatchRepository.insertRecipes(prepared.getRecipes());
+        recipeBatchRepository.insertInstructions(prepared.getInstructions());
+
+        if (!prepared.getRecipes().isEmpty()) {
+            recipeSearchIndex.invalidatePerson(personId);
+            recipeSearchCache.invalidatePerson(personId);
+        }
+
+        List<RecipeImportError> errors = prepared.getErrors();
+        RecipeImportResult result = new RecipeImportResult(prepared.getRecipes().size(), prepared.getInstructions().size(), errors,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.info("Imported " + result.getImportedRecipes() + " recipes with " + result.getImportedInstructions() + " instructions for person " + personId
+                + " in " + result.getDurationMillis() + " ms, skipped " + errors.size() + " recipes");
+        return result;
+    }
+
+    /**
+     * Method which turns imported recipes into new recipe entities with their instructions. The recipes are
+     * validated and the ingredients of all valid recipes are resolved with one query, the recipes that are invalid
+     * or use an unknown ingredient are left out and reported.
+     *
+     * @param person     the person that creates the recipes
+     * @param imports    the imported recipes
+     * @param firstIndex the position of the first recipe in the whole import, used in the errors
+     * @return the new recipes and instructions, which are not saved yet, and the errors ordered by position
+     */
+    public PreparedRecipes prepare(Person person, List<ImportedRecipe> imports, long firstIndex) {
+        List<RecipeImportError> errors = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>(imports.size());
+        for (int index = 0; index < imports.size(); index++) {
+            String violations = validate(imports.get(index));
+            if (violations.isEmpty()) {
+                validIndexes.add(index);
+            } else {
+                errors.add(new RecipeImportError(firstIndex + index, violations));
+            }
+        }
+
+        Map<String, Ingredient> ingredients = findIngredients(imports, validIndexes);
+
+        List<Recipe> recipes = new ArrayList<>(validIndexes.size());
+        List<Instruction> instructions = new ArrayList<>();
+        for (int index : validIndexes) {
+            ImportedRecipe imported = imports.get(index);
+            Recipe recipe = new Recipe(imported.getName(), imported.getNumberOfServings(), person);
+
+            String unknownIngredient = addInstructions(recipe, instructionsOf(imported), ingredients);
+            if (unknownIngredient != null) {
+                errors.add(new RecipeImportError(firstIndex + index, "Ingredient with name " + unknownIngredient + " does not exist"));
+            } else {
+                recipes.add(recipe);
+                instructions.addAll(recipe.getInstructionList());
+            }
+        }
+
+        errors.sort(Comparator.comparingLong(RecipeImportError::getIndex));
+        return new PreparedRecipes(recipes, instructions, errors);
+    }
+
+    /**
+     * Private method that validates an imported recipe and its instructions
+     *
+     * @param imported the imported recipe
+     * @return the violated constraints, empty when the recipe is valid
+     */
+    private String validate(ImportedRecipe imported) {
+        if (imported == null) {
+            return "The recipe should not be empty";
+        }
+        Set<ConstraintViolation<ImportedRecipe>> violations = validator.validate(imported);
+
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Private method that finds the ingredients of the valid recipes with one query, the case of the names is
+     * ignored
+     *
+     * @param imports      the imported recipes
+     * @param validIndexes the positions of the valid recipes
+     * @return the ingredients by lower case name
+     */
+    private Map<String, Ingredient> findIngredients(List<ImportedRecipe> imports, List<Integer> validIndexes) {
+        Set<String> names = new HashSet<>();
+        for (int index : validIndexes) {
+            for (ImportedInstruction instruction : instructionsOf(imports.get(index))) {
+                names.add(toKey(instruction.getIngredientName()));
+            }
+        }
+
+        Map<String, Ingredient> ingredients = new HashMap<>();
+        if (!names.isEmpty()) {
+            for (Ingredient ingredient : ingredientRepository.findByLowerCaseNameIn(names)) {
+                ingredients.put(toKey(ingredient.getName()), ingredient);
+            }
+        }
+        return ingredients;
+    }
+
+    /**
+     * Private method that adds the instructions to the recipe and counts its non-vegetarian ingredients
+     *
+     * @param recipe      the new recipe
+     * @param imported    the imported instructions of the recipe
+     * @param ingredients the known ingredients by lower case name
+     * @return the name of the first unknown ingredient, or null when all ingredients are known
+     */
+    private String addInstructions(Recipe recipe, List<ImportedInstruction> imported, Map<String, Ingredient> ingredients) {
+        for (ImportedInstruction instruction : imported) {
+            Ingredient ingredient = ingredients.get(toKey(instruction.getIngredientName()));
+            if (ingredient == null) {
+                return instruction.getIngredientName();
+            }
+
+            recipe.getInstructionList().add(new Instruction(instruction.getWayOfPreperation(), ingredient, recipe));
+            if (!ingredient.isVegetarian()) {
+                recipe.setNonVegetarianIngredients(recipe.getNonVegetarianIngredients() + 1);
+            }
+        }
+        return null;
+    }
+
+    private static List<ImportedInstruction> instructionsOf(ImportedRecipe imported) {
+        return imported.getInstructionList() != null ? imported.getInstructionList() : List.of();
+    }
+
+    private static String toKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,18 @@
+package nl.quintor.abn.recipe.service;
+
+import lombok.Value;
+
+/**
+ * Position of a page in a sorted search: the sort key and the ID of the last recipe of the previous page. The next
+ * page starts right after that recipe, so pages stay stable when recipes are added or removed in between.
+ */
+@Value
+public class RecipeKeyset {
+
+    String sortKey;
+    long lastId;
+
+    public static RecipeKeyset ofId(long lastId) {
+        return new RecipeKeyset(String.valueOf(lastId), lastId);
+    }
+}
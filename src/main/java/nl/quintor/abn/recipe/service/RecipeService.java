@@ -1,33 +1,75 @@
 package nl.quintor.abn.recipe.service;
 
+import nl.quintor.abn.recipe.cache.RecipeSearchCache;
+import nl.quintor.abn.recipe.cache.SearchFilter;
+import nl.quintor.abn.recipe.exception.InvalidPageRequestException;
 import nl.quintor.abn.recipe.exception.RecipeNotFoundException;
 import nl.quintor.abn.recipe.exception.UnauthorizedException;
 import nl.quintor.abn.recipe.model.Instruction;
 import nl.quintor.abn.recipe.model.Person;
 import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.query.QueryPlan;
+import nl.quintor.abn.recipe.query.RecipeQueryPlanner;
+import nl.quintor.abn.recipe.repository.RecipeIngredientView;
 import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.repository.RecipeSpecifications;
+import nl.quintor.abn.recipe.search.IngredientMatchRanker;
+import nl.quintor.abn.recipe.search.PartitionedRecipeSearch;
+import nl.quintor.abn.recipe.search.RecipeFacetCounter;
+import nl.quintor.abn.recipe.search.RecipeFacets;
+import nl.quintor.abn.recipe.search.RecipeSearchIndex;
+import nl.quintor.abn.recipe.search.RecipeSuggestion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RecipeService {
 
     private static final Logger LOG = LoggerFactory.getLogger(RecipeService.class);
+    private static final int STREAM_CLEAR_INTERVAL = 100;
+
     private final RecipeRepository recipeRepository;
     private final InstructionService instructionService;
 
     private final PersonService personService;
 
-    public RecipeService(RecipeRepository recipeRepository, @Lazy InstructionService instructionService, @Lazy PersonService personService) {
+    private final RecipeSearchIndex recipeSearchIndex;
+
+    private final RecipeSearchCache recipeSearchCache;
+
+    private final PartitionedRecipeSearch partitionedRecipeSearch;
+
+    private final RecipeQueryPlanner recipeQueryPlanner;
+
+    private final EntityManager entityManager;
+
+    public RecipeService(RecipeRepository recipeRepository, @Lazy InstructionService instructionService, @Lazy PersonService personService, RecipeSearchIndex recipeSearchIndex, RecipeSearchCache recipeSearchCache, PartitionedRecipeSearch partitionedRecipeSearch, RecipeQueryPlanner recipeQueryPlanner, EntityManager entityManager) {
         this.recipeRepository = recipeRepository;
         this.instructionService = instructionService;
         this.personService = personService;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.recipeSearchCache = recipeSearchCache;
+        this.partitionedRecipeSearch = partitionedRecipeSearch;
+        this.recipeQueryPlanner = recipeQueryPlanner;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -55,22 +97,465 @@ public class RecipeService {
      * @param vegetarian        boolean if the dish needs to be vegetarian
      * @param servings          the amount of servings the dish needs to have
      * @param includeIngredient include specific ingredients
+     * @param matchAll          boolean if the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        boolean if the case of the instruction text needs to be ignored
+     * @param afterId           only return recipes with a higher ID, the last ID of the previous page
+     * @param limit             the maximum amount of recipes, all recipes are returned when empty
+     * @return list of found recipes matching the wishes for the correlated person, ordered by ID
+     */
+    public List<Recipe> search(long personId, Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<List<String>> includeIngredient, Optional<Boolean> matchAll, Optional<List<String>> excludeIngredient, Optional<String> instruction, Optional<Boolean> ignoreCase, Optional<Long> afterId, Optional<Integer> limit) {
+        SearchFilter filter = SearchFilter.of(vegetarian, servings, Optional.empty(), Optional.empty(), includeIngredient, matchAll, excludeIngredient, instruction, ignoreCase, Optional.empty(),
+                RecipeSort.ID, Sort.Direction.ASC, afterId.map(RecipeKeyset::ofId), limit);
+        return findWithInstructions(searchIds(personId, filter, null));
+    }
+
+    /**
+     * Method which fetches the same recipes as {@link #search} as flat rows of a recipe, instruction and ingredient.
+     * Only scalar values are selected, so the rows can be turned into DTOs without hydrating and tracking entities.
+     * The rows are cached per person and normalized wishes until the recipes of the person change.
+     * <p>
+     * The pages of every order are read with a keyset on the sort key and the ID, which the composite indexes of
+     * the recipe serve in index order
+     *
+     * @param personId          the ID of the requesting person
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients
+     * @param matchAll          boolean if the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        boolean if the case of the instruction text needs to be ignored
+     * @param query             boolean query on ingredients, servings, vegetarian and instruction text, see
+     *                          {@link RecipeQueryPlanner}, combined with the other wishes
+     * @param sort              the order of the recipes, ID, name or servings
+     * @param direction         the direction of the order
+     * @param after             only return recipes after this position, the last recipe of the previous page
+     * @param limit             the maximum amount of recipes, all recipes are returned when empty
+     * @return rows of the found recipes, in the order of the recipes and then by instruction ID
+     */
+    public List<RecipeIngredientView> searchViews(long personId, Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<Integer> minServings, Optional<Integer> maxServings, Optional<List<String>> includeIngredient, Optional<Boolean> matchAll, Optional<List<String>> excludeIngredient, Optional<String> instruction, Optional<Boolean> ignoreCase, Optional<String> query, RecipeSort sort, Sort.Direction direction, Optional<RecipeKeyset> after, Optional<Integer> limit) {
+        QueryPlan plan = query.map(recipeQueryPlanner::plan).orElse(null);
+        SearchFilter filter = SearchFilter.of(vegetarian, servings, minServings, maxServings, includeIngredient, matchAll, excludeIngredient, instruction, ignoreCase, toExpression(plan), sort, direction, after, limit);
+
+        return recipeSearchCache.get(personId, filter, () -> loadViews(personId, filter, plan));
+    }
+
+    /**
+     * Method which fetches the recipes of the person that contain the most of the included ingredients, as flat rows
+     * like {@link #searchViews}. The ingredient names of the matching recipes are read in one pass and only the
+     * best k recipes are kept, recipes with an equal amount of matched ingredients are ordered on the part of their
+     * ingredients that was included. The rows are cached like the rows of the search
+     *
+     * @param personId          the ID of the requesting person
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient the ingredients to rank on
+     * @param matchAll          boolean if the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        boolean if the case of the instruction text needs to be ignored
+     * @param query             boolean query on ingredients, servings, vegetarian and instruction text, see
+     *                          {@link RecipeQueryPlanner}, combined with the other wishes
+     * @param limit             the amount of recipes to keep
+     * @return rows of the best matching recipes, best match first and then ordered by instruction ID
+     */
+    public List<RecipeIngredientView> rankViewsByIngredients(long personId, Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<Integer> minServings, Optional<Integer> maxServings, List<String> includeIngredient, Optional<Boolean> matchAll, Optional<List<String>> excludeIngredient, Optional<String> instruction, Optional<Boolean> ignoreCase, Optional<String> query, int limit) {
+        QueryPlan plan = query.map(recipeQueryPlanner::plan).orElse(null);
+        SearchFilter filter = SearchFilter.of(vegetarian, servings, minServings, maxServings, Optional.of(includeIngredient), matchAll, excludeIngredient, instruction, ignoreCase, toExpression(plan), RecipeSort.INGREDIENTS, Sort.Direction.DESC, Optional.empty(), Optional.of(limit));
+
+        return recipeSearchCache.get(personId, filter, () -> findViewsInOrder(rankIdsByIngredients(personId, filter, plan)));
+    }
+
+    /**
+     * Private method that loads the rows of the recipes in the order of the IDs
+     */
+    private List<RecipeIngredientView> findViewsInOrder(List<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int position = 0; position < recipeIds.size(); position++) {
+            positions.put(recipeIds.get(position), position);
+        }
+
+        // The rows are ordered by recipe and instruction, a stable sort on position keeps the instruction order
+        List<RecipeIngredientView> views = new ArrayList<>(recipeRepository.findIngredientViewsByRecipeIdIn(recipeIds));
+        views.sort(Comparator.comparing(view -> positions.get(view.getRecipeId())));
+        return views;
+    }
+
+    /**
+     * Private method that ranks the IDs of the recipes on the included ingredients, the limit of the filter is the
+     * amount of recipes to keep
+     */
+    private List<Long> rankIdsByIngredients(long personId, SearchFilter filter, QueryPlan plan) {
+        //Check if person with the ID exists
+        personService.getById(personId);
+
+        if (matchesNothing(plan)) {
+            return new ArrayList<>();
+        }
+
+        IngredientMatchRanker ranker = new IngredientMatchRanker(filter.getIncludeIngredients(), filter.isMatchAll(), filter.getLimit());
+        recipeRepository.forEachIngredientName(withPlan(toSpecification(personId, filter), plan), ranker::accept);
+        return ranker.toRankedIds();
+    }
+
+    /**
+     * Method which counts the recipes matching the wishes per ingredient, per amount of servings and per vegetarian
+     * flag. The wishes have the same meaning as in {@link #search}, and all facets are counted in one pass over a
+     * single query of the matching recipes
+     *
+     * @param personId          the ID of the requesting person
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients
+     * @param matchAll          boolean if the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        boolean if the case of the instruction text needs to be ignored
+     * @param query             boolean query on ingredients, servings, vegetarian and instruction text, see
+     *                          {@link RecipeQueryPlanner}, combined with the other wishes
+     * @return the counts of the matching recipes per facet value
+     */
+    public RecipeFacets facets(long personId, Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<Integer> minServings, Optional<Integer> maxServings, Optional<List<String>> includeIngredient, Optional<Boolean> matchAll, Optional<List<String>> excludeIngredient, Optional<String> instruction, Optional<Boolean> ignoreCase, Optional<String> query) {
+        //Check if person with the ID exists
+        personService.getById(personId);
+
+        QueryPlan plan = query.map(recipeQueryPlanner::plan).orElse(null);
+        SearchFilter filter = SearchFilter.of(vegetarian, servings, minServings, maxServings, includeIngredient, matchAll, excludeIngredient, instruction, ignoreCase, toExpression(plan),
+                RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty());
+
+        RecipeFacetCounter counter = new RecipeFacetCounter();
+        if (!matchesNothing(plan)) {
+            recipeRepository.forEachFacetRow(withPlan(toSpecification(personId, filter), plan), counter::accept);
+        }
+
+        RecipeFacets facets = counter.toFacets();
+        LOG.info("Counted facets of " + facets.getTotal() + " recipes for person " + personId);
+        return facets;
+    }
+
+    /**
+     * Private method that loads the rows of the page of recipes matching the wishes from the database
+     */
+    private List<RecipeIngredientView> loadViews(long personId, SearchFilter filter, QueryPlan plan) {
+        List<Long> recipeIds = searchIds(personId, filter, plan);
+
+        if (recipeIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (filter.getSort() == RecipeSort.ID && filter.getDirection().isAscending()) {
+            return recipeRepository.findIngredientViewsByRecipeIdIn(recipeIds);
+        }
+        return findViewsInOrder(recipeIds);
+    }
+
+    /**
+     * Private method that finds the IDs of the page of recipes matching the wishes, with the in-memory index
+     * when it is enabled and with the search query otherwise. The index only answers the wishes it holds in
+     * ascending ID order, other searches always use the search query. The plan is null when there is no query
+     */
+    private List<Long> searchIds(long personId, SearchFilter filter, QueryPlan plan) {
+        //Check if person with the ID exists
+        personService.getById(personId);
+
+        if (matchesNothing(plan)) {
+            return new ArrayList<>();
+        }
+
+        RecipeSort sort = filter.getSort();
+        Sort.Direction direction = filter.getDirection();
+        if (recipeSearchIndex.isEnabled() && plan == null && filter.getMinServings() == null && filter.getMaxServings() == null
+                && sort == RecipeSort.ID && direction.isAscending()) {
+            return searchIdsWithIndex(personId, filter);
+        }
+
+        Specification<Recipe> specification = withPlan(toSpecification(personId, filter), plan);
+        if (filter.getAfter() != null) {
+            specification = specification.and(toKeysetSpecification(sort, direction, filter.getAfter()));
+        }
+
+        // The person leads the order, so the order matches the composite indexes that start with the person
+        Sort order = Sort.by("createdBy.id").and(Sort.by(direction, sort.getAttribute()));
+        if (sort != RecipeSort.ID) {
+            order = order.and(Sort.by(direction, RecipeSort.ID.getAttribute()));
+        }
+        return recipeRepository.searchIds(specification, order, filter.getLimit());
+    }
+
+    /**
+     * Private method that selects the recipes after the last recipe of the previous page in the order of the search
+     */
+    private Specification<Recipe> toKeysetSpecification(RecipeSort sort, Sort.Direction direction, RecipeKeyset after) {
+        boolean descending = direction.isDescending();
+
+        switch (sort) {
+            case NAME:
+                return RecipeSpecifications.after(sort.getAttribute(), after.getSortKey(), after.getLastId(), descending);
+            case SERVINGS:
+                try {
+                    return RecipeSpecifications.after(sort.getAttribute(), Integer.parseInt(after.getSortKey()), after.getLastId(), descending);
+                } catch (NumberFormatException exception) {
+                    throw new InvalidPageRequestException("The cursor position " + after.getSortKey() + " is not an amount of servings");
+                }
+            default:
+                return descending ? RecipeSpecifications.idBefore(after.getLastId()) : RecipeSpecifications.idAfter(after.getLastId());
+        }
+    }
+
+    /**
+     * Private method that tells if the optimizer proved that the query can not match, so no search is needed
+     */
+    private boolean matchesNothing(QueryPlan plan) {
+        if (plan != null && plan.matchesNothing()) {
+            LOG.info("Query " + plan.getExpression() + " matches no recipes, skipping the search");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Private method that adds the predicate of the query plan to the predicates of the wishes
+     */
+    private Specification<Recipe> withPlan(Specification<Recipe> specification, QueryPlan plan) {
+        return plan == null ? specification : specification.and(plan.getSpecification());
+    }
+
+    /**
+     * Private method that returns the normalized text of the query of the plan, which is part of the filter
+     */
+    private static Optional<String> toExpression(QueryPlan plan) {
+        return Optional.ofNullable(plan).map(QueryPlan::getExpression);
+    }
+
+    /**
+     * Private method that restricts the predicates of the wishes to the recipes of the person
+     */
+    private Specification<Recipe> toSpecification(long personId, SearchFilter filter) {
+        return RecipeSpecifications.createdBy(personId)
+                .and(toFilterSpecification(filter));
+    }
+
+    /**
+     * Private method that combines the predicates of only the supplied wishes, so the query does not contain
+     * the clauses of wishes that are not used
+     */
+    private Specification<Recipe> toFilterSpecification(SearchFilter filter) {
+        Specification<Recipe> specification = Specification.where(null);
+
+        if (Boolean.TRUE.equals(filter.getVegetarian())) {
+            specification = specification.and(RecipeSpecifications.vegetarian());
+        }
+        if (filter.getServings() != null) {
+            specification = specification.and(RecipeSpecifications.servings(filter.getServings()));
+        }
+        if (filter.getMinServings() != null && filter.getMaxServings() != null) {
+            specification = specification.and(RecipeSpecifications.servingsBetween(filter.getMinServings(), filter.getMaxServings()));
+        } else if (filter.getMinServings() != null) {
+            specification = specification.and(RecipeSpecifications.servingsAtLeast(filter.getMinServings()));
+        } else if (filter.getMaxServings() != null) {
+            specification = specification.and(RecipeSpecifications.servingsAtMost(filter.getMaxServings()));
+        }
+        if (filter.getIncludeIngredients() != null) {
+            specification = specification.and(filter.isMatchAll()
+                    ? RecipeSpecifications.includesAllIngredients(filter.getIncludeIngredients())
+                    : RecipeSpecifications.includesAnyIngredient(filter.getIncludeIngredients()));
+        }
+        if (filter.getExcludeIngredients() != null) {
+            specification = specification.and(RecipeSpecifications.excludesIngredients(filter.getExcludeIngredients()));
+        }
+        if (filter.getInstruction() != null) {
+            specification = specification.and(RecipeSpecifications.instructionContains(filter.getInstruction(), filter.isIgnoreCase()));
+        }
+        return specification;
+    }
+
+    /**
+     * Method which searches the recipes of all persons with the same wishes as {@link #searchViews}. The recipes are
+     * searched in partitions of recipe IDs in parallel, see {@link PartitionedRecipeSearch}
+     *
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients
+     * @param matchAll          boolean if the dish needs to contain all included ingredients instead of one
+     * @param excludeIngredient exclude specific ingredients
+     * @param instruction       filter for specific text in instructions
+     * @param ignoreCase        boolean if the case of the instruction text needs to be ignored
+     * @param query             boolean query on ingredients, servings, vegetarian and instruction text, see
+     *                          {@link RecipeQueryPlanner}, combined with the other wishes
+     * @param afterId           only return recipes with a higher ID, the last ID of the previous page
+     * @param limit             the maximum amount of recipes
+     * @return rows of the found recipes, ordered by recipe and instruction ID
+     */
+    public List<RecipeIngredientView> searchPublicViews(Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<Integer> minServings, Optional<Integer> maxServings, Optional<List<String>> includeIngredient, Optional<Boolean> matchAll, Optional<List<String>> excludeIngredient, Optional<String> instruction, Optional<Boolean> ignoreCase, Optional<String> query, Optional<Long> afterId, int limit) {
+        QueryPlan plan = query.map(recipeQueryPlanner::plan).orElse(null);
+        if (matchesNothing(plan)) {
+            return new ArrayList<>();
+        }
+
+        SearchFilter filter = SearchFilter.of(vegetarian, servings, minServings, maxServings, includeIngredient, matchAll, excludeIngredient, instruction, ignoreCase, toExpression(plan),
+                RecipeSort.ID, Sort.Direction.ASC, afterId.map(RecipeKeyset::ofId), Optional.of(limit));
+        List<Long> recipeIds = partitionedRecipeSearch.searchIds(
+                withPlan(toFilterSpecification(filter), plan),
+                afterId.orElse(null),
+                limit);
+
+        LOG.info("Found " + recipeIds.size() + " public recipes");
+        if (recipeIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return recipeRepository.findIngredientViewsByRecipeIdIn(recipeIds);
+    }
+
+    /**
+     * Method to pass all the recipes of the person matching the wishes to a consumer one at a time. The recipes are
+     * read through a forward-only database cursor and the persistence context is cleared every
+     * {@value #STREAM_CLEAR_INTERVAL} recipes, so memory use does not grow with the amount of recipes.
+     * The consumer is called inside the transaction, so lazy relations of the recipe can still be loaded
+     *
+     * @param personId          the ID of the requesting person
+     * @param vegetarian        boolean if the dish needs to be vegetarian
+     * @param servings          the amount of servings the dish needs to have
+     * @param minServings       the minimum amount of servings the dish needs to have
+     * @param maxServings       the maximum amount of servings the dish needs to have
+     * @param includeIngredient include specific ingredients
+     * @param matchAll          boolean if the dish needs to contain all included ingredients instead of one
      * @param excludeIngredient exclude specific ingredients
      * @param instruction       filter for specific text in instructions
-     * @return list of found recipes matching the wishes for the correlated person
+     * @param ignoreCase        boolean if the case of the instruction text needs to be ignored
+     * @param query             boolean query on ingredients, servings, vegetarian and instruction text, see
+     *                          {@link RecipeQueryPlanner}, combined with the other wishes
+     * @param consumer          receives every found recipe, ordered by ID
      */
-    public List<Recipe> search(long personId, Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<List<String>> includeIngredient, Optional<List<String>> excludeIngredient, Optional<String> instruction) {
+    @Transactional(readOnly = true)
+    public void streamSearch(long personId, Optional<Boolean> vegetarian, Optional<Integer> servings, Optional<Integer> minServings, Optional<Integer> maxServings, Optional<List<String>> includeIngredient, Optional<Boolean> matchAll, Optional<List<String>> excludeIngredient, Optional<String> instruction, Optional<Boolean> ignoreCase, Optional<String> query, Consumer<Recipe> consumer) {
         //Check if person with the ID exists
         personService.getById(personId);
 
-        return recipeRepository.searchAll(
+        QueryPlan plan = query.map(recipeQueryPlanner::plan).orElse(null);
+        if (matchesNothing(plan)) {
+            return;
+        }
+
+        SearchFilter filter = SearchFilter.of(vegetarian, servings, minServings, maxServings, includeIngredient, matchAll, excludeIngredient, instruction, ignoreCase, toExpression(plan),
+                RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty());
+
+        LOG.info("Streaming recipes of person " + personId);
+        try (Stream<Recipe> recipes = recipeRepository.streamAll(withPlan(toSpecification(personId, filter), plan))) {
+            Iterator<Recipe> iterator = recipes.iterator();
+            int count = 0;
+
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+
+                if (++count % STREAM_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Private method that answers the search with the in-memory bitmap and trigram index, only the matching
+     * recipes are loaded from the database
+     */
+    private List<Long> searchIdsWithIndex(long personId, SearchFilter filter) {
+        List<Long> recipeIds = recipeSearchIndex.search(
                 personId,
-                vegetarian.orElse(null),
-                servings.orElse(null),
-                includeIngredient.orElse(null),
-                excludeIngredient.orElse(null),
-                instruction.orElse(null)
+                filter.getVegetarian(),
+                filter.getServings(),
+                filter.getIncludeIngredients(),
+                filter.isMatchAll(),
+                filter.getExcludeIngredients(),
+                filter.getInstruction(),
+                filter.isIgnoreCase()
         );
+
+        // The IDs are ascending, so the page is the first limit IDs after the cursor
+        long afterId = filter.getAfter() == null ? 0 : filter.getAfter().getLastId();
+        return recipeIds.stream()
+                .filter(recipeId -> recipeId > afterId)
+                .limit(filter.getLimit() == null ? Integer.MAX_VALUE : filter.getLimit())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Private method that loads the recipes including their instructions and ingredients in a single statement,
+     * so mapping them to DTOs does not lazy load per recipe or instruction
+     *
+     * @param recipeIds the IDs of the recipes
+     * @return the recipes ordered by ID
+     */
+    private List<Recipe> findWithInstructions(List<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return recipeRepository.findWithInstructionsByIdIn(recipeIds);
+    }
+
+    /**
+     * Method to complete the start of a recipe name to the recipes of a person, for autocompletion. The names come
+     * from the in-memory index, which is kept current by the create, modify and delete methods.
+     *
+     * @param personId the ID of the requesting person
+     * @param prefix   the start of the name, the case is ignored
+     * @param limit    the maximum amount of recipes
+     * @return the recipes whose name starts with the prefix, ordered by name
+     */
+    public List<RecipeSuggestion> suggest(long personId, String prefix, int limit) {
+        //Check if person with the ID exists
+        personService.getById(personId);
+
+        return recipeSearchIndex.suggest(personId, prefix, limit);
+    }
+
+    /**
+     * Method to find the misspelled ingredient names of a query, the plan is cached so the search of the same query
+     * does not plan it again
+     *
+     * @param query the query on the recipes
+     * @return the misspelled ingredient names, with the name they were resolved to
+     */
+    public Map<String, String> resolvedQueryIngredients(String query) {
+        return recipeQueryPlanner.plan(query).getResolvedIngredients();
+    }
+
+    /**
+     * Method to find the recipes of a person that best match a free text query on the recipe name and instructions
+     *
+     * @param personId the ID of the requesting person
+     * @param query    the free text query
+     * @param limit    the maximum amount of recipes
+     * @return list of found recipes, best match first
+     */
+    public List<Recipe> rankedSearch(long personId, String query, int limit) {
+        //Check if person with the ID exists
+        personService.getById(personId);
+
+        List<Long> recipeIds = recipeSearchIndex.rank(personId, query, limit);
+
+        Map<Long, Recipe> recipes = new HashMap<>();
+        for (Recipe recipe : findWithInstructions(recipeIds)) {
+            recipes.put(recipe.getId(), recipe);
+        }
+
+        LOG.info("Found " + recipes.size() + " ranked recipes for person " + personId);
+        return recipeIds.stream()
+                .map(recipes::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -86,7 +571,11 @@ public class RecipeService {
         Person person = personService.getById(personId);
 
         LOG.info("Created new Recipe with name " + name);
-        return recipeRepository.save(new Recipe(name, numberOfServings, person));
+        Recipe recipe = recipeRepository.save(new Recipe(name, numberOfServings, person));
+
+        recipeSearchIndex.putRecipe(recipe);
+        recipeSearchCache.invalidatePerson(personId);
+        return recipe;
     }
 
     /**
@@ -97,10 +586,9 @@ public class RecipeService {
      * @param map      a map of the params that needs to be modified
      * @return the updated recipe object
      */
+    @Transactional
     public Recipe modifyRecipe(long recipeId, long personId, HashMap<Object, Object> map) {
-        checkIfOwnerOfRecipe(personId, recipeId);
-
-        Recipe recipe = findById(recipeId);
+        Recipe recipe = findOwnedRecipe(personId, recipeId);
 
         if (map.containsKey("numberOfServings")) {
             recipe.setNumberOfServings((int) map.get("numberOfServings"));
@@ -110,7 +598,11 @@ public class RecipeService {
         }
 
         LOG.info("Modifying recipe with ID " + recipeId);
-        return recipeRepository.save(recipe);
+        Recipe modifiedRecipe = recipeRepository.save(recipe);
+
+        recipeSearchIndex.putRecipe(modifiedRecipe);
+        recipeSearchCache.invalidatePerson(personId);
+        return modifiedRecipe;
     }
 
     /**
@@ -119,11 +611,27 @@ public class RecipeService {
      * @param personId the person that is calling the delete method
      * @param recipeId the recipe that has to be deleted
      */
+    @Transactional
     public void delete(long personId, long recipeId) {
-        checkIfOwnerOfRecipe(personId, recipeId);
+        Recipe recipe = findOwnedRecipe(personId, recipeId);
 
         LOG.info("Deleting recipe with id " + recipeId);
-        recipeRepository.delete(findById(recipeId));
+        recipeRepository.delete(recipe);
+
+        recipeSearchIndex.removeRecipe(recipe);
+        recipeSearchCache.invalidatePerson(personId);
+    }
+
+    /**
+     * Method to adjust the derived amount of non-vegetarian ingredients of a recipe. The update is done in the
+     * database, so concurrent instructions on the same recipe do not overwrite each others count
+     *
+     * @param recipeId the ID of the recipe
+     * @param delta    the amount to add, negative when an instruction is removed
+     */
+    public void addNonVegetarianIngredients(long recipeId, int delta) {
+        LOG.info("Adding " + delta + " to the non-vegetarian ingredients of recipe with ID " + recipeId);
+        recipeRepository.addNonVegetarianIngredients(recipeId, delta);
     }
 
     /**
@@ -135,11 +643,16 @@ public class RecipeService {
      * @param personId         the person who called the create instruction method
      * @return the created instruction object
      */
+    @Transactional
     public Instruction createInstruction(String wayOfPreperation, String ingredientName, long recipeId, long personId) {
-        checkIfOwnerOfRecipe(personId, recipeId);
+        Recipe recipe = findOwnedRecipe(personId, recipeId);
 
         LOG.info("Creating instruction for recipe with ID " + recipeId);
-        return instructionService.create(wayOfPreperation, ingredientName, recipeId);
+        Instruction instruction = instructionService.create(wayOfPreperation, ingredientName, recipe);
+
+        recipeSearchIndex.putInstruction(personId, instruction);
+        recipeSearchCache.invalidatePerson(personId);
+        return instruction;
     }
 
     /**
@@ -149,28 +662,38 @@ public class RecipeService {
      * @param instructionId the ID of the instruction that has to be deleted
      * @param personId      the ID of the person that called the method
      */
+    @Transactional
     public void deleteInstruction(long recipeId, long instructionId, long personId) {
-        checkIfOwnerOfRecipe(personId, recipeId);
-        Recipe recipe = findById(recipeId);
+        Recipe recipe = findOwnedRecipe(personId, recipeId);
 
         LOG.info("Deleting recipe with ID " + recipeId);
 
         instructionService.delete(instructionId, recipe);
+
+        recipeSearchIndex.removeInstruction(personId, recipeId, instructionId);
+        recipeSearchCache.invalidatePerson(personId);
     }
 
     /**
-     * Private method that checks if the given person is the owner of the recipe
+     * Private method that loads the recipe with its instructions if the given person is the owner. The recipe and
+     * its creator are read in one query, the caller reuses the loaded recipe for the rest of the operation
      *
      * @param personId the ID of the given person which called the method
      * @param recipeId the ID of the correlated recipe
+     * @return the recipe of the person
      */
-    private void checkIfOwnerOfRecipe(long personId, long recipeId) {
+    private Recipe findOwnedRecipe(long personId, long recipeId) {
         LOG.info("Checking if " + personId + " is the owner of recipe with id " + recipeId);
-        if (!findById(recipeId).getCreatedBy().getId().equals(personId)) {
+        Recipe recipe = recipeRepository.findWithInstructionsById(recipeId).orElseThrow(() -> {
+            LOG.info("Recipe with id " + recipeId + " does not exist");
+            return new RecipeNotFoundException(recipeId);
+        });
 
+        if (!recipe.getCreatedBy().getId().equals(personId)) {
             LOG.error(personId + " is not the owner of " + recipeId);
             throw new UnauthorizedException("Not the owner of the recipe");
         }
+        return recipe;
     }
 
 }
@@ -0,0 +1,40 @@
+package nl.quintor.abn.recipe.service;
+
+/**
+ * Order of the recipes of a search
+ */
+public enum RecipeSort {
+
+    /**
+     * Recipe ID, the pages of the search can be followed with a cursor
+     */
+    ID("id"),
+
+    /**
+     * Recipe name and then ID, the pages of the search can be followed with a cursor
+     */
+    NAME("name"),
+
+    /**
+     * Amount of servings and then ID, the pages of the search can be followed with a cursor
+     */
+    SERVINGS("numberOfServings"),
+
+    /**
+     * Most matched included ingredients first, only the best recipes up to the limit are returned
+     */
+    INGREDIENTS(null);
+
+    private final String attribute;
+
+    RecipeSort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * @return the attribute of the recipe to order on, null when the order is not on an attribute
+     */
+    public String getAttribute() {
+        return attribute;
+    }
+}
@@ -0,0 +1,35 @@
+package nl.quintor.abn.recipe.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a streamed import. The counts are of this run, the records before the checkpoint of an earlier run are
+ * only counted as resumed.
+ */
+@Value
+public class RecipeStreamImportResult {
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    String importId;
+
+    /**
+     * Amount of records that were committed by an earlier run and are skipped
+     */
+    long resumedRecords;
+    long importedRecipes;
+    long importedInstructions;
+    long skippedRecords;
+
+    /**
+     * The errors of the first skipped records
+     */
+    List<RecipeImportError> errors;
+    long durationMillis;
+
+    public double getRecipesPerSecond() {
+        return importedRecipes * MILLIS_PER_SECOND / Math.max(1, durationMillis);
+    }
+}
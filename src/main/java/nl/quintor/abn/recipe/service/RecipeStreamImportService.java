@@ -0,0 +1,295 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.cache.RecipeSearchCache;
+import nl.quintor.abn.recipe.exception.ImportInProgressException;
+import nl.quintor.abn.recipe.exception.InvalidImportException;
+import nl.quintor.abn.recipe.exception.UnauthorizedException;
+import nl.quintor.abn.recipe.model.ImportCheckpoint;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.repository.ImportCheckpointRepository;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.search.RecipeSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports a stream of recipes of any length without holding it in memory. The calling thread reads the records and
+ * groups them into batches, a writer thread saves every batch in a transaction of its own together with the
+ * checkpoint of the import. At most {@code recipe.import.stream.max-in-flight-batches} read batches wait for the
+ * writer, after that the reader blocks, so the client is slowed down to the speed of the database.
+ * <p>
+ * When an import fails, the batches before the failure stay committed. Sending the stream again with the same
+ * import ID skips the records until the checkpoint.
+ */
+@Service
+public class RecipeStreamImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeStreamImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final Batch END = new Batch(-1, List.of());
+
+    private final PersonService personService;
+
+    private final RecipeImportService recipeImportService;
+
+    private final RecipeRepository recipeRepository;
+
+    private final ImportCheckpointRepository importCheckpointRepository;
+
+    private final RecipeSearchIndex recipeSearchIndex;
+
+    private final RecipeSearchCache recipeSearchCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService writers;
+    private final int batchSize;
+    private final int maxInFlightBatches;
+    private final Set<String> runningImports = ConcurrentHashMap.newKeySet();
+
+    public RecipeStreamImportService(PersonService personService, RecipeImportService recipeImportService, RecipeRepository recipeRepository, ImportCheckpointRepository importCheckpointRepository,
+                                     RecipeSearchIndex recipeSearchIndex, RecipeSearchCache recipeSearchCache, PlatformTransactionManager transactionManager,
+                                     @Value("${recipe.import.stream.batch-size:500}") int batchSize,
+                                     @Value("${recipe.import.stream.max-in-flight-batches:2}") int maxInFlightBatches,
+                                     @Value("${recipe.import.stream.writer-threads:2}") int writerThreads) {
+        this.personService = personService;
+        this.recipeImportService = recipeImportService;
+        this.recipeRepository = recipeRepository;
+        this.importCheckpointRepository = importCheckpointRepository;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.recipeSearchCache = recipeSearchCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writers = Executors.newFixedThreadPool(writerThreads);
+        this.batchSize = batchSize;
+        this.maxInFlightBatches = maxInFlightBatches;
+    }
+
+    /**
+     * Method to import a stream of recipes for a person, resuming after the checkpoint of an earlier run of the
+     * same import
+     *
+     * @param personId the ID of the person that creates the recipes
+     * @param importId the ID of the import, chosen by the client
+     * @param records  the recipes, read while the import runs
+     * @return the amount of imported and skipped recipes of this run, and the errors of the first skipped recipes
+     */
+    public RecipeStreamImportResult importStream(long personId, String importId, Iterator<ImportedRecipe> records) {
+        long start = System.nanoTime();
+        Person person = personService.getById(personId);
+
+        if (!runningImports.add(importId)) {
+            throw new ImportInProgressException(importId);
+        }
+        try {
+            ImportCheckpoint checkpoint = transactionTemplate.execute(status -> findOrCreateCheckpoint(importId, person));
+            long resumedRecords = checkpoint.getRecords();
+            LOG.info("Starting import " + importId + " for person " + personId + " after record " + resumedRecords);
+
+            BatchWriter writer = new BatchWriter(checkpoint, person);
+            Future<Void> writing = writers.submit(writer);
+            RuntimeException readFailure = null;
+            long position = 0;
+
+            try {
+                List<ImportedRecipe> batch = new ArrayList<>(batchSize);
+                while (records.hasNext()) {
+                    ImportedRecipe recipe = records.next();
+                    position++;
+                    if (position <= resumedRecords) {
+                        continue;
+                    }
+
+                    batch.add(recipe);
+                    if (batch.size() == batchSize) {
+                        if (!writer.offer(new Batch(position - batch.size(), batch), writing)) {
+                            break;
+                        }
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    writer.offer(new Batch(position - batch.size(), batch), writing);
+                }
+            } catch (RuntimeException exception) {
+                readFailure = exception;
+            } finally {
+                writer.offer(END, writing);
+                try {
+                    await(writing);
+                } finally {
+                    // Also when the writer failed, the batches before the failure are committed and need to be found
+                    if (writer.committedRecords > resumedRecords) {
+                        recipeSearchIndex.invalidatePerson(personId);
+                        recipeSearchCache.invalidatePerson(personId);
+                    }
+                }
+            }
+
+            if (readFailure != null) {
+                LOG.error("Reading record " + position + " of import " + importId + " failed", readFailure);
+                throw new InvalidImportException("Record " + position + " could not be read, the first " + writer.committedRecords
+                        + " records are committed and skipped when the import is sent again: " + readFailure.getMessage());
+            }
+
+            RecipeStreamImportResult result = new RecipeStreamImportResult(importId, resumedRecords, writer.importedRecipes, writer.importedInstructions,
+                    writer.skippedRecords, writer.errors, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            LOG.info("Imported " + result.getImportedRecipes() + " recipes for import " + importId + " in " + result.getDurationMillis()
+                    + " ms, skipped " + result.getSkippedRecords() + " records");
+            return result;
+        } finally {
+            runningImports.remove(importId);
+        }
+    }
+
+    /**
+     * Private method that finds the checkpoint of an earlier run of the import, or starts a new one
+     *
+     * @param importId the ID of the import
+     * @param person   the person that runs the import
+     * @return the checkpoint of the import
+     */
+    private ImportCheckpoint findOrCreateCheckpoint(String importId, Person person) {
+        ImportCheckpoint checkpoint = importCheckpointRepository.findById(importId)
+                .orElseGet(() -> importCheckpointRepository.save(new ImportCheckpoint(importId, person)));
+
+        if (!checkpoint.getPerson().getId().equals(person.getId())) {
+            LOG.error(person.getId() + " is not the owner of import " + importId);
+            throw new UnauthorizedException("Not the owner of the import");
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Private method that waits until the writer has saved all batches, and rethrows its failure
+     */
+    private static void await(Future<Void> writing) {
+        try {
+            writing.get();
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new IllegalStateException(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            writing.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for the import", exception);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * Records of the stream that are saved together
+     */
+    private static final class Batch {
+
+        private final long firstIndex;
+        private final List<ImportedRecipe> recipes;
+
+        private Batch(long firstIndex, List<ImportedRecipe> recipes) {
+            this.firstIndex = firstIndex;
+            this.recipes = recipes;
+        }
+    }
+
+    /**
+     * Saves the batches of one import in the order they are read. The counts are only read by the reader after the
+     * writer has finished, only the committed records are also read when waiting for the writer was interrupted.
+     */
+    private final class BatchWriter implements Callable<Void> {
+
+        private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(maxInFlightBatches);
+        private final ImportCheckpoint checkpoint;
+        private final Person person;
+
+        private volatile long committedRecords;
+        private long importedRecipes;
+        private long importedInstructions;
+        private long skippedRecords;
+        private final List<RecipeImportError> errors = new ArrayList<>();
+
+        private BatchWriter(ImportCheckpoint checkpoint, Person person) {
+            this.checkpoint = checkpoint;
+            this.person = person;
+            this.committedRecords = checkpoint.getRecords();
+        }
+
+        /**
+         * Hands a batch to the writer, waiting while the maximum amount of batches is in flight
+         *
+         * @return false when the writer has stopped and the batch will not be saved
+         */
+        private boolean offer(Batch batch, Future<Void> writing) {
+            try {
+                while (!queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (writing.isDone()) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                writing.cancel(true);
+                return false;
+            }
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            for (Batch batch = queue.take(); batch != END; batch = queue.take()) {
+                write(batch);
+            }
+            return null;
+        }
+
+        private void write(Batch batch) {
+            PreparedRecipes prepared = transactionTemplate.execute(status -> {
+                PreparedRecipes recipes = recipeImportService.prepare(person, batch.recipes, batch.firstIndex);
+                recipeRepository.saveAll(recipes.getRecipes());
+
+                checkpoint.setRecords(batch.firstIndex + batch.recipes.size());
+                checkpoint.setImportedRecipes(checkpoint.getImportedRecipes() + recipes.getRecipes().size());
+                checkpoint.setImportedInstructions(checkpoint.getImportedInstructions() + recipes.getInstructions().size());
+                checkpoint.setSkippedRecords(checkpoint.getSkippedRecords() + recipes.getErrors().size());
+                importCheckpointRepository.save(checkpoint);
+                return recipes;
+            });
+
+            committedRecords = batch.firstIndex + batch.recipes.size();
+            importedRecipes += prepared.getRecipes().size();
+            importedInstructions += prepared.getInstructions().size();
+            skippedRecords += prepared.getErrors().size();
+            for (RecipeImportError error : prepared.getErrors()) {
+                if (errors.size() == MAX_REPORTED_ERRORS) {
+                    break;
+                }
+                errors.add(error);
+            }
+            LOG.debug("Committed import " + checkpoint.getId() + " until record " + committedRecords);
+        }
+    }
+}
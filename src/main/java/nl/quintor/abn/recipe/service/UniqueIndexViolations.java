@@ -0,0 +1,31 @@
+package nl.quintor.abn.recipe.service;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Tells a violation of a unique index apart from the other integrity violations of an insert, such as a missing
+ * value or a too long value, which must not be reported as an already existing entity.
+ */
+final class UniqueIndexViolations {
+
+    private UniqueIndexViolations() {
+    }
+
+    /**
+     * @param exception the violation thrown by the insert
+     * @param indexName the name of the unique index
+     * @return true when the database rejected the insert because of the unique index
+     */
+    static boolean isViolationOf(DataIntegrityViolationException exception, String indexName) {
+        if (!(exception.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+
+        // The database reports the name of the index in its own case and with a schema prefix and suffix
+        String constraintName = ((ConstraintViolationException) exception.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(indexName.toLowerCase(Locale.ROOT));
+    }
+}
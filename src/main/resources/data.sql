@@ -1,67 +1,65 @@
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Carrot', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Corn', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Pumpkin', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Potato', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Onion', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Sweet Potato', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Radish', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Celery', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Eggplant', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Cauliflower', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Broccoli', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Artichoke', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Brussels Sprout', true);
-
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Meat', false);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Chicken', false);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Rib Eye', false);
-
-INSERT INTO person (username, password)
-VALUES ('Fayssal', 'Password');
-
-INSERT INTO recipe (name, number_of_servings, created_by_id)
-VALUES ('Lasagne with Carrot', 3, 1);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('300G in the Oven at 200 degrees for 10 minutes', 1, 1);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('Boil hot water and put Broccoli in it for 15 minutes', 11, 1);
-
-INSERT INTO recipe (name, number_of_servings, created_by_id)
-VALUES ('Potato with Pumpkin', 2, 1);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('300G in the Oven at 200 degrees for 10 minutes', 2, 2);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('Boil hot water and put Broccoli in it for 15 minutes', 11, 2);
-
-INSERT INTO person (username, password)
-VALUES ('Mark', 'Password');
-INSERT INTO recipe (name, number_of_servings, created_by_id)
-VALUES ('Potato with Pumpkin', 2, 2);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('300G in the Microwave at 200 degrees for 10 minutes', 2, 3);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('Boil hot water and put Broccoli in it for 15 minutes', 11, 3);
-
-
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (1, 'Carrot', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (2, 'Corn', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (3, 'Pumpkin', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (4, 'Potato', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (5, 'Onion', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (6, 'Sweet Potato', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (7, 'Radish', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (8, 'Celery', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (9, 'Eggplant', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (10, 'Cauliflower', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (11, 'Broccoli', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (12, 'Artichoke', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (13, 'Brussels Sprout', true);
 
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (14, 'Meat', false);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (15, 'Chicken', false);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (16, 'Rib Eye', false);
 
+INSERT INTO person (id, username, password)
+VALUES (1, 'Fayssal', 'Password');
 
+INSERT INTO recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id)
+VALUES (1, 'Lasagne with Carrot', 3, 0, 1);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (1, '300G in the Oven at 200 degrees for 10 minutes', 1, 1);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (2, 'Boil hot water and put Broccoli in it for 15 minutes', 11, 1);
 
+INSERT INTO recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id)
+VALUES (2, 'Potato with Pumpkin', 2, 0, 1);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (3, '300G in the Oven at 200 degrees for 10 minutes', 2, 2);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (4, 'Boil hot water and put Broccoli in it for 15 minutes', 11, 2);
 
+INSERT INTO person (id, username, password)
+VALUES (2, 'Mark', 'Password');
+INSERT INTO recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id)
+VALUES (3, 'Potato with Pumpkin', 2, 0, 2);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (5, '300G in the Microwave at 200 degrees for 10 minutes', 2, 3);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (6, 'Boil hot water and put Broccoli in it for 15 minutes', 11, 3);
 
+-- The IDs above are explicit, the sequences hand out the IDs after them
+ALTER SEQUENCE person_seq RESTART WITH 3;
+ALTER SEQUENCE ingredient_seq RESTART WITH 17;
+ALTER SEQUENCE recipe_seq RESTART WITH 4;
+ALTER SEQUENCE instruction_seq RESTART WITH 7;
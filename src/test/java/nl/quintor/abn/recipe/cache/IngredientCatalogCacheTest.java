@@ -0,0 +1,88 @@
+package nl.quintor.abn.recipe.cache;
+
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientCatalogCacheTest {
+
+    Ingredient spinach;
+
+    @Mock
+    IngredientRepository mockIngredientRepository;
+
+    IngredientCatalogCache ingredientCatalogCache;
+
+    @BeforeEach
+    void init() {
+        ingredientCatalogCache = new IngredientCatalogCache(mockIngredientRepository, 100);
+
+        spinach = new Ingredient("Spinach", true);
+        spinach.setId(1L);
+    }
+
+    @Test
+    @DisplayName("Names that differ in case share one database lookup")
+    void GivenNamesInOtherCase_WhenFinding_ThenLoadOnce() {
+        //Given
+        when(mockIngredientRepository.findByLowerCaseName("spinach"))
+                .thenReturn(Optional.of(spinach));
+
+        //When
+        Optional<Ingredient> result = ingredientCatalogCache.findByName("Spinach");
+        Optional<Ingredient> cachedResult = ingredientCatalogCache.findByName("SPINACH");
+
+        //Then
+        assertThat(result).isPresent();
+        assertThat(result.get().getId()).isEqualTo(1L);
+        assertThat(result.get().getName()).isEqualTo("Spinach");
+        assertThat(result.get().isVegetarian()).isTrue();
+        assertThat(cachedResult.get()).isNotSameAs(result.get());
+        assertThat(ingredientCatalogCache.stats().hitCount()).isEqualTo(1);
+        assertThat(ingredientCatalogCache.stats().loadCount()).isEqualTo(1);
+        verify(mockIngredientRepository, times(1)).findByLowerCaseName(anyString());
+    }
+
+    @Test
+    @DisplayName("Names that do not exist are looked up again")
+    void GivenUnknownName_WhenFinding_ThenDoNotCacheTheMiss() {
+        //Given
+        when(mockIngredientRepository.findByLowerCaseName("pumpkin"))
+                .thenReturn(Optional.empty());
+
+        //When
+        ingredientCatalogCache.findByName("Pumpkin");
+        Optional<Ingredient> result = ingredientCatalogCache.findByName("Pumpkin");
+
+        //Then
+        assertThat(result).isEmpty();
+        assertThat(ingredientCatalogCache.estimatedSize()).isZero();
+        verify(mockIngredientRepository, times(2)).findByLowerCaseName("pumpkin");
+    }
+
+    @Test
+    @DisplayName("Created ingredients are served without the database")
+    void GivenCreatedIngredient_WhenFinding_ThenReturnItFromTheCache() {
+        //Given
+        ingredientCatalogCache.put(spinach);
+
+        //When
+        Optional<Ingredient> result = ingredientCatalogCache.findByName("spinach");
+
+        //Then
+        assertThat(result.map(Ingredient::getId)).contains(1L);
+        verifyNoInteractions(mockIngredientRepository);
+    }
+}
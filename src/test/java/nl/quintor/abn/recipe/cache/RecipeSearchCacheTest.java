@@ -0,0 +1,110 @@
+package nl.quintor.abn.recipe.cache;
+
+import nl.quintor.abn.recipe.repository.RecipeIngredientRow;
+import nl.quintor.abn.recipe.repository.RecipeIngredientView;
+import nl.quintor.abn.recipe.service.RecipeSort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeSearchCacheTest {
+
+    RecipeSearchCache recipeSearchCache;
+    AtomicLong ticker;
+    AtomicInteger loads;
+    Supplier<List<RecipeIngredientView>> loader;
+
+    @BeforeEach
+    void init() {
+        ticker = new AtomicLong();
+        recipeSearchCache = new RecipeSearchCache(2, 30, Runnable::run, ticker::get);
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return List.of(new RecipeIngredientRow(1L, "Soup", 2, null, null, null, null, null));
+        };
+    }
+
+    @Test
+    @DisplayName("Equivalent searches share a cache entry")
+    void GivenEquivalentFilters_WhenSearching_ThenLoadOnce() {
+        //Given
+        SearchFilter filter = SearchFilter.of(Optional.of(false), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(List.of("Tomato", "Potato", "Tomato")), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.of(true), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.of(10));
+        SearchFilter equivalentFilter = SearchFilter.of(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(List.of("Potato", "Tomato")), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.of(10));
+
+        //When
+        recipeSearchCache.get(1L, filter, loader);
+        recipeSearchCache.get(1L, equivalentFilter, loader);
+
+        //Then
+        assertThat(filter).isEqualTo(equivalentFilter);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(recipeSearchCache.stats().hitCount()).isEqualTo(1);
+        assertThat(recipeSearchCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Invalidation only drops the searches of the person")
+    void GivenCachedSearchesOfTwoPersons_WhenInvalidatingOnePerson_ThenOnlyReloadThatPerson() {
+        //Given
+        SearchFilter filter = SearchFilter.of(Optional.empty(), Optional.of(2), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty());
+        recipeSearchCache.get(1L, filter, loader);
+        recipeSearchCache.get(2L, filter, loader);
+
+        //When
+        recipeSearchCache.invalidatePerson(1L);
+        recipeSearchCache.get(1L, filter, loader);
+        recipeSearchCache.get(2L, filter, loader);
+
+        //Then
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(recipeSearchCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Cache is bounded in size")
+    void GivenMoreSearchesThanTheMaximumSize_WhenSearching_ThenEvictEntries() {
+        //When
+        for (int servings = 1; servings <= 10; servings++) {
+            recipeSearchCache.get(1L, SearchFilter.of(Optional.empty(), Optional.of(servings), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty()), loader);
+        }
+        recipeSearchCache.cleanUp();
+
+        //Then
+        assertThat(recipeSearchCache.estimatedSize()).isLessThanOrEqualTo(2);
+        assertThat(recipeSearchCache.stats().evictionCount()).isGreaterThanOrEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Generations are forgotten after the results of the person expired, without serving an old result")
+    void GivenInvalidatedPerson_WhenNotSearchingForTwiceTheAge_ThenForgetGeneration() {
+        //Given
+        SearchFilter filter = SearchFilter.of(Optional.empty(), Optional.of(2), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty());
+        recipeSearchCache.get(1L, filter, loader);
+        recipeSearchCache.invalidatePerson(1L);
+
+        //When
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        recipeSearchCache.cleanUp();
+        recipeSearchCache.get(1L, filter, loader);
+
+        //Then
+        assertThat(recipeSearchCache.estimatedGenerations()).isZero();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
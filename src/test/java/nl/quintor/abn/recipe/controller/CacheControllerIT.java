@@ -0,0 +1,103 @@
+package nl.quintor.abn.recipe.controller;
+
+import nl.quintor.abn.recipe.controller.dto.cache.CacheStatsDto;
+import nl.quintor.abn.recipe.controller.dto.instruction.CreateInstructionDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.CreateRecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CacheControllerIT {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    @DisplayName("Get the statistics of the recipe search cache")
+    void givenRepeatedSearch_whenCallingGetCacheStats_thenReturnHits() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        for (int i = 0; i < 2; i++) {
+            testRestTemplate.exchange(
+                    "http://localhost:" + port + "/api/recipes?servings=4&includeIngredient=Spinach,Potato",
+                    HttpMethod.GET,
+                    new HttpEntity<>(headers),
+                    RecipeDto[].class);
+        }
+
+        //When
+        ResponseEntity<CacheStatsDto[]> response = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/caches",
+                CacheStatsDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        CacheStatsDto recipeSearch = Arrays.stream(Objects.requireNonNull(response.getBody()))
+                .filter(cacheStats -> cacheStats.getName().equals("recipe-search"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(recipeSearch.getHitCount()).isGreaterThanOrEqualTo(1L);
+        assertThat(recipeSearch.getMissCount()).isGreaterThanOrEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Get the statistics of the ingredient catalog cache")
+    void givenRepeatedIngredientLookups_whenCallingGetCacheStats_thenReturnHitsAndLoads() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "1");
+
+        CreateRecipeDto createRecipeDto = new CreateRecipeDto();
+        createRecipeDto.setName("Grilled rib eye");
+        createRecipeDto.setNumberOfServings(2);
+        RecipeDto recipe = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes",
+                HttpMethod.POST,
+                new HttpEntity<>(createRecipeDto, headers),
+                RecipeDto.class).getBody();
+
+        CreateInstructionDto createInstructionDto = new CreateInstructionDto();
+        createInstructionDto.setIngredientName("Rib Eye");
+        createInstructionDto.setWayOfPreperation("Grill for four minutes");
+
+        for (int i = 0; i < 2; i++) {
+            ResponseEntity<String> instructionResponse = testRestTemplate.exchange(
+                    "http://localhost:" + port + "/api/recipes/" + Objects.requireNonNull(recipe).getId(),
+                    HttpMethod.POST,
+                    new HttpEntity<>(createInstructionDto, headers),
+                    String.class);
+            assertThat(instructionResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        }
+
+        //When
+        ResponseEntity<CacheStatsDto[]> response = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/caches",
+                CacheStatsDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        CacheStatsDto ingredientCatalog = Arrays.stream(Objects.requireNonNull(response.getBody()))
+                .filter(cacheStats -> cacheStats.getName().equals("ingredient-catalog"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(ingredientCatalog.getHitCount()).isGreaterThanOrEqualTo(1L);
+        assertThat(ingredientCatalog.getLoadCount()).isGreaterThanOrEqualTo(1L);
+        assertThat(ingredientCatalog.getAverageLoadMillis()).isPositive();
+    }
+}
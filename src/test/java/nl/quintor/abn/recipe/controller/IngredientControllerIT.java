@@ -82,6 +82,28 @@ class IngredientControllerIT {
         assertThat(response.getBody()).contains("timestamp");
     }
 
+    @Test
+    @DisplayName("Try to create an ingredient that only differs in case from an existing one")
+    void givenNameInOtherCase_whenCallingCreateIngredient_thenReturnException() {
+        //Given
+        CreateIngredientDto createIngredientDto = new CreateIngredientDto();
+        createIngredientDto.setName("spinach");
+        createIngredientDto.setVegetarian(true);
+        HttpEntity<CreateIngredientDto> requestEntity = new HttpEntity<>(createIngredientDto);
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/ingredients",
+                HttpMethod.POST,
+                requestEntity,
+                String.class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).contains("Ingredient with name spinach already exist");
+    }
+
     @Test
     @DisplayName("Try to create new ingredient with invalid body")
     void givenTooLittleCharacters_whenCallingCreateIngredient_thenReturnException() {
@@ -103,4 +125,39 @@ class IngredientControllerIT {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody()).contains("name");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Suggest ingredients on the start of their name")
+    void givenPrefix_whenCallingSuggestIngredients_thenReturnIngredientsWithVegetarianFlag() {
+        //When
+        ResponseEntity<IngredientDto[]> response = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/ingredients/suggest?prefix=pO",
+                IngredientDto[].class
+        );
+        ResponseEntity<IngredientDto[]> ribEye = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/ingredients/suggest?prefix=rib&limit=1",
+                IngredientDto[].class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(response.getBody()).length).isEqualTo(1);
+        assertThat(response.getBody()[0].getName()).isEqualTo("Potato");
+        assertThat(response.getBody()[0].isVegetarian()).isTrue();
+        assertThat(Objects.requireNonNull(ribEye.getBody())[0].getName()).isEqualTo("Rib Eye");
+        assertThat(ribEye.getBody()[0].isVegetarian()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Try to suggest ingredients with a too large limit")
+    void givenTooLargeLimit_whenCallingSuggestIngredients_thenReturnBadRequest() {
+        //When
+        ResponseEntity<String> response = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/ingredients/suggest?prefix=p&limit=1000",
+                String.class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,20 +1,26 @@
 package nl.quintor.abn.recipe.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import nl.quintor.abn.recipe.controller.dto.person.CreatePersonDto;
 import nl.quintor.abn.recipe.controller.dto.person.PersonDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeDto;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -27,6 +33,9 @@ class PersonControllerIT {
     @Autowired
     private TestRestTemplate testRestTemplate;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     @DisplayName("Create new person")
     void givenUsernameAndPassword_whenCallingCreateUser_thenReturnCreatedPerson() {
@@ -104,4 +113,115 @@ class PersonControllerIT {
         assertThat(response.getBody()).contains("username");
         assertThat(response.getBody()).contains("password");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Export all recipes of a person as JSON")
+    void givenPersonId_whenCallingExportRecipes_thenReturnAllRecipesAsJson() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/persons/2/recipes/export",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentDisposition().getFilename()).isEqualTo("recipes-2.json");
+        RecipeDto[] recipes = Objects.requireNonNull(response.getBody());
+        assertThat(Arrays.stream(recipes).map(RecipeDto::getId).collect(Collectors.toList())).isEqualTo(List.of(3L, 4L));
+        assertThat(recipes[0].getInstructionList().size()).isEqualTo(2);
+        assertThat(recipes[0].getInstructionList().get(0).getIngredient().getName()).isEqualTo("Potato");
+        assertThat(recipes[1].getInstructionList().isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Export all recipes of a person as CSV")
+    void givenCsvFormat_whenCallingExportRecipes_thenReturnLinePerInstruction() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/persons/2/recipes/export?format=csv",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv"))).isTrue();
+        assertThat(Arrays.asList(Objects.requireNonNull(response.getBody()).split("\n"))).isEqualTo(List.of(
+                "recipe_id,recipe_name,number_of_servings,instruction_id,way_of_preperation,ingredient_id,ingredient_name,ingredient_vegetarian",
+                "3,Potato with tomato,3,5,200G in the Oven for 5 minutes,2,Potato,true",
+                "3,Potato with tomato,3,6,300G in the Oven at 200 degrees for 10 minutes,3,Tomato,true",
+                "4,Lasagne with spinach,4,,,,,"));
+    }
+
+    @Test
+    @DisplayName("Export all recipes of a person compressed with gzip")
+    void givenGzipAccepted_whenCallingExportRecipes_thenReturnCompressedRecipes() throws IOException {
+        //Given
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/persons/2/recipes/export").openConnection();
+        connection.setRequestProperty("Authorization", "2");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+
+        //When
+        RecipeDto[] recipes;
+        try (InputStream body = new GZIPInputStream(connection.getInputStream())) {
+            recipes = objectMapper.readValue(body, RecipeDto[].class);
+        }
+
+        //Then
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getHeaderField("Content-Encoding")).isEqualTo("gzip");
+        assertThat(recipes.length).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Try to export the recipes of another person")
+    void givenOtherPerson_whenCallingExportRecipes_thenReturnUnauthorized() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "1");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/persons/2/recipes/export",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getBody()).contains("Not the owner of the recipes");
+    }
+
+    @Test
+    @DisplayName("Try to export recipes in an unsupported format")
+    void givenUnsupportedFormat_whenCallingExportRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/persons/2/recipes/export?format=xml",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Export format xml is not supported");
+    }
+}
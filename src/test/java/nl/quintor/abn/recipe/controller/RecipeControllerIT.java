@@ -3,8 +3,15 @@ package nl.quintor.abn.recipe.controller;
 import nl.quintor.abn.recipe.controller.dto.instruction.CreateInstructionDto;
 import nl.quintor.abn.recipe.controller.dto.instruction.InstructionDto;
 import nl.quintor.abn.recipe.controller.dto.recipe.CreateRecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.ImportRecipeDto;
 import nl.quintor.abn.recipe.controller.dto.recipe.PatchRecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeCursor;
 import nl.quintor.abn.recipe.controller.dto.recipe.RecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeFacetsDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeImportErrorDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeImportResultDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeStreamImportResultDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeSuggestionDto;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +20,11 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -88,6 +99,657 @@ class RecipeControllerIT {
         assertThat(Objects.requireNonNull(response.getBody())[0].getName()).isEqualTo("Potato with tomato");
     }
 
+    @Test
+    @DisplayName("Get recipes from a specific person page by page")
+    void givenPersonIdAndLimit_whenCallingGetAllRecipesWithCursor_thenReturnNextPage() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> firstPage = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?limit=1",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+
+        ResponseEntity<RecipeDto[]> secondPage = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?limit=1&after=" + cursor,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(firstPage.getBody()).hasSize(1);
+        assertThat(cursor).isNotNull();
+
+        assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(secondPage.getBody()).hasSize(1);
+        assertThat(Objects.requireNonNull(secondPage.getBody())[0].getId())
+                .isGreaterThan(Objects.requireNonNull(firstPage.getBody())[0].getId());
+    }
+
+    @Test
+    @DisplayName("Stream all recipes from a specific person as NDJSON")
+    void givenPersonIdAndNdjsonAccept_whenCallingGetAllRecipes_thenStreamRecipes() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+        headers.set("Accept", "application/x-ndjson");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).hasToString("application/x-ndjson");
+        assertThat(Objects.requireNonNull(response.getBody()).split("\n")).hasSize(2);
+        assertThat(response.getBody()).startsWith("{\"id\":");
+    }
+
+    @Test
+    @DisplayName("Stream the recipes from a specific person within a range of servings and matching a query")
+    void givenServingsRangeAndQuery_whenStreamingRecipes_thenStreamMatchingRecipes() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+        headers.set("Accept", "application/x-ndjson");
+
+        //When
+        ResponseEntity<String> inRange = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?minServings=4&maxServings=6",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+        ResponseEntity<String> matchingQuery = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?q={q}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class,
+                Map.of("q", "potato AND servings<=3"));
+
+        //Then
+        assertThat(inRange.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(inRange.getBody()).split("\n")).hasSize(1);
+        assertThat(inRange.getBody()).startsWith("{\"id\":4,");
+        assertThat(Objects.requireNonNull(matchingQuery.getBody()).split("\n")).hasSize(1);
+        assertThat(matchingQuery.getBody()).startsWith("{\"id\":3,");
+    }
+
+    @Test
+    @DisplayName("Try to get recipes with an invalid cursor")
+    void givenInvalidCursor_whenCallingGetAllRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?limit=1&after=invalid",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Get recipes with misspelled ingredient names")
+    void givenMisspelledIngredients_whenCallingGetAllRecipes_thenResolveToExistingIngredients() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?includeIngredient=potatoe,Tomato&excludeIngredient=spinch",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        assertThat(Objects.requireNonNull(response.getBody())[0].getId()).isEqualTo(3L);
+        assertThat(response.getHeaders().getFirst("X-Resolved-Ingredients")).isEqualTo("potatoe=Potato");
+    }
+
+    @Test
+    @DisplayName("Exclude only ingredients of which the name differs in case")
+    void givenMisspelledExcludedIngredient_whenCallingGetAllRecipes_thenDoNotExcludeNearbyIngredient() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> misspelled = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?excludeIngredient=tomatoe",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+        ResponseEntity<RecipeDto[]> otherCase = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?excludeIngredient=TOMATO",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(misspelled.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(misspelled.getBody()).extracting(RecipeDto::getId).containsExactly(3L, 4L);
+        assertThat(misspelled.getHeaders().getFirst("X-Resolved-Ingredients")).isNull();
+
+        assertThat(otherCase.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(otherCase.getBody()).extracting(RecipeDto::getId).containsExactly(4L);
+        assertThat(otherCase.getHeaders().getFirst("X-Resolved-Ingredients")).isEqualTo("TOMATO=Tomato");
+    }
+
+    @Test
+    @DisplayName("Get recipes matching a boolean query")
+    void givenQuery_whenCallingGetAllRecipes_thenReturnMatchingRecipes() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?q={q}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class,
+                Map.of("q", "(potatoe OR chicken) AND NOT spinach AND vegetarian AND servings>=3 AND instruction:\"IN THE OVEN\""));
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        assertThat(Objects.requireNonNull(response.getBody())[0].getId()).isEqualTo(3L);
+        assertThat(response.getHeaders().getFirst("X-Resolved-Ingredients")).isEqualTo("potatoe=Potato");
+    }
+
+    @Test
+    @DisplayName("Exclude only ingredients of which the name differs in case in a query")
+    void givenMisspelledNegatedIngredientInQuery_whenCallingGetAllRecipes_thenDoNotExcludeNearbyIngredient() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?q={q}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class,
+                Map.of("q", "NOT tomatoe"));
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(RecipeDto::getId).containsExactly(3L, 4L);
+        assertThat(response.getHeaders().getFirst("X-Resolved-Ingredients")).isNull();
+    }
+
+    @Test
+    @DisplayName("Get no recipes for a query that can not match")
+    void givenContradictingQuery_whenCallingGetAllRecipes_thenReturnNoRecipes() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?q={q}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class,
+                Map.of("q", "NOT NOT potato AND NOT potato"));
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Bad request for a query that does not follow the grammar")
+    void givenInvalidQuery_whenCallingGetAllRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?q={q}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class,
+                Map.of("q", "(potato OR tomato"));
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Expected a closing parenthesis at the end of the query");
+    }
+
+    @Test
+    @DisplayName("Get recipes sorted on the most matched include ingredients")
+    void givenIncludeIngredientsAndIngredientsSort_whenCallingGetAllRecipes_thenReturnMostMatchedFirst() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "1");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?includeIngredient=Spinach,Potato,Tomato&sort=ingredients",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Objects.requireNonNull(response.getBody())[0].getId()).isEqualTo(2L);
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isNull();
+    }
+
+    @Test
+    @DisplayName("Get recipes that contain all include ingredients")
+    void givenMatchAll_whenCallingGetAllRecipes_thenReturnRecipesWithAllIngredients() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> allMatched = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?includeIngredient=Potato,Tomato&matchAll=true",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+        ResponseEntity<RecipeDto[]> partlyMatched = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?includeIngredient=Potato,Spinach&matchAll=true&sort=ingredients",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(allMatched.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(allMatched.getBody()).hasSize(1);
+        assertThat(Objects.requireNonNull(allMatched.getBody())[0].getId()).isEqualTo(3L);
+        assertThat(partlyMatched.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(partlyMatched.getBody()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Try to sort recipes on ingredients without include ingredients")
+    void givenIngredientsSortWithoutIncludeIngredients_whenCallingGetAllRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> withoutIngredients = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?sort=ingredients",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+        ResponseEntity<String> unknownSort = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?includeIngredient=Potato&sort=unknown",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(withoutIngredients.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(unknownSort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Try to sort recipes on ingredients with a too large limit")
+    void givenIngredientsSortWithTooLargeLimit_whenCallingGetAllRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?includeIngredient=Potato&sort=ingredients&limit=101",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("The limit should be between 1 and 100");
+    }
+
+    @Test
+    @DisplayName("Try to get pages of recipes with a limit outside the allowed range")
+    void givenInvalidLimit_whenCallingGetAllRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> tooSmall = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?limit=0",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+        ResponseEntity<String> tooLarge = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?limit=1001&after=" + new RecipeCursor("id", "1", 1L).encode(),
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(tooSmall.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooLarge.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooLarge.getBody()).contains("The limit should be between 1 and 1000");
+    }
+
+    @Test
+    @DisplayName("Suggest recipes from a specific person on the start of their name")
+    void givenPersonIdAndPrefix_whenCallingSuggestRecipes_thenReturnMatchingRecipes() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeSuggestionDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/suggest?prefix=POT",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeSuggestionDto[].class);
+        ResponseEntity<RecipeSuggestionDto[]> allRecipes = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/suggest?prefix=",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeSuggestionDto[].class);
+        ResponseEntity<String> invalidLimit = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/suggest?prefix=pot&limit=0",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(RecipeSuggestionDto::getName).containsExactly("Potato with tomato");
+        assertThat(allRecipes.getBody()).extracting(RecipeSuggestionDto::getId).containsExactly(4L, 3L);
+        assertThat(invalidLimit.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Get recipes from a specific person within a range of servings")
+    void givenPersonIdAndServingsRange_whenCallingGetAllRecipes_thenReturnRecipesInRange() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?minServings=4&maxServings=6",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(RecipeDto::getId).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Get recipes from a specific person ordered by name")
+    void givenPersonIdAndNameSort_whenCallingGetAllRecipes_thenReturnRecipesByName() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?sort=name",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting(RecipeDto::getName)
+                .containsExactly("Lasagne with spinach", "Potato with tomato");
+    }
+
+    @Test
+    @DisplayName("Get recipes from a specific person page by page ordered by servings descending")
+    void givenPersonIdAndServingsSortDescending_whenCallingGetAllRecipesWithCursor_thenReturnNextPage() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> firstPage = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?sort=servings,desc&limit=1",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        String cursor = firstPage.getHeaders().getFirst("X-Next-Cursor");
+
+        ResponseEntity<RecipeDto[]> secondPage = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?sort=servings,desc&limit=1&after=" + cursor,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+        ResponseEntity<String> otherSort = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?sort=name&limit=1&after=" + cursor,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(firstPage.getBody()).extracting(RecipeDto::getId).containsExactly(4L);
+
+        assertThat(secondPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(secondPage.getBody()).extracting(RecipeDto::getId).containsExactly(3L);
+
+        assertThat(otherSort.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Try to sort recipes in an unknown direction")
+    void givenUnknownSortDirection_whenCallingGetAllRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?sort=name,sideways",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Get the recipes of all persons")
+    void givenNoPerson_whenCallingGetPublicRecipes_thenReturnRecipesOfAllPersons() {
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/recipes/public?includeIngredient=Potato",
+                RecipeDto[].class);
+        ResponseEntity<RecipeDto[]> firstPage = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/recipes/public?limit=1",
+                RecipeDto[].class);
+        ResponseEntity<RecipeDto[]> secondPage = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/recipes/public?limit=1&after=" + firstPage.getHeaders().getFirst("X-Next-Cursor"),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        RecipeDto[] recipes = Objects.requireNonNull(response.getBody());
+        assertThat(recipes).hasSize(2);
+        assertThat(recipes[0].getId()).isEqualTo(2L);
+        assertThat(recipes[1].getId()).isEqualTo(3L);
+
+        assertThat(Objects.requireNonNull(firstPage.getBody())[0].getId()).isEqualTo(1L);
+        assertThat(Objects.requireNonNull(secondPage.getBody())[0].getId()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Get the recipes of all persons within a range of servings and matching a query")
+    void givenServingsRangeAndQuery_whenCallingGetPublicRecipes_thenReturnMatchingRecipes() {
+        //When
+        ResponseEntity<RecipeDto[]> inRange = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/recipes/public?minServings=4&maxServings=4",
+                RecipeDto[].class);
+        ResponseEntity<RecipeDto[]> matchingQuery = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/recipes/public?maxServings=3&q={q}",
+                RecipeDto[].class,
+                Map.of("q", "tomato AND vegetarian"));
+
+        //Then
+        assertThat(inRange.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Other tests add recipes of other persons, the recipes of the test data come first
+        RecipeDto[] recipes = Objects.requireNonNull(inRange.getBody());
+        assertThat(recipes[0].getId()).isEqualTo(4L);
+        assertThat(Arrays.stream(recipes).allMatch(recipe -> recipe.getNumberOfServings() == 4)).isTrue();
+
+        assertThat(matchingQuery.getStatusCode()).isEqualTo(HttpStatus.OK);
+        recipes = Objects.requireNonNull(matchingQuery.getBody());
+        assertThat(recipes[0].getId()).isEqualTo(2L);
+        assertThat(recipes[1].getId()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Try to get the recipes of all persons with a too large page")
+    void givenTooLargeLimit_whenCallingGetPublicRecipes_thenReturnBadRequest() {
+        //When
+        ResponseEntity<String> response = testRestTemplate.getForEntity(
+                "http://localhost:" + port + "/api/recipes/public?limit=100000",
+                String.class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Get the facets of the recipes from a specific person")
+    void givenPersonIdAndParameters_whenCallingGetRecipeFacets_thenReturnCounts() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeFacetsDto> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/facets",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeFacetsDto.class);
+        ResponseEntity<RecipeFacetsDto> filtered = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/facets?includeIngredient=Potato&vegetarian=true",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeFacetsDto.class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        RecipeFacetsDto facets = Objects.requireNonNull(response.getBody());
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getIngredients()).isEqualTo(Map.of("Potato", 1L, "Tomato", 1L));
+        assertThat(facets.getVegetarian()).isEqualTo(Map.of(true, 2L));
+        assertThat(facets.getServings().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(2);
+
+        assertThat(Objects.requireNonNull(filtered.getBody()).getTotal()).isEqualTo(1);
+        assertThat(filtered.getBody().getIngredients()).isEqualTo(Map.of("Potato", 1L, "Tomato", 1L));
+    }
+
+    @Test
+    @DisplayName("Get the facets of the recipes from a specific person within a range of servings and matching a query")
+    void givenServingsRangeAndQuery_whenCallingGetRecipeFacets_thenCountMatchingRecipes() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeFacetsDto> inRange = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/facets?minServings=4",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeFacetsDto.class);
+        ResponseEntity<RecipeFacetsDto> matchingQuery = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/facets?q={q}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeFacetsDto.class,
+                Map.of("q", "potato OR spinach"));
+        ResponseEntity<String> invalidQuery = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/facets?q={q}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class,
+                Map.of("q", "(potato OR tomato"));
+
+        //Then
+        RecipeFacetsDto facets = Objects.requireNonNull(inRange.getBody());
+        assertThat(facets.getTotal()).isEqualTo(1);
+        assertThat(facets.getServings()).isEqualTo(Map.of(4, 1L));
+
+        facets = Objects.requireNonNull(matchingQuery.getBody());
+        assertThat(facets.getTotal()).isEqualTo(1);
+        assertThat(facets.getIngredients()).isEqualTo(Map.of("Potato", 1L, "Tomato", 1L));
+
+        assertThat(invalidQuery.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @DisplayName("Get ranked recipes from a specific person")
+    void givenPersonIdAndQuery_whenCallingRankedRecipes_thenReturnBestMatchFirst() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<RecipeDto[]> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/ranked?query=lasagne spinach",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(1);
+        assertThat(Objects.requireNonNull(response.getBody())[0].getName()).isEqualTo("Lasagne with spinach");
+    }
+
+    @Test
+    @DisplayName("Try to get ranked recipes with a limit outside the allowed range")
+    void givenInvalidLimit_whenCallingRankedRecipes_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "2");
+
+        //When
+        ResponseEntity<String> tooSmall = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/ranked?query=lasagne&limit=0",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+        ResponseEntity<String> tooLarge = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/ranked?query=lasagne&limit=2000000000",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                String.class);
+
+        //Then
+        assertThat(tooSmall.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooLarge.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooLarge.getBody()).contains("The limit should be between 1 and 100");
+    }
+
     @Test
     @DisplayName("Create new recipe")
     void givenNameNumberOfServingsAndPersonId_whenCallingCreateRecipe_thenReturnCreatedRecipe() {
@@ -168,6 +830,130 @@ class RecipeControllerIT {
         assertThat(response.getBody()).contains("name");
     }
 
+    @Test
+    @DisplayName("Import recipes and report the skipped ones")
+    void givenValidAndInvalidRecipes_whenCallingImportRecipes_thenImportValidRecipesAndReturnErrors() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "1");
+
+        CreateInstructionDto grillInstruction = new CreateInstructionDto();
+        grillInstruction.setWayOfPreperation("Grill for four minutes");
+        grillInstruction.setIngredientName("rib eye");
+        ImportRecipeDto validRecipe = new ImportRecipeDto();
+        validRecipe.setName("Imported rib eye");
+        validRecipe.setNumberOfServings(7);
+        validRecipe.setInstructionList(List.of(grillInstruction));
+
+        ImportRecipeDto invalidRecipe = new ImportRecipeDto();
+        invalidRecipe.setName("a");
+        invalidRecipe.setNumberOfServings(7);
+
+        CreateInstructionDto unknownInstruction = new CreateInstructionDto();
+        unknownInstruction.setWayOfPreperation("Catch the unicorn");
+        unknownInstruction.setIngredientName("Unicorn");
+        ImportRecipeDto unknownIngredientRecipe = new ImportRecipeDto();
+        unknownIngredientRecipe.setName("Unicorn stew");
+        unknownIngredientRecipe.setNumberOfServings(7);
+        unknownIngredientRecipe.setInstructionList(List.of(unknownInstruction));
+
+        HttpEntity<List<ImportRecipeDto>> requestEntity = new HttpEntity<>(List.of(validRecipe, invalidRecipe, unknownIngredientRecipe), headers);
+
+        //When
+        ResponseEntity<RecipeImportResultDto> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/import",
+                HttpMethod.POST,
+                requestEntity,
+                RecipeImportResultDto.class
+        );
+        ResponseEntity<RecipeDto[]> importedRecipes = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?minServings=7&maxServings=7",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        RecipeImportResultDto result = Objects.requireNonNull(response.getBody());
+        assertThat(result.getImportedRecipes()).isEqualTo(1);
+        assertThat(result.getImportedInstructions()).isEqualTo(1);
+        assertThat(result.getErrors().stream().map(RecipeImportErrorDto::getIndex).collect(Collectors.toList())).isEqualTo(List.of(1L, 2L));
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Ingredient with name Unicorn does not exist");
+
+        RecipeDto[] recipes = Objects.requireNonNull(importedRecipes.getBody());
+        assertThat(recipes).extracting(RecipeDto::getName).containsExactly("Imported rib eye");
+        assertThat(recipes[0].getInstructionList().get(0).getIngredient().getName()).isEqualTo("Rib Eye");
+    }
+
+    @Test
+    @DisplayName("Import a stream of recipes and resume it after the committed records")
+    void givenRecipeStream_whenSendingImportAgain_thenImportOnlyNewRecords() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "1");
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        String firstRecipe = "{\"name\":\"Streamed rib eye\",\"numberOfServings\":9,\"instructionList\":[{\"wayOfPreperation\":\"Grill for four minutes\",\"ingredientName\":\"Rib Eye\"}]}\n";
+        String invalidRecipe = "{\"name\":\"a\",\"numberOfServings\":9}\n";
+        String secondRecipe = "{\"name\":\"Streamed rib eye skewers\",\"numberOfServings\":9,\"instructionList\":[{\"wayOfPreperation\":\"Grill for two minutes\",\"ingredientName\":\"rib eye\"}]}\n";
+
+        //When
+        ResponseEntity<RecipeStreamImportResultDto> firstRun = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/import?importId=stream-it",
+                HttpMethod.POST,
+                new HttpEntity<>(firstRecipe + invalidRecipe, headers),
+                RecipeStreamImportResultDto.class
+        );
+        ResponseEntity<RecipeStreamImportResultDto> secondRun = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/import?importId=stream-it",
+                HttpMethod.POST,
+                new HttpEntity<>(firstRecipe + invalidRecipe + secondRecipe, headers),
+                RecipeStreamImportResultDto.class
+        );
+        ResponseEntity<RecipeDto[]> importedRecipes = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes?minServings=9&maxServings=9",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                RecipeDto[].class);
+
+        //Then
+        assertThat(firstRun.getStatusCode()).isEqualTo(HttpStatus.OK);
+        RecipeStreamImportResultDto firstResult = Objects.requireNonNull(firstRun.getBody());
+        assertThat(firstResult.getImportedRecipes()).isEqualTo(1);
+        assertThat(firstResult.getSkippedRecords()).isEqualTo(1);
+        assertThat(firstResult.getErrors().get(0).getIndex()).isEqualTo(1L);
+
+        assertThat(secondRun.getStatusCode()).isEqualTo(HttpStatus.OK);
+        RecipeStreamImportResultDto secondResult = Objects.requireNonNull(secondRun.getBody());
+        assertThat(secondResult.getResumedRecords()).isEqualTo(2);
+        assertThat(secondResult.getImportedRecipes()).isEqualTo(1);
+        assertThat(secondResult.getSkippedRecords()).isEqualTo(0);
+
+        assertThat(Arrays.stream(Objects.requireNonNull(importedRecipes.getBody())).map(RecipeDto::getName).sorted().collect(Collectors.toList()))
+                .isEqualTo(List.of("Streamed rib eye", "Streamed rib eye skewers"));
+    }
+
+    @Test
+    @DisplayName("Import a stream of recipes with a malformed record")
+    void givenMalformedRecord_whenImportingRecipeStream_thenReturnBadRequest() {
+        //Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "1");
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        //When
+        ResponseEntity<String> response = testRestTemplate.exchange(
+                "http://localhost:" + port + "/api/recipes/import?importId=malformed-it",
+                HttpMethod.POST,
+                new HttpEntity<>("{\"name\":\"Streamed chicken\",\n", headers),
+                String.class
+        );
+
+        //Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("Record 0 could not be read, the first 0 records are committed");
+    }
+
     @Test
     @DisplayName("Modify recipe")
     void GivenNewRecipeInformation_WhenModifyingRecipe_ThenReturnUpdatedRecipe() {
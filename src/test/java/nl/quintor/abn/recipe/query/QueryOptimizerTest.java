@@ -0,0 +1,111 @@
+package nl.quintor.abn.recipe.query;
+
+import nl.quintor.abn.recipe.query.QueryNode.And;
+import nl.quintor.abn.recipe.query.QueryNode.Constant;
+import nl.quintor.abn.recipe.query.QueryNode.Ingredient;
+import nl.quintor.abn.recipe.query.QueryNode.Instruction;
+import nl.quintor.abn.recipe.query.QueryNode.Not;
+import nl.quintor.abn.recipe.query.QueryNode.Or;
+import nl.quintor.abn.recipe.query.QueryNode.Servings;
+import nl.quintor.abn.recipe.query.QueryNode.Vegetarian;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryOptimizerTest {
+
+    QueryOptimizer queryOptimizer;
+
+    @BeforeEach
+    void init() {
+        Map<String, String> catalog = Map.of("chicken", "Chicken", "tofu", "Tofu", "peanut", "Peanut", "tomato", "Tomato");
+
+        // Of the 100 recipes 60 contain tomato, 30 chicken, 5 tofu and 1 peanut, and 40 are vegetarian
+        SelectivityEstimator estimator = new SelectivityEstimator(100, 40,
+                Map.of("Tomato", 60L, "Chicken", 30L, "Tofu", 5L, "Peanut", 1L));
+
+        // Only chiken is near enough to an ingredient to be resolved as a misspelling
+        queryOptimizer = new QueryOptimizer(
+                name -> Optional.ofNullable(catalog.get(name.equalsIgnoreCase("chiken") ? "chicken" : name.toLowerCase())),
+                name -> Optional.ofNullable(catalog.get(name.toLowerCase())),
+                estimator);
+    }
+
+    @Test
+    @DisplayName("Order the terms of an AND from the most selective, and of an OR from the least selective")
+    void GivenTerms_WhenOptimizing_ThenOrderOnSelectivity() {
+        //When
+        QueryNode result = queryOptimizer.optimize(RecipeQueryParser.parse("(tofu OR chicken) AND vegetarian AND tomato AND NOT peanut"));
+
+        //Then
+        assertThat(result).isEqualTo(new And(List.of(
+                new Or(List.of(new Ingredient("Chicken"), new Ingredient("Tofu"))),
+                new Vegetarian(),
+                new Ingredient("Tomato"),
+                new Not(new Ingredient("Peanut")))));
+    }
+
+    @Test
+    @DisplayName("Flatten nested nodes, remove duplicates and double negations")
+    void GivenRedundantQuery_WhenOptimizing_ThenSimplify() {
+        //When / Then
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("tofu AND (chicken AND Tofu)")))
+                .isEqualTo(new And(List.of(new Ingredient("Tofu"), new Ingredient("Chicken"))));
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("NOT NOT chicken")))
+                .isEqualTo(new Ingredient("Chicken"));
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("(chicken OR (tofu OR chicken))")))
+                .isEqualTo(new Or(List.of(new Ingredient("Chicken"), new Ingredient("Tofu"))));
+    }
+
+    @Test
+    @DisplayName("Merge the servings of an AND into one range")
+    void GivenServingsComparisons_WhenOptimizing_ThenMergeIntoRange() {
+        //When / Then
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("servings>=2 AND chicken AND servings<5")))
+                .isEqualTo(new And(List.of(new Ingredient("Chicken"), new Servings(2, 4))));
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("servings>=4 AND servings<=4")))
+                .isEqualTo(new Servings(4, 4));
+    }
+
+    @Test
+    @DisplayName("Fold queries that match no or all recipes")
+    void GivenContradictions_WhenOptimizing_ThenFoldToConstants() {
+        //When / Then
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("chicken AND NOT chicken"))).isEqualTo(Constant.FALSE);
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("servings>4 AND servings<2 AND chicken"))).isEqualTo(Constant.FALSE);
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("vegetarian OR NOT vegetarian"))).isEqualTo(Constant.TRUE);
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("unicorn AND chicken"))).isEqualTo(Constant.FALSE);
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("unicorn OR chicken"))).isEqualTo(new Ingredient("Chicken"));
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("NOT unicorn AND instruction:oven")))
+                .isEqualTo(new Instruction("oven"));
+        assertThat(queryOptimizer.optimize(RecipeQueryParser.parse("NOT (unicorn OR NOT unicorn)"))).isEqualTo(Constant.FALSE);
+    }
+
+    @Test
+    @DisplayName("Resolve a misspelled ingredient to the nearest name, but under a NOT only on the exact name")
+    void GivenMisspelledIngredient_WhenOptimizing_ThenResolveExactlyUnderNot() {
+        //When
+        QueryNode result = queryOptimizer.optimize(RecipeQueryParser.parse("tofu AND NOT chiken"));
+
+        //Then
+        assertThat(result).isEqualTo(new Ingredient("Tofu"));
+        assertThat(queryOptimizer.getResolvedIngredients()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Resolve a misspelled ingredient under a double NOT to the nearest name and collect the rewrite")
+    void GivenMisspelledIngredientUnderDoubleNot_WhenOptimizing_ThenResolveAndCollect() {
+        //When
+        QueryNode result = queryOptimizer.optimize(RecipeQueryParser.parse("NOT NOT chiken OR Tofu"));
+
+        //Then
+        assertThat(result).isEqualTo(new Or(List.of(new Ingredient("Chicken"), new Ingredient("Tofu"))));
+        assertThat(queryOptimizer.getResolvedIngredients()).containsExactly(Map.entry("chiken", "Chicken"));
+    }
+}
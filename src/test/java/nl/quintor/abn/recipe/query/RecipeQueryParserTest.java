@@ -0,0 +1,91 @@
+package nl.quintor.abn.recipe.query;
+
+import nl.quintor.abn.recipe.exception.InvalidQueryException;
+import nl.quintor.abn.recipe.query.QueryNode.And;
+import nl.quintor.abn.recipe.query.QueryNode.Ingredient;
+import nl.quintor.abn.recipe.query.QueryNode.Instruction;
+import nl.quintor.abn.recipe.query.QueryNode.Not;
+import nl.quintor.abn.recipe.query.QueryNode.Or;
+import nl.quintor.abn.recipe.query.QueryNode.Servings;
+import nl.quintor.abn.recipe.query.QueryNode.Vegetarian;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipeQueryParserTest {
+
+    @Test
+    @DisplayName("Parse a query with parentheses, negation and terms")
+    void GivenQuery_WhenParsing_ThenReturnSyntaxTree() {
+        //When
+        QueryNode result = RecipeQueryParser.parse("(chicken OR tofu) AND NOT peanut AND vegetarian");
+
+        //Then
+        assertThat(result).isEqualTo(new And(List.of(
+                new Or(List.of(new Ingredient("chicken"), new Ingredient("tofu"))),
+                new Not(new Ingredient("peanut")),
+                new Vegetarian())));
+    }
+
+    @Test
+    @DisplayName("AND binds stronger than OR and keywords are case insensitive")
+    void GivenQueryWithoutParentheses_WhenParsing_ThenAndBindsStronger() {
+        //When
+        QueryNode result = RecipeQueryParser.parse("potato or tomato And not meat");
+
+        //Then
+        assertThat(result).isEqualTo(new Or(List.of(
+                new Ingredient("potato"),
+                new And(List.of(new Ingredient("tomato"), new Not(new Ingredient("meat")))))));
+    }
+
+    @Test
+    @DisplayName("Parse servings comparisons, instruction text and quoted names")
+    void GivenTermsWithValues_WhenParsing_ThenReturnTerms() {
+        //When / Then
+        assertThat(RecipeQueryParser.parse("servings=4")).isEqualTo(new Servings(4, 4));
+        assertThat(RecipeQueryParser.parse("servings >= 2")).isEqualTo(new Servings(2, Integer.MAX_VALUE));
+        assertThat(RecipeQueryParser.parse("servings>2")).isEqualTo(new Servings(3, Integer.MAX_VALUE));
+        assertThat(RecipeQueryParser.parse("servings<=6")).isEqualTo(new Servings(Integer.MIN_VALUE, 6));
+        assertThat(RecipeQueryParser.parse("servings<6")).isEqualTo(new Servings(Integer.MIN_VALUE, 5));
+        assertThat(RecipeQueryParser.parse("instruction:\"in the Oven\"")).isEqualTo(new Instruction("in the Oven"));
+        assertThat(RecipeQueryParser.parse("\"Rib Eye\"")).isEqualTo(new Ingredient("Rib Eye"));
+        assertThat(RecipeQueryParser.parse("ingredient:vegetarian")).isEqualTo(new Ingredient("vegetarian"));
+        assertThat(RecipeQueryParser.parse("\"and\"")).isEqualTo(new Ingredient("and"));
+    }
+
+    @Test
+    @DisplayName("Reject queries that do not follow the grammar")
+    void GivenInvalidQuery_WhenParsing_ThenThrowException() {
+        //When / Then
+        assertThatThrownBy(() -> RecipeQueryParser.parse(" ")).isInstanceOf(InvalidQueryException.class)
+                .hasMessage("The query is empty");
+        assertThatThrownBy(() -> RecipeQueryParser.parse("(chicken OR tofu")).isInstanceOf(InvalidQueryException.class)
+                .hasMessage("Expected a closing parenthesis at the end of the query");
+        assertThatThrownBy(() -> RecipeQueryParser.parse("chicken tofu")).isInstanceOf(InvalidQueryException.class)
+                .hasMessage("Expected AND, OR or the end of the query at position 8 but found tofu");
+        assertThatThrownBy(() -> RecipeQueryParser.parse("AND chicken")).isInstanceOf(InvalidQueryException.class)
+                .hasMessage("Expected a term before AND at position 0 but found AND");
+        assertThatThrownBy(() -> RecipeQueryParser.parse("servings=many")).isInstanceOf(InvalidQueryException.class)
+                .hasMessage("Expected an amount of servings at position 9 but found many");
+        assertThatThrownBy(() -> RecipeQueryParser.parse("servings chicken")).isInstanceOf(InvalidQueryException.class);
+        assertThatThrownBy(() -> RecipeQueryParser.parse("instruction:\"oven")).isInstanceOf(InvalidQueryException.class);
+        assertThatThrownBy(() -> RecipeQueryParser.parse("\"\"")).isInstanceOf(InvalidQueryException.class);
+    }
+
+    @Test
+    @DisplayName("Reject queries that are too deep or too long")
+    void GivenHugeQuery_WhenParsing_ThenThrowException() {
+        //When / Then
+        assertThatThrownBy(() -> RecipeQueryParser.parse("(".repeat(RecipeQueryParser.MAX_DEPTH + 1) + "chicken"))
+                .isInstanceOf(InvalidQueryException.class)
+                .hasMessageContaining("nested deeper");
+        assertThatThrownBy(() -> RecipeQueryParser.parse("NOT ".repeat(RecipeQueryParser.MAX_LENGTH)))
+                .isInstanceOf(InvalidQueryException.class)
+                .hasMessageContaining("longer than");
+    }
+}
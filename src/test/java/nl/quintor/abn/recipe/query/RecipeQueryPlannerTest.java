@@ -0,0 +1,100 @@
+package nl.quintor.abn.recipe.query;
+
+import nl.quintor.abn.recipe.exception.InvalidQueryException;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.search.IngredientNameResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeQueryPlannerTest {
+
+    @Mock
+    IngredientNameResolver mockIngredientNameResolver;
+
+    @Mock
+    IngredientRepository mockIngredientRepository;
+
+    @Mock
+    RecipeRepository mockRecipeRepository;
+
+    RecipeQueryPlanner recipeQueryPlanner;
+
+    @BeforeEach
+    void init() {
+        recipeQueryPlanner = new RecipeQueryPlanner(mockIngredientNameResolver, mockIngredientRepository, mockRecipeRepository, 100, 300);
+    }
+
+    @Test
+    @DisplayName("Normalize white space and case outside quotes")
+    void GivenQueries_WhenNormalizing_ThenCollapseWhiteSpaceAndLowerCase() {
+        //When / Then
+        assertThat(RecipeQueryPlanner.normalize("  Chicken   AND\tNOT \"Rib  Eye\" "))
+                .isEqualTo("chicken and not \"Rib  Eye\"");
+        assertThat(RecipeQueryPlanner.normalize("(TOFU OR chicken)")).isEqualTo("(tofu or chicken)");
+    }
+
+    @Test
+    @DisplayName("Equivalent queries share a cached plan")
+    void GivenEquivalentQueries_WhenPlanning_ThenParseAndOptimizeOnce() {
+        //Given
+        when(mockIngredientNameResolver.resolve("chicken"))
+                .thenReturn(Optional.of("Chicken"));
+        when(mockIngredientRepository.countRecipesPerIngredient())
+                .thenReturn(List.of());
+
+        //When
+        QueryPlan plan = recipeQueryPlanner.plan("Chicken AND vegetarian");
+        QueryPlan cachedPlan = recipeQueryPlanner.plan("chicken  and VEGETARIAN");
+
+        //Then
+        assertThat(cachedPlan).isSameAs(plan);
+        assertThat(plan.getExpression()).isEqualTo("chicken and vegetarian");
+        assertThat(plan.matchesNothing()).isFalse();
+        assertThat(recipeQueryPlanner.stats().hitCount()).isEqualTo(1);
+        assertThat(recipeQueryPlanner.stats().missCount()).isEqualTo(1);
+        verify(mockIngredientNameResolver, times(1)).resolve("chicken");
+        verify(mockIngredientRepository, times(1)).countRecipesPerIngredient();
+    }
+
+    @Test
+    @DisplayName("Plans are made again after invalidation")
+    void GivenCachedPlan_WhenInvalidating_ThenPlanAgain() {
+        //Given
+        when(mockIngredientNameResolver.resolve("pumpkin"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of("Pumpkin"));
+        when(mockIngredientRepository.countRecipesPerIngredient())
+                .thenReturn(List.of());
+
+        QueryPlan plan = recipeQueryPlanner.plan("pumpkin");
+
+        //When
+        recipeQueryPlanner.invalidateAll();
+        QueryPlan newPlan = recipeQueryPlanner.plan("pumpkin");
+
+        //Then
+        assertThat(plan.matchesNothing()).isTrue();
+        assertThat(newPlan.getRoot()).isEqualTo(new QueryNode.Ingredient("Pumpkin"));
+    }
+
+    @Test
+    @DisplayName("Invalid queries are not cached")
+    void GivenInvalidQuery_WhenPlanning_ThenThrowExceptionAndCacheNothing() {
+        //When / Then
+        assertThatThrownBy(() -> recipeQueryPlanner.plan("chicken AND")).isInstanceOf(InvalidQueryException.class);
+        assertThat(recipeQueryPlanner.estimatedSize()).isZero();
+    }
+}
@@ -0,0 +1,199 @@
+package nl.quintor.abn.recipe.repository;
+
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.search.RecipeSearchIndex;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the results and the shape of the SQL of the search predicates on the test data. The embedded database
+ * of the JPA slice is separate from the database of the ITs.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "nl.quintor.abn.recipe.repository.RecipeSpecificationsTest$CapturingStatementInspector")
+class RecipeSpecificationsTest {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void init() {
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("Search without filters only selects on the person")
+    void GivenNoFilters_WhenSearchingIds_ThenQueryOnlyFiltersOnPerson() {
+        //When
+        List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(2L), null);
+
+        //Then
+        assertThat(result).containsExactly(3L, 4L);
+        assertThat(searchStatement())
+                .contains("created_by_id=?")
+                .doesNotContain("exists", "number_of_servings", "non_vegetarian_ingredients");
+    }
+
+    @Test
+    @DisplayName("Search on servings does not contain the instruction subqueries")
+    void GivenServings_WhenSearchingIds_ThenQueryHasNoSubqueries() {
+        //When
+        List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(2L)
+                .and(RecipeSpecifications.servings(4)), null);
+
+        //Then
+        assertThat(result).containsExactly(4L);
+        assertThat(searchStatement())
+                .contains("number_of_servings=?")
+                .doesNotContain("exists", "instruction");
+    }
+
+    @Test
+    @DisplayName("Include and exclude ingredients are semi-joins")
+    void GivenIncludeAndExclude_WhenSearchingIds_ThenQueryUsesExistsAndNotExists() {
+        //When
+        List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(1L)
+                .and(RecipeSpecifications.includesAnyIngredient(List.of("Potato", "Meat")))
+                .and(RecipeSpecifications.excludesIngredients(List.of("Meat"))), null);
+
+        //Then
+        assertThat(result).containsExactly(2L);
+        assertThat(searchStatement())
+                .containsPattern("exists \\(select .* not \\(exists \\(select ")
+                .doesNotContain("count(");
+    }
+
+    @Test
+    @DisplayName("Match all ingredients is a semi-join per ingredient")
+    void GivenMatchAll_WhenSearchingIds_ThenQueryHasExistsPerIngredient() {
+        //When
+        List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(1L)
+                .and(RecipeSpecifications.includesAllIngredients(List.of("Potato", "Tomato", "Potato"))), null);
+
+        //Then
+        assertThat(result).containsExactly(2L);
+        assertThat(searchStatement())
+                .containsPattern("exists \\(select .* and \\(exists \\(select ")
+                .doesNotContain("count(");
+    }
+
+    @Test
+    @DisplayName("Vegetarian and instruction text with ignore case")
+    void GivenVegetarianAndInstruction_WhenSearchingIds_ThenQueryUsesCounterAndLowerLike() {
+        //Given
+        Specification<Recipe> specification = RecipeSpecifications.createdBy(1L)
+                .and(RecipeSpecifications.vegetarian())
+                .and(RecipeSpecifications.instructionContains("oVEN", true));
+
+        //When
+        List<Long> result = recipeRepository.searchIds(specification, null);
+
+        //Then
+        assertThat(result).containsExactly(2L);
+        assertThat(searchStatement())
+                .contains("non_vegetarian_ingredients=?", "lower(")
+                .doesNotContain("count(", "join ingredient");
+    }
+
+    @Test
+    @DisplayName("Instruction text with wildcards matches the same recipes as the in-memory index")
+    void GivenInstructionWithWildcards_WhenSearchingIds_ThenMatchLikeTheIndex() {
+        //Given
+        entityManager.createNativeQuery("INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id) " +
+                "VALUES (100, 'Bake at 100% of the heat', 2, 2)").executeUpdate();
+        RecipeSearchIndex recipeSearchIndex = new RecipeSearchIndex(recipeRepository, true, 100);
+
+        for (String text : List.of("100%", "0%G", "3_0G", "\\")) {
+            //When
+            List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(1L)
+                    .and(RecipeSpecifications.instructionContains(text, true)), null);
+
+            //Then
+            assertThat(result).as(text)
+                    .isEqualTo(recipeSearchIndex.search(1L, null, null, null, false, null, text, true));
+        }
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "100%", true)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Search with a cursor and limit")
+    void GivenCursorAndLimit_WhenSearchingIds_ThenReturnTheNextPage() {
+        //When
+        List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(1L)
+                .and(RecipeSpecifications.idAfter(1L)), 1);
+
+        //Then
+        assertThat(result).containsExactly(2L);
+        assertThat(searchStatement()).contains("id>?", "limit ?");
+    }
+
+    @Test
+    @DisplayName("Search ordered on servings descending with the ID as tie breaker")
+    void GivenServingsOrder_WhenSearchingIds_ThenReturnIdsInThatOrder() {
+        //When
+        List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(2L),
+                Sort.by("createdBy.id").and(Sort.by(Sort.Direction.DESC, "numberOfServings", "id")), null);
+
+        //Then
+        assertThat(result).containsExactly(4L, 3L);
+        assertThat(searchStatement()).contains("order by", "number_of_servings desc");
+    }
+
+    @Test
+    @DisplayName("Keyset on the name returns the recipes after the last recipe of the page")
+    void GivenNameKeyset_WhenSearchingIds_ThenReturnTheNextPage() {
+        //When
+        List<Long> result = recipeRepository.searchIds(RecipeSpecifications.createdBy(1L)
+                        .and(RecipeSpecifications.after("name", "Lasagne with spinach", 1L, false)),
+                Sort.by("createdBy.id").and(Sort.by("name", "id")), 1);
+
+        //Then
+        assertThat(result).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Order on person, servings and ID is read from the composite index without sorting")
+    void GivenServingsOrder_WhenExplainingSearch_ThenUseTheIndexOrder() {
+        //Given
+        recipeRepository.searchIds(RecipeSpecifications.createdBy(2L),
+                Sort.by("createdBy.id").and(Sort.by("numberOfServings", "id")), null);
+        String sql = searchStatement().replace("?", "2");
+
+        //When
+        String plan = (String) entityManager.createNativeQuery("explain " + sql).getSingleResult();
+
+        //Then
+        assertThat(plan.toLowerCase()).contains("idx_recipe_created_by_servings", "index sorted");
+    }
+
+    private String searchStatement() {
+        assertThat(CapturingStatementInspector.STATEMENTS).hasSize(1);
+        return CapturingStatementInspector.STATEMENTS.get(0);
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase());
+            return sql;
+        }
+    }
+}
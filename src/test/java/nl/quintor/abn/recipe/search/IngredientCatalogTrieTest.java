@@ -0,0 +1,61 @@
+package nl.quintor.abn.recipe.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientCatalogTrieTest {
+
+    IngredientCatalogTrie ingredientCatalogTrie;
+
+    @BeforeEach
+    void init() {
+        ingredientCatalogTrie = IngredientCatalogTrie.of(List.of(
+                new IngredientSuggestion(1L, "Potato", true),
+                new IngredientSuggestion(2L, "Pork", false),
+                new IngredientSuggestion(3L, "Pepper", true),
+                new IngredientSuggestion(4L, "Pork belly", false),
+                new IngredientSuggestion(5L, "Basil", true)));
+    }
+
+    @Test
+    @DisplayName("Complete a prefix in alphabetical order ignoring case")
+    void GivenPrefix_WhenCompleting_ThenReturnIngredientsOrderedByName() {
+        //When / Then
+        assertThat(ingredientCatalogTrie.complete("PO", 10)).containsExactly(
+                new IngredientSuggestion(2L, "Pork", false),
+                new IngredientSuggestion(4L, "Pork belly", false),
+                new IngredientSuggestion(1L, "Potato", true));
+        assertThat(ingredientCatalogTrie.complete("p", 2)).extracting(IngredientSuggestion::getName).containsExactly("Pepper", "Pork");
+        assertThat(ingredientCatalogTrie.complete("", 1)).extracting(IngredientSuggestion::getName).containsExactly("Basil");
+        assertThat(ingredientCatalogTrie.complete("pork belly", 10)).extracting(IngredientSuggestion::getId).containsExactly(4L);
+        assertThat(ingredientCatalogTrie.complete("pork bellies", 10)).isEmpty();
+        assertThat(ingredientCatalogTrie.complete("tofu", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Adding an ingredient returns a new trie and leaves the old one unchanged")
+    void GivenTrie_WhenAddingIngredient_ThenOnlyTheNewTrieContainsIt() {
+        //When
+        IngredientCatalogTrie newTrie = ingredientCatalogTrie.with(new IngredientSuggestion(6L, "Porcini", true));
+
+        //Then
+        assertThat(newTrie.size()).isEqualTo(6);
+        assertThat(newTrie.complete("por", 10)).extracting(IngredientSuggestion::getName).containsExactly("Porcini", "Pork", "Pork belly");
+        assertThat(ingredientCatalogTrie.size()).isEqualTo(5);
+        assertThat(ingredientCatalogTrie.complete("por", 10)).extracting(IngredientSuggestion::getName).containsExactly("Pork", "Pork belly");
+        assertThat(newTrie.with(new IngredientSuggestion(6L, "Porcini", true))).isSameAs(newTrie);
+    }
+
+    @Test
+    @DisplayName("Empty catalog completes to nothing")
+    void GivenEmptyCatalog_WhenCompleting_ThenReturnNothing() {
+        //When / Then
+        assertThat(IngredientCatalogTrie.of(List.of()).complete("", 10)).isEmpty();
+        assertThat(IngredientCatalogTrie.of(List.of()).complete("a", 10)).isEmpty();
+    }
+}
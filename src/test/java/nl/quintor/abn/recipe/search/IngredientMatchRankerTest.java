@@ -0,0 +1,64 @@
+package nl.quintor.abn.recipe.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientMatchRankerTest {
+
+    @Test
+    @DisplayName("Rank recipes on matched ingredients and then on coverage")
+    void GivenRecipeIngredients_WhenRanking_ThenMostMatchedIngredientsFirst() {
+        //Given
+        IngredientMatchRanker ranker = new IngredientMatchRanker(List.of("Potato", "Tomato", "Onion"), false, 10);
+
+        //When
+        accept(ranker, 1L, "Potato", "Meat", "Salt", "Pepper");
+        accept(ranker, 2L, "Potato", "Tomato", "Onion");
+        accept(ranker, 3L, "Potato");
+        accept(ranker, 4L, "Meat");
+        accept(ranker, 5L, "Tomato", "Onion", "Meat");
+
+        //Then
+        assertThat(ranker.toRankedIds()).containsExactly(2L, 5L, 3L, 1L);
+    }
+
+    @Test
+    @DisplayName("Keep only the best k recipes")
+    void GivenLimit_WhenRanking_ThenKeepTheBestRecipes() {
+        //Given
+        IngredientMatchRanker ranker = new IngredientMatchRanker(List.of("Potato", "Tomato"), false, 2);
+
+        //When
+        for (long recipeId = 1; recipeId <= 100; recipeId++) {
+            accept(ranker, recipeId, "Potato", recipeId % 10 == 0 ? "Tomato" : "Salt");
+        }
+
+        //Then
+        assertThat(ranker.toRankedIds()).containsExactly(10L, 20L);
+    }
+
+    @Test
+    @DisplayName("Match all keeps only recipes with every ingredient")
+    void GivenMatchAll_WhenRanking_ThenDropPartialMatches() {
+        //Given
+        IngredientMatchRanker ranker = new IngredientMatchRanker(List.of("Potato", "Tomato"), true, 10);
+
+        //When
+        accept(ranker, 1L, "Potato", "Tomato", "Salt");
+        accept(ranker, 2L, "Potato");
+        accept(ranker, 3L, "Tomato", "Potato");
+
+        //Then
+        assertThat(ranker.toRankedIds()).containsExactly(3L, 1L);
+    }
+
+    private void accept(IngredientMatchRanker ranker, long recipeId, String... ingredientNames) {
+        for (String ingredientName : ingredientNames) {
+            ranker.accept(recipeId, ingredientName);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookup of misspelled ingredient names in a generated catalog. The names are built from syllables,
+ * so like real ingredient names many of them are only a few edits apart. Run it with the main method from the
+ * test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngredientNameResolverBenchmark {
+
+    private static final String[] SYLLABLES = {"ba", "co", "li", "to", "ma", "po", "ta", "ri", "ce", "pe", "per", "on",
+            "gar", "lic", "sal", "mon", "car", "rot", "chi", "ken", "bro", "ci", "spi", "nach", "mu", "shroom"};
+
+    @Param({"100000"})
+    private int ingredients;
+
+    private IngredientNameResolver ingredientNameResolver;
+    private List<String> misspelledNames;
+    private List<String> twiceMisspelledNames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < ingredients; i++) {
+            names.add(generateName(random));
+        }
+
+        IngredientRepository ingredientRepository = Mockito.mock(IngredientRepository.class);
+        Mockito.when(ingredientRepository.findAllNames()).thenReturn(names);
+        ingredientNameResolver = new IngredientNameResolver(ingredientRepository, 2);
+        ingredientNameResolver.resolve("warm up");
+
+        misspelledNames = new ArrayList<>();
+        twiceMisspelledNames = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            misspelledNames.add(misspell(name, random));
+            twiceMisspelledNames.add(misspell(misspell(name, random), random));
+        }
+    }
+
+    @Benchmark
+    public Optional<String> resolveMisspelledName() {
+        next = (next + 1) % misspelledNames.size();
+        return ingredientNameResolver.resolve(misspelledNames.get(next));
+    }
+
+    @Benchmark
+    public Optional<String> resolveTwiceMisspelledName() {
+        next = (next + 1) % twiceMisspelledNames.size();
+        return ingredientNameResolver.resolve(twiceMisspelledNames.get(next));
+    }
+
+    private static String misspell(String name, Random random) {
+        StringBuilder misspelled = new StringBuilder(name);
+        misspelled.setCharAt(random.nextInt(name.length()), (char) ('a' + random.nextInt(26)));
+        return misspelled.toString();
+    }
+
+    private static String generateName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(4);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IngredientNameResolverBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
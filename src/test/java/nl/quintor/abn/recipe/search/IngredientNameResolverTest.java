@@ -0,0 +1,74 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientNameResolverTest {
+
+    @Mock
+    IngredientRepository mockIngredientRepository;
+
+    IngredientNameResolver ingredientNameResolver;
+
+    @BeforeEach
+    void init() {
+        ingredientNameResolver = new IngredientNameResolver(mockIngredientRepository, 2);
+
+        when(mockIngredientRepository.findAllNames())
+                .thenReturn(new ArrayList<>(List.of("Broccoli", "Potato", "Tomato", "Fig")));
+    }
+
+    @Test
+    @DisplayName("Resolve misspelled names to the nearest ingredient")
+    void GivenMisspelledNames_WhenResolving_ThenReturnTheNearestIngredient() {
+        //When / Then
+        assertThat(ingredientNameResolver.resolve("brocoli")).contains("Broccoli");
+        assertThat(ingredientNameResolver.resolve("potato")).contains("Potato");
+        assertThat(ingredientNameResolver.resolve(" Tomatoe ")).contains("Tomato");
+        assertThat(ingredientNameResolver.resolve("Chicken")).isEmpty();
+        verify(mockIngredientRepository, times(1)).findAllNames();
+    }
+
+    @Test
+    @DisplayName("Resolve exact names ignoring case only")
+    void GivenNames_WhenResolvingExact_ThenOnlyResolveNamesThatDifferInCase() {
+        //When / Then
+        assertThat(ingredientNameResolver.resolveExact(" POTATO ")).contains("Potato");
+        assertThat(ingredientNameResolver.resolveExact("brocoli")).isEmpty();
+        verify(mockIngredientRepository, times(1)).findAllNames();
+    }
+
+    @Test
+    @DisplayName("Short names allow fewer edits")
+    void GivenShortName_WhenResolving_ThenOnlyAllowOneEditPerThreeCharacters() {
+        //When / Then
+        assertThat(ingredientNameResolver.resolve("fog")).contains("Fig");
+        assertThat(ingredientNameResolver.resolve("egg")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Resolve created ingredients")
+    void GivenCreatedIngredient_WhenResolving_ThenReturnTheCreatedIngredient() {
+        //Given
+        ingredientNameResolver.resolve("Potato");
+
+        //When
+        ingredientNameResolver.addName("Cauliflower");
+
+        //Then
+        assertThat(ingredientNameResolver.resolve("califlower")).contains("Cauliflower");
+        verify(mockIngredientRepository, times(1)).findAllNames();
+    }
+}
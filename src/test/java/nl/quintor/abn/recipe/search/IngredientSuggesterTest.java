@@ -0,0 +1,76 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngredientSuggesterTest {
+
+    @Mock
+    IngredientRepository mockIngredientRepository;
+
+    IngredientSuggester ingredientSuggester;
+
+    @BeforeEach
+    void init() {
+        ingredientSuggester = new IngredientSuggester(mockIngredientRepository);
+    }
+
+    @Test
+    @DisplayName("Suggest ingredients with their vegetarian flag from a catalog loaded once")
+    void GivenCatalog_WhenSuggesting_ThenReturnIngredientsWithVegetarianFlag() {
+        //Given
+        when(mockIngredientRepository.findAll())
+                .thenReturn(List.of(ingredient(1L, "Tomato", true), ingredient(2L, "Tofu", true), ingredient(3L, "Tuna", false)));
+
+        //When
+        List<IngredientSuggestion> result = ingredientSuggester.suggest("to", 10);
+
+        //Then
+        assertThat(result).containsExactly(new IngredientSuggestion(2L, "Tofu", true), new IngredientSuggestion(1L, "Tomato", true));
+        assertThat(ingredientSuggester.suggest("tu", 10)).containsExactly(new IngredientSuggestion(3L, "Tuna", false));
+        verify(mockIngredientRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Created ingredients are suggested after the catalog is loaded")
+    void GivenLoadedCatalog_WhenAddingIngredient_ThenSuggestIt() {
+        //Given
+        when(mockIngredientRepository.findAll())
+                .thenReturn(List.of(ingredient(1L, "Tomato", true)));
+        ingredientSuggester.suggest("", 10);
+
+        //When
+        ingredientSuggester.addIngredient(ingredient(2L, "Tofu", true));
+
+        //Then
+        assertThat(ingredientSuggester.suggest("to", 10)).extracting(IngredientSuggestion::getName).containsExactly("Tofu", "Tomato");
+    }
+
+    @Test
+    @DisplayName("Adding an ingredient before the catalog is loaded does not load it")
+    void GivenUnloadedCatalog_WhenAddingIngredient_ThenDoNothing() {
+        //When
+        ingredientSuggester.addIngredient(ingredient(2L, "Tofu", true));
+
+        //Then
+        verify(mockIngredientRepository, never()).findAll();
+    }
+
+    private static Ingredient ingredient(long id, String name, boolean vegetarian) {
+        Ingredient ingredient = new Ingredient(name, vegetarian);
+        ingredient.setId(id);
+        return ingredient;
+    }
+}
@@ -0,0 +1,32 @@
+package nl.quintor.abn.recipe.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KWayMergeTest {
+
+    @Test
+    @DisplayName("Merge sorted lists into one sorted list")
+    void GivenSortedLists_WhenMerging_ThenReturnAllIdsAscending() {
+        //When
+        List<Long> result = KWayMerge.merge(List.of(List.of(1L, 5L, 9L), List.of(), List.of(2L, 3L, 10L), List.of(4L)), 100);
+
+        //Then
+        assertThat(result).containsExactly(1L, 2L, 3L, 4L, 5L, 9L, 10L);
+    }
+
+    @Test
+    @DisplayName("Merge only the first IDs up to the limit")
+    void GivenLimit_WhenMerging_ThenReturnTheSmallestIds() {
+        //When
+        List<Long> result = KWayMerge.merge(List.of(List.of(1L, 5L, 9L), List.of(2L, 3L, 10L)), 3);
+
+        //Then
+        assertThat(result).containsExactly(1L, 2L, 3L);
+        assertThat(KWayMerge.merge(List.of(), 3)).isEmpty();
+    }
+}
@@ -0,0 +1,55 @@
+package nl.quintor.abn.recipe.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LevenshteinTrieTest {
+
+    LevenshteinTrie levenshteinTrie;
+
+    @BeforeEach
+    void init() {
+        levenshteinTrie = new LevenshteinTrie();
+        levenshteinTrie.add("broccoli");
+        levenshteinTrie.add("tomato");
+        levenshteinTrie.add("potato");
+        levenshteinTrie.add("pasta");
+        levenshteinTrie.add("past");
+        levenshteinTrie.add("basil");
+        levenshteinTrie.add("tomato");
+    }
+
+    @Test
+    @DisplayName("Levenshtein distance")
+    void GivenTwoWords_WhenCalculatingDistance_ThenReturnTheAmountOfEdits() {
+        //When / Then
+        assertThat(LevenshteinTrie.distance("brocoli", "broccoli")).isEqualTo(1);
+        assertThat(LevenshteinTrie.distance("kitten", "sitting")).isEqualTo(3);
+        assertThat(LevenshteinTrie.distance("", "basil")).isEqualTo(5);
+        assertThat(LevenshteinTrie.distance("pasta", "pasta")).isZero();
+    }
+
+    @Test
+    @DisplayName("Find the nearest word within the maximum distance")
+    void GivenMisspelledWord_WhenSearchingNearest_ThenReturnTheWordWithTheLeastEdits() {
+        //When / Then
+        assertThat(levenshteinTrie.size()).isEqualTo(6);
+        assertThat(levenshteinTrie.nearest("brocoli", 2)).contains("broccoli");
+        assertThat(levenshteinTrie.nearest("tomatoe", 2)).contains("tomato");
+        assertThat(levenshteinTrie.nearest("basil", 2)).contains("basil");
+        assertThat(levenshteinTrie.nearest("pas", 2)).contains("past");
+        assertThat(levenshteinTrie.nearest("chicken", 2)).isEmpty();
+        assertThat(levenshteinTrie.nearest("brccli", 1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Words with the same distance are resolved alphabetically")
+    void GivenWordsWithTheSameDistance_WhenSearchingNearest_ThenReturnTheAlphabeticallyFirst() {
+        //When / Then
+        assertThat(levenshteinTrie.nearest("xotato", 1)).contains("potato");
+        assertThat(levenshteinTrie.nearest("pastx", 1)).contains("past");
+    }
+}
@@ -0,0 +1,49 @@
+package nl.quintor.abn.recipe.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NameTrieTest {
+
+    NameTrie nameTrie;
+
+    @BeforeEach
+    void init() {
+        nameTrie = new NameTrie();
+        nameTrie.add("Pasta pesto", 3L);
+        nameTrie.add("Pasta", 5L);
+        nameTrie.add("Potato with tomato", 1L);
+        nameTrie.add("pasta", 2L);
+        nameTrie.add("Lasagne", 4L);
+    }
+
+    @Test
+    @DisplayName("Complete a prefix in alphabetical order ignoring case")
+    void GivenPrefix_WhenCompleting_ThenReturnRecipesOrderedByName() {
+        //When / Then
+        assertThat(nameTrie.complete("PA", 10)).containsExactly(
+                new RecipeSuggestion(2L, "pasta"),
+                new RecipeSuggestion(5L, "Pasta"),
+                new RecipeSuggestion(3L, "Pasta pesto"));
+        assertThat(nameTrie.complete("p", 3)).extracting(RecipeSuggestion::getId).containsExactly(2L, 5L, 3L);
+        assertThat(nameTrie.complete("", 1)).extracting(RecipeSuggestion::getId).containsExactly(4L);
+        assertThat(nameTrie.complete("pizza", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Removed recipes are no longer completed")
+    void GivenRemovedRecipes_WhenCompleting_ThenSkipThem() {
+        //When
+        nameTrie.remove("Pasta pesto", 3L);
+        nameTrie.remove("Pasta", 5L);
+        nameTrie.remove("Lasagne", 1L);
+
+        //Then
+        assertThat(nameTrie.complete("pasta", 10)).extracting(RecipeSuggestion::getId).containsExactly(2L);
+        assertThat(nameTrie.complete("pasta ", 10)).isEmpty();
+        assertThat(nameTrie.complete("l", 10)).extracting(RecipeSuggestion::getId).containsExactly(4L);
+    }
+}
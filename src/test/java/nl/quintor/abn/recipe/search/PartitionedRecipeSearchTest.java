@@ -0,0 +1,120 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.repository.IdRange;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionedRecipeSearchTest {
+
+    @Mock
+    RecipeRepository mockRecipeRepository;
+
+    @Mock
+    IdRange mockIdRange;
+
+    PartitionedRecipeSearch partitionedRecipeSearch;
+
+    @BeforeEach
+    void init() {
+        partitionedRecipeSearch = new PartitionedRecipeSearch(mockRecipeRepository, 2, 3);
+    }
+
+    @AfterEach
+    void close() {
+        partitionedRecipeSearch.shutdown();
+    }
+
+    @Test
+    @DisplayName("Split a range of recipes in adjacent partitions")
+    void GivenRangeOfRecipes_WhenPartitioning_ThenCoverTheRangeOnce() {
+        //When / Then
+        assertThat(PartitionedRecipeSearch.partition(1, 10, 3))
+                .containsExactly(new long[]{1, 4}, new long[]{5, 8}, new long[]{9, 10});
+        assertThat(PartitionedRecipeSearch.partition(7, 8, 16))
+                .containsExactly(new long[]{7, 7}, new long[]{8, 8});
+        assertThat(PartitionedRecipeSearch.partition(3, 3, 4))
+                .containsExactly(new long[]{3, 3});
+    }
+
+    @Test
+    @DisplayName("Merge the pages of the partitions")
+    void GivenPartitions_WhenSearching_ThenReturnTheFirstIdsOfAllPartitions() {
+        //Given
+        when(mockIdRange.getMinimum()).thenReturn(1L);
+        when(mockIdRange.getMaximum()).thenReturn(3L);
+        when(mockRecipeRepository.findIdRange()).thenReturn(mockIdRange);
+
+        when(mockRecipeRepository.searchIds(any(), anyInt()))
+                .thenReturn(List.of(1L, 4L, 6L), List.of(2L, 3L), List.of(5L));
+
+        //When
+        List<Long> result = partitionedRecipeSearch.searchIds((recipe, query, builder) -> null, null, 4);
+
+        //Then
+        assertThat(result).containsExactly(1L, 2L, 3L, 4L);
+        verify(mockRecipeRepository, times(3)).searchIds(any(), eq(4));
+    }
+
+    @Test
+    @DisplayName("Default to a few partitions per thread of the pool")
+    void GivenNoAmountOfPartitions_WhenSearching_ThenSearchPartitionsPerThread() {
+        //Given
+        PartitionedRecipeSearch defaultPartitionedRecipeSearch = new PartitionedRecipeSearch(mockRecipeRepository, 2, 0);
+        when(mockIdRange.getMinimum()).thenReturn(1L);
+        when(mockIdRange.getMaximum()).thenReturn(100L);
+        when(mockRecipeRepository.findIdRange()).thenReturn(mockIdRange);
+        when(mockRecipeRepository.searchIds(any(), anyInt())).thenReturn(List.of());
+
+        //When
+        defaultPartitionedRecipeSearch.searchIds((recipe, query, builder) -> null, null, 4);
+        defaultPartitionedRecipeSearch.shutdown();
+
+        //Then
+        verify(mockRecipeRepository, times(2 * PartitionedRecipeSearch.PARTITIONS_PER_THREAD)).searchIds(any(), eq(4));
+    }
+
+    @Test
+    @DisplayName("Search after the last recipe")
+    void GivenCursorAfterTheLastRecipe_WhenSearching_ThenSkipThePartitions() {
+        //Given
+        when(mockIdRange.getMinimum()).thenReturn(1L);
+        when(mockIdRange.getMaximum()).thenReturn(3L);
+        when(mockRecipeRepository.findIdRange()).thenReturn(mockIdRange);
+
+        //When
+        List<Long> result = partitionedRecipeSearch.searchIds((recipe, query, builder) -> null, 3L, 4);
+
+        //Then
+        assertThat(result).isEmpty();
+        verify(mockRecipeRepository, never()).searchIds(any(), any());
+    }
+
+    @Test
+    @DisplayName("Search without recipes")
+    void GivenNoRecipes_WhenSearching_ThenSkipThePartitions() {
+        //Given
+        when(mockIdRange.getMinimum()).thenReturn(null);
+        when(mockRecipeRepository.findIdRange()).thenReturn(mockIdRange);
+
+        //When
+        List<Long> result = partitionedRecipeSearch.searchIds((recipe, query, builder) -> null, null, 4);
+
+        //Then
+        assertThat(result).isEmpty();
+        verify(mockRecipeRepository, never()).searchIds(any(), any());
+    }
+}
@@ -0,0 +1,98 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.RecipeApplication;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.repository.RecipeSpecifications;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the global search as a single query with the search over partitions of recipes in parallel, on a
+ * generated catalog. Only a few recipes have the searched amount of servings, so both have to scan the whole
+ * catalog. Run it with the main method from the test classpath on a machine with several cores, the speed-up
+ * follows the parallelism until the cores or the connection pool run out. The catalog is held by the in-memory
+ * database, so the fork gets a larger heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PartitionedSearchBenchmark {
+
+    private static final int PERSONS = 10_000;
+    private static final int LIMIT = 100;
+    private static final int RARE_SERVINGS = 12;
+    private static final int RARE_SERVINGS_INTERVAL = 50_000;
+
+    @Param({"2000000"})
+    private int recipes;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    private ConfigurableApplicationContext context;
+    private RecipeRepository recipeRepository;
+    private PartitionedRecipeSearch partitionedRecipeSearch;
+    private Specification<Recipe> specification;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Arguments instead of default properties, which application.properties overrides
+        context = new SpringApplicationBuilder(RecipeApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run("--spring.datasource.url=jdbc:h2:mem:partitioned-benchmark;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.datasource.hikari.maximum-pool-size=" + (parallelism + 2));
+        recipeRepository = context.getBean(RecipeRepository.class);
+
+        // Generated in the database, inserting millions of entities through the persistence context takes minutes.
+        // The IDs are explicit, after the IDs of data.sql, and the sequences hand out the IDs after them
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long lastPersonId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from person", Long.class);
+        jdbcTemplate.update("insert into person (id, username, password) select ? + x, 'Benchmark ' || x, 'Password' from system_range(1, ?)",
+                lastPersonId, PERSONS);
+        jdbcTemplate.execute("alter sequence person_seq restart with " + (lastPersonId + PERSONS + 1));
+
+        long lastRecipeId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from recipe", Long.class);
+        jdbcTemplate.update("insert into recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id) " +
+                "select ? + x, 'Generated recipe ' || x, case when mod(x, ?) = 0 then ? else mod(x, 6) + 1 end, mod(x, 3), ? + 1 + mod(x, ?) " +
+                "from system_range(1, ?)", lastRecipeId, RARE_SERVINGS_INTERVAL, RARE_SERVINGS, lastPersonId, PERSONS, recipes);
+        jdbcTemplate.execute("alter sequence recipe_seq restart with " + (lastRecipeId + recipes + 1));
+
+        partitionedRecipeSearch = new PartitionedRecipeSearch(recipeRepository, parallelism, 0);
+        specification = RecipeSpecifications.servings(RARE_SERVINGS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        partitionedRecipeSearch.shutdown();
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> singleQuery() {
+        return recipeRepository.searchIds(specification, LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> partitioned() {
+        return partitionedRecipeSearch.searchIds(specification, null, LIMIT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PartitionedSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
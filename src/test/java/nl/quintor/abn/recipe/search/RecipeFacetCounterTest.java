@@ -0,0 +1,48 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.repository.RecipeFacetRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeFacetCounterTest {
+
+    @Test
+    @DisplayName("Count every recipe once per facet value")
+    void GivenRowsPerIngredient_WhenCounting_ThenCountRecipesOncePerValue() {
+        //Given
+        RecipeFacetCounter counter = new RecipeFacetCounter();
+
+        //When
+        counter.accept(new RecipeFacetRow(1L, 2, 0, "Tomato"));
+        counter.accept(new RecipeFacetRow(1L, 2, 0, "Tomato"));
+        counter.accept(new RecipeFacetRow(1L, 2, 0, "Potato"));
+        counter.accept(new RecipeFacetRow(2L, 2, 1, "Tomato"));
+        counter.accept(new RecipeFacetRow(2L, 2, 1, "Chicken"));
+        counter.accept(new RecipeFacetRow(3L, 4, 0, null));
+        RecipeFacets result = counter.toFacets();
+
+        //Then
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getIngredients()).isEqualTo(Map.of("Chicken", 1L, "Potato", 1L, "Tomato", 2L));
+        assertThat(result.getIngredients().keySet()).containsExactly("Chicken", "Potato", "Tomato");
+        assertThat(result.getServings()).isEqualTo(Map.of(2, 2L, 4, 1L));
+        assertThat(result.getVegetarian()).isEqualTo(Map.of(false, 1L, true, 2L));
+    }
+
+    @Test
+    @DisplayName("Count nothing without rows")
+    void GivenNoRows_WhenCounting_ThenReturnEmptyFacets() {
+        //When
+        RecipeFacets result = new RecipeFacetCounter().toFacets();
+
+        //Then
+        assertThat(result.getTotal()).isZero();
+        assertThat(result.getIngredients()).isEmpty();
+        assertThat(List.of(result.getServings(), result.getVegetarian())).allSatisfy(facet -> assertThat(facet).isEmpty());
+    }
+}
@@ -0,0 +1,213 @@
+package nl.quintor.abn.recipe.search;
+
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.RecipeIngredientRow;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeSearchIndexTest {
+
+    Person person;
+    Ingredient carrot;
+    Ingredient chicken;
+    Recipe soup;
+    Recipe stew;
+
+    @Mock
+    RecipeRepository mockRecipeRepository;
+
+    RecipeSearchIndex recipeSearchIndex;
+
+    @BeforeEach
+    void init() {
+        recipeSearchIndex = new RecipeSearchIndex(mockRecipeRepository, true, 100);
+
+        person = new Person("Quintor", "Password");
+        person.setId(1L);
+
+        carrot = new Ingredient("Carrot", true);
+        carrot.setId(1L);
+        chicken = new Ingredient("Chicken", false);
+        chicken.setId(2L);
+
+        soup = new Recipe("Carrot soup", 2, person);
+        soup.setId(1L);
+        stew = new Recipe("Chicken stew", 4, person);
+        stew.setId(2L);
+
+        when(mockRecipeRepository.findIngredientViewsByPerson(anyLong()))
+                .thenReturn(new ArrayList<>());
+
+        // Loads the empty index of the person, so the mutations below are applied to it
+        recipeSearchIndex.search(1L, null, null, null, false, null, null, false);
+
+        recipeSearchIndex.putRecipe(soup);
+        recipeSearchIndex.putRecipe(stew);
+        recipeSearchIndex.putInstruction(1L, instruction(10L, "Boil the carrots for 10 minutes", carrot, soup));
+        recipeSearchIndex.putInstruction(1L, instruction(20L, "Slice the carrots", carrot, stew));
+        recipeSearchIndex.putInstruction(1L, instruction(21L, "Fry the Chicken in the Oven", chicken, stew));
+    }
+
+    @Test
+    @DisplayName("Search without filters")
+    void GivenNoFilters_WhenSearching_ThenReturnAllRecipes() {
+        //When
+        List<Long> result = recipeSearchIndex.search(1L, null, null, null, false, null, null, false);
+
+        //Then
+        assertThat(result).containsExactly(1L, 2L);
+        verify(mockRecipeRepository, times(1)).findIngredientViewsByPerson(1L);
+    }
+
+    @Test
+    @DisplayName("Search vegetarian recipes")
+    void GivenVegetarian_WhenSearching_ThenReturnRecipesWithoutMeat() {
+        //When
+        List<Long> result = recipeSearchIndex.search(1L, true, null, null, false, null, null, false);
+
+        //Then
+        assertThat(result).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Search with servings, include and exclude")
+    void GivenServingsIncludeAndExclude_WhenSearching_ThenReturnMatchingRecipes() {
+        //When / Then
+        assertThat(recipeSearchIndex.search(1L, null, 4, null, false, null, null, false)).containsExactly(2L);
+        assertThat(recipeSearchIndex.search(1L, null, null, List.of("Chicken", "Unknown"), false, null, null, false)).containsExactly(2L);
+        assertThat(recipeSearchIndex.search(1L, null, null, List.of("Carrot"), false, List.of("Chicken"), null, false)).containsExactly(1L);
+        assertThat(recipeSearchIndex.search(1L, null, null, List.of("Unknown"), false, null, null, false)).isEmpty();
+        assertThat(recipeSearchIndex.search(1L, null, null, List.of("Carrot", "Chicken"), true, null, null, false)).containsExactly(2L);
+        assertThat(recipeSearchIndex.search(1L, null, null, List.of("Carrot", "Unknown"), true, null, null, false)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Search on instruction text")
+    void GivenInstructionText_WhenSearching_ThenReturnRecipesContainingText() {
+        //When / Then
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "carrots", false)).containsExactly(1L, 2L);
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "Oven", false)).containsExactly(2L);
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "oven", false)).isEmpty();
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "oven", true)).containsExactly(2L);
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "10", false)).containsExactly(1L);
+        assertThat(recipeSearchIndex.search(1L, true, null, null, false, null, "carrots", false)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Rank recipes on free text")
+    void GivenFreeTextQuery_WhenRanking_ThenReturnBestMatchFirst() {
+        //When / Then
+        assertThat(recipeSearchIndex.rank(1L, "boiled carrot", 10)).containsExactly(1L, 2L);
+        assertThat(recipeSearchIndex.rank(1L, "frying chickens", 10)).containsExactly(2L);
+        assertThat(recipeSearchIndex.rank(1L, "carrots", 1)).containsExactly(1L);
+        assertThat(recipeSearchIndex.rank(1L, "pumpkin", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Index follows the mutations")
+    void GivenMutations_WhenSearching_ThenReturnUpdatedRecipes() {
+        //Given
+        recipeSearchIndex.removeInstruction(1L, 2L, 21L);
+        stew.setNumberOfServings(2);
+        recipeSearchIndex.putRecipe(stew);
+        recipeSearchIndex.removeRecipe(soup);
+
+        //When / Then
+        assertThat(recipeSearchIndex.search(1L, true, 2, List.of("Carrot"), false, null, null, false)).containsExactly(2L);
+        assertThat(recipeSearchIndex.search(1L, null, 4, null, false, null, null, false)).isEmpty();
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "Chicken", false)).isEmpty();
+        assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, "Boil", false)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Apply mutations inside a transaction only after the commit")
+    void GivenTransaction_WhenMutating_ThenApplyAfterCommit() {
+        //Given
+        Recipe chickenCurry = new Recipe("Chicken curry", 2, person);
+        chickenCurry.setId(3L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //When
+            recipeSearchIndex.putRecipe(chickenCurry);
+            recipeSearchIndex.removeRecipe(soup);
+
+            //Then
+            assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, null, false)).containsExactly(1L, 2L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(recipeSearchIndex.search(1L, null, null, null, false, null, null, false)).containsExactly(2L, 3L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Build the index again when a mutation arrives during the build")
+    void GivenMutationDuringBuild_WhenSearching_ThenBuildIndexAgain() {
+        //Given
+        Person otherPerson = new Person("Other", "Password");
+        otherPerson.setId(2L);
+        Recipe pie = new Recipe("Pumpkin pie", 6, otherPerson);
+        pie.setId(3L);
+
+        when(mockRecipeRepository.findIngredientViewsByPerson(2L))
+                .thenAnswer(invocation -> {
+                    // Committed after the rows were read, so the index being built misses it
+                    recipeSearchIndex.putRecipe(pie);
+                    return new ArrayList<>();
+                })
+                .thenReturn(List.of(new RecipeIngredientRow(3L, "Pumpkin pie", 6, null, null, null, null, null)));
+
+        //When / Then
+        assertThat(recipeSearchIndex.search(2L, null, null, null, false, null, null, false)).isEmpty();
+        assertThat(recipeSearchIndex.search(2L, null, null, null, false, null, null, false)).containsExactly(3L);
+        verify(mockRecipeRepository, times(2)).findIngredientViewsByPerson(2L);
+    }
+
+    @Test
+    @DisplayName("Suggest recipes on the start of their name")
+    void GivenPrefix_WhenSuggesting_ThenReturnRecipesWithMatchingName() {
+        //Given
+        Recipe chickenCurry = new Recipe("Chicken curry", 2, person);
+        chickenCurry.setId(3L);
+        recipeSearchIndex.putRecipe(chickenCurry);
+
+        //When / Then
+        assertThat(recipeSearchIndex.suggest(1L, "chick", 10)).extracting(RecipeSuggestion::getName)
+                .containsExactly("Chicken curry", "Chicken stew");
+        assertThat(recipeSearchIndex.suggest(1L, "CARROT", 10)).extracting(RecipeSuggestion::getId).containsExactly(1L);
+
+        stew.setName("Beef stew");
+        recipeSearchIndex.putRecipe(stew);
+        recipeSearchIndex.removeRecipe(soup);
+
+        assertThat(recipeSearchIndex.suggest(1L, "chick", 10)).extracting(RecipeSuggestion::getId).containsExactly(3L);
+        assertThat(recipeSearchIndex.suggest(1L, "beef", 10)).extracting(RecipeSuggestion::getId).containsExactly(2L);
+        assertThat(recipeSearchIndex.suggest(1L, "carrot", 10)).isEmpty();
+    }
+
+    private Instruction instruction(long id, String wayOfPreperation, Ingredient ingredient, Recipe recipe) {
+        Instruction instruction = new Instruction(wayOfPreperation, ingredient, recipe);
+        instruction.setId(id);
+        return instruction;
+    }
+}
@@ -0,0 +1,72 @@
+package nl.quintor.abn.recipe.search;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the completion of recipe names in the index of a single person with many recipes. The short prefixes
+ * match a large part of the recipes, which is the worst case for collecting the first completions. Run it with the
+ * main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeSuggestBenchmark {
+
+    private static final String[] WORDS = {"pasta", "potato", "tomato", "chicken", "curry", "soup", "stew", "salad",
+            "with", "and", "spinach", "lasagne", "roasted", "baked", "garlic", "lemon", "rice", "beef", "pie"};
+
+    @Param({"100000"})
+    private int recipes;
+
+    private PersonRecipeIndex index;
+    private List<String> prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new PersonRecipeIndex();
+        prefixes = new ArrayList<>();
+
+        for (int i = 0; i < recipes; i++) {
+            String name = generateName(random);
+            index.putRecipe(i, name, 1 + random.nextInt(8));
+
+            if (i % 100 == 0) {
+                prefixes.add(name.substring(0, 1 + random.nextInt(Math.min(name.length(), 12))));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<RecipeSuggestion> suggest() {
+        next = (next + 1) % prefixes.size();
+        return index.suggest(prefixes.get(next), 10);
+    }
+
+    private static String generateName(Random random) {
+        StringBuilder name = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            name.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return name.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecipeSuggestBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package nl.quintor.abn.recipe.search;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the LIKE query of the instruction filter with the {@link TrigramIndex} on 1M generated instructions.
+ * Run it with the main method from the test classpath, it is not part of the test suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrigramIndexBenchmark {
+
+    private static final int INSTRUCTIONS = 1_000_000;
+    private static final int INSTRUCTIONS_PER_RECIPE = 5;
+
+    private static final String[] WORDS = {
+            "boil", "fry", "bake", "slice", "dice", "stir", "carrot", "pumpkin", "potato", "onion", "broccoli",
+            "chicken", "water", "oven", "pan", "bowl", "minutes", "degrees", "gently", "until", "golden", "soft"
+    };
+
+    @Param({"pumpkin until golden", "boil water", "bro"})
+    private String query;
+
+    private Connection connection;
+    private PreparedStatement likeStatement;
+    private TrigramIndex trigramIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:trigram-benchmark", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table instruction (id bigint primary key, recipe_id bigint, way_of_preperation varchar(255))");
+        }
+
+        trigramIndex = new TrigramIndex();
+        Random random = new Random(42);
+
+        try (PreparedStatement insert = connection.prepareStatement("insert into instruction values (?, ?, ?)")) {
+            for (int id = 1; id <= INSTRUCTIONS; id++) {
+                String text = generateText(random);
+
+                insert.setLong(1, id);
+                insert.setLong(2, id / INSTRUCTIONS_PER_RECIPE);
+                insert.setString(3, text);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+
+                trigramIndex.put(id, text);
+            }
+        }
+
+        likeStatement = connection.prepareStatement("select id from instruction where way_of_preperation like concat('%', ?, '%')");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> like() throws SQLException {
+        likeStatement.setString(1, query);
+
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = likeStatement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public Roaring64NavigableMap trigram() {
+        return trigramIndex.search(query, false);
+    }
+
+    @Benchmark
+    public Roaring64NavigableMap trigramIgnoreCase() {
+        return trigramIndex.search(query, true);
+    }
+
+    private static String generateText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int words = 6 + random.nextInt(6);
+
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TrigramIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
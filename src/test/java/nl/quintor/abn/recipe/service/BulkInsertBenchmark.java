@@ -0,0 +1,112 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.RecipeApplication;
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.model.Recipe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the bulk create paths: persisting recipes with cascaded instructions through JPA, and the bulk import.
+ * Every operation writes {@value #RECIPES} recipes with {@value #INSTRUCTIONS_PER_RECIPE} instructions each and is
+ * rolled back, so the tables keep the same size. Run it with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int RECIPES = 1_000;
+    private static final int INSTRUCTIONS_PER_RECIPE = 2;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private RecipeImportService recipeImportService;
+    private long personId;
+    private long ingredientId;
+    private List<ImportedRecipe> imports;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RecipeApplication.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:bulk-insert-benchmark", "server.port=0", "logging.level.root=WARN")
+                .run();
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = context.getBean(EntityManager.class);
+        recipeImportService = context.getBean(RecipeImportService.class);
+
+        Person person = new Person("Benchmark", "Password");
+        Ingredient pumpkin = new Ingredient("Benchmark pumpkin", true);
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.persist(person);
+            entityManager.persist(pumpkin);
+        });
+        personId = person.getId();
+        ingredientId = pumpkin.getId();
+
+        imports = new ArrayList<>(RECIPES);
+        for (int i = 0; i < RECIPES; i++) {
+            List<ImportedInstruction> instructions = new ArrayList<>(INSTRUCTIONS_PER_RECIPE);
+            for (int j = 0; j < INSTRUCTIONS_PER_RECIPE; j++) {
+                instructions.add(new ImportedInstruction("Cut the pumpkin in pieces " + j, pumpkin.getName()));
+            }
+            imports.add(new ImportedRecipe("Pumpkin soup " + i, 2, instructions));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int persist() {
+        return transactionTemplate.execute(status -> {
+            Person person = entityManager.getReference(Person.class, personId);
+            Ingredient pumpkin = entityManager.getReference(Ingredient.class, ingredientId);
+
+            for (ImportedRecipe imported : imports) {
+                Recipe recipe = new Recipe(imported.getName(), imported.getNumberOfServings(), person);
+                for (ImportedInstruction instruction : imported.getInstructionList()) {
+                    recipe.getInstructionList().add(new Instruction(instruction.getWayOfPreperation(), pumpkin, recipe));
+                }
+                entityManager.persist(recipe);
+            }
+            entityManager.flush();
+            status.setRollbackOnly();
+            return imports.size();
+        });
+    }
+
+    @Benchmark
+    public RecipeImportResult importRecipes() {
+        return transactionTemplate.execute(status -> {
+            RecipeImportResult result = recipeImportService.importRecipes(personId, imports);
+            status.setRollbackOnly();
+            return result;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,9 +1,13 @@
 package nl.quintor.abn.recipe.service;
 
+import nl.quintor.abn.recipe.cache.IngredientCatalogCache;
 import nl.quintor.abn.recipe.exception.IngredientAlreadyExistException;
 import nl.quintor.abn.recipe.exception.IngredientDoesNotExistException;
 import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.query.RecipeQueryPlanner;
 import nl.quintor.abn.recipe.repository.IngredientRepository;
+import nl.quintor.abn.recipe.search.IngredientNameResolver;
+import nl.quintor.abn.recipe.search.IngredientSuggester;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,7 +15,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -26,6 +33,18 @@ class IngredientServiceTest {
     @Mock
     IngredientRepository mockIngredientRepository;
 
+    @Mock
+    IngredientNameResolver mockIngredientNameResolver;
+
+    @Mock
+    RecipeQueryPlanner mockRecipeQueryPlanner;
+
+    @Mock
+    IngredientSuggester mockIngredientSuggester;
+
+    @Mock
+    IngredientCatalogCache mockIngredientCatalogCache;
+
     @InjectMocks
     IngredientService ingredientService;
 
@@ -38,7 +57,7 @@ class IngredientServiceTest {
     @DisplayName("Find ingredient by name")
     void GivenIngredientName_WhenFindingIngredient_ThenReturnIngredient() {
         //Given
-        when(mockIngredientRepository.findByName(anyString()))
+        when(mockIngredientCatalogCache.findByName(anyString()))
                 .thenReturn(Optional.of(ingredient));
 
         //When
@@ -48,26 +67,27 @@ class IngredientServiceTest {
         assertThat(result.getName()).isEqualTo(ingredient.getName());
         assertThat(result.isVegetarian()).isEqualTo(ingredient.isVegetarian());
 
-        verify(mockIngredientRepository, times(2)).findByName(anyString());
+        verify(mockIngredientCatalogCache, times(1)).findByName(anyString());
+        verifyNoInteractions(mockIngredientRepository);
     }
 
     @Test
     @DisplayName("Find non-existing ingredient by name")
     void GivenNonExistingIngredientName_WhenFindingIngredient_ThenThrowException() {
         //Given
-        when(mockIngredientRepository.findByName(anyString()))
+        when(mockIngredientCatalogCache.findByName(anyString()))
                 .thenReturn(Optional.empty());
 
         //When / Then
         assertThatThrownBy(() -> ingredientService.findByName("NotExisting")).isInstanceOf(IngredientDoesNotExistException.class);
-        verify(mockIngredientRepository, times(1)).findByName(anyString());
+        verify(mockIngredientCatalogCache, times(1)).findByName(anyString());
     }
 
     @Test
     @DisplayName("Successfully create new ingredient")
     void GivenAName_WhenCreatingIngredient_ThenReturnCreatedIngredient() {
         //Given
-        when(mockIngredientRepository.save(any()))
+        when(mockIngredientRepository.saveAndFlush(any()))
                 .thenReturn(ingredient);
 
         //When
@@ -76,20 +96,55 @@ class IngredientServiceTest {
         //Then
         assertThat(result.getName()).isEqualTo(ingredient.getName());
         assertThat(result.isVegetarian()).isEqualTo(ingredient.isVegetarian());
-        verify(mockIngredientRepository, times(1)).save(any());
+        verify(mockIngredientRepository, times(1)).saveAndFlush(any());
+        verify(mockIngredientNameResolver, times(1)).addName(ingredient.getName());
+        verify(mockRecipeQueryPlanner, times(1)).invalidateAll();
+        verify(mockIngredientSuggester, times(1)).addIngredient(ingredient);
+        verify(mockIngredientCatalogCache, times(1)).put(ingredient);
     }
 
     @Test
     @DisplayName("Throw exception on trying to create duplicate ingredient")
     void GivenADuplicateName_WhenCreatingIngredient_ThenThrowException() {
         //Given
-        when(mockIngredientRepository.findByName(anyString()))
-                .thenReturn(Optional.of(ingredient));
+        when(mockIngredientRepository.saveAndFlush(any()))
+                .thenThrow(violation("PUBLIC.IDX_INGREDIENT_NAME_INDEX_7"));
 
         //When / Then
         assertThatThrownBy(() -> ingredientService.createIngredient(ingredient.getName(), ingredient.isVegetarian())).isInstanceOf(IngredientAlreadyExistException.class);
-        verify(mockIngredientRepository, times(0)).save(any());
+        verify(mockIngredientCatalogCache, never()).put(any());
+        verify(mockRecipeQueryPlanner, never()).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Pass on other violations on trying to create an ingredient")
+    void GivenOtherViolation_WhenCreatingIngredient_ThenRethrowException() {
+        //Given
+        DataIntegrityViolationException primaryKeyViolation = violation("PUBLIC.PRIMARY_KEY_6");
+        when(mockIngredientRepository.saveAndFlush(any()))
+                .thenThrow(primaryKeyViolation);
+
+        //When / Then
+        assertThatThrownBy(() -> ingredientService.createIngredient(ingredient.getName(), ingredient.isVegetarian())).isSameAs(primaryKeyViolation);
+        verify(mockIngredientCatalogCache, never()).put(any());
     }
 
+    @Test
+    @DisplayName("Resolve misspelled ingredient name")
+    void GivenMisspelledName_WhenResolvingName_ThenReturnTheNearestIngredientName() {
+        //Given
+        when(mockIngredientNameResolver.resolve("Cucumbr"))
+                .thenReturn(Optional.of("Cucumber"));
+        when(mockIngredientNameResolver.resolve("Pumpkin"))
+                .thenReturn(Optional.empty());
 
-}
\ No newline at end of file
+        //When / Then
+        assertThat(ingredientService.resolveName("Cucumbr")).isEqualTo("Cucumber");
+        assertThat(ingredientService.resolveName("Pumpkin")).isEqualTo("Pumpkin");
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
+    }
+}
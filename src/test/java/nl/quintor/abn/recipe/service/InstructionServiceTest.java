@@ -87,29 +87,64 @@ class InstructionServiceTest {
         when(mockIngredientService.findByName(anyString()))
                 .thenReturn(ingredient);
 
-        when(mockRecipeService.findById(anyLong()))
-                .thenReturn(recipe);
-
         when(mockInstructionRepository.save(any()))
                 .thenReturn(instruction);
 
         //When
-        Instruction result = instructionService.create(instruction.getWayOfPreperation(), ingredient.getName(), recipe.getId());
+        Instruction result = instructionService.create(instruction.getWayOfPreperation(), ingredient.getName(), recipe);
 
         //Then
         assertThat(result.getWayOfPreperation()).isEqualTo(instruction.getWayOfPreperation());
         assertThat(result.getIngredient()).isEqualTo(ingredient);
         assertThat(result.getRecipe()).isEqualTo(recipe);
 
-        verify(mockRecipeService, times(1)).findById(anyLong());
         verify(mockIngredientService, times(1)).findByName(anyString());
         verify(mockInstructionRepository, times(1)).save(any());
+        verify(mockRecipeService, never()).addNonVegetarianIngredients(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Create non-vegetarian instruction")
+    void GivenNonVegetarianIngredient_WhenCreatingInstruction_ThenIncrementNonVegetarianIngredients() {
+        //Given
+        Ingredient chicken = new Ingredient("Chicken", false);
+
+        when(mockIngredientService.findByName(anyString()))
+                .thenReturn(chicken);
+
+        when(mockInstructionRepository.save(any()))
+                .thenReturn(new Instruction(instruction.getWayOfPreperation(), chicken, recipe));
+
+        //When
+        instructionService.create(instruction.getWayOfPreperation(), chicken.getName(), recipe);
+
+        //Then
+        verify(mockRecipeService, times(1)).addNonVegetarianIngredients(recipe.getId(), 1);
+    }
+
+    @Test
+    @DisplayName("Delete non-vegetarian instruction")
+    void GivenNonVegetarianInstruction_WhenDeletingInstruction_ThenDecrementNonVegetarianIngredients() {
+        //Given
+        instruction.setIngredient(new Ingredient("Chicken", false));
+
+        when(mockInstructionRepository.findById(anyLong()))
+                .thenReturn(Optional.of(instruction));
+
+        //When
+        instructionService.delete(1L, recipe);
+
+        //Then
+        verify(mockInstructionRepository, times(1)).delete(instruction);
+        verify(mockRecipeService, times(1)).addNonVegetarianIngredients(recipe.getId(), -1);
     }
 
     @Test
     @DisplayName("Delete instruction")
     void GivenInstructionIdAndRecipe_WhenDeletingInstruction_ThenSucceed() {
         //Given
+        recipe.getInstructionList().add(instruction);
+
         when(mockInstructionRepository.findById(anyLong()))
                 .thenReturn(Optional.of(instruction));
 
@@ -117,6 +152,7 @@ class InstructionServiceTest {
         instructionService.delete(1L, recipe);
 
         //Then
+        assertThat(recipe.getInstructionList().isEmpty()).isTrue();
         verify(mockInstructionRepository, times(1)).findById(anyLong());
     }
 
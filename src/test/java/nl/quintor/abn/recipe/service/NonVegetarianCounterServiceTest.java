@@ -0,0 +1,53 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NonVegetarianCounterServiceTest {
+
+    @Mock
+    RecipeRepository mockRecipeRepository;
+
+    @InjectMocks
+    NonVegetarianCounterService nonVegetarianCounterService;
+
+    @Test
+    @DisplayName("Backfill the non-vegetarian ingredients")
+    void GivenRecipes_WhenBackfilling_ThenReturnUpdatedRows() {
+        //Given
+        when(mockRecipeRepository.backfillNonVegetarianIngredients())
+                .thenReturn(3);
+
+        //When
+        int result = nonVegetarianCounterService.backfill();
+
+        //Then
+        assertThat(result).isEqualTo(3);
+        verify(mockRecipeRepository, times(1)).backfillNonVegetarianIngredients();
+    }
+
+    @Test
+    @DisplayName("Find recipes with an inconsistent counter")
+    void GivenInconsistentRecipes_WhenChecking_ThenReturnRecipeIds() {
+        //Given
+        when(mockRecipeRepository.findIdsWithInconsistentNonVegetarianIngredients())
+                .thenReturn(List.of(2L, 5L));
+
+        //When
+        List<Long> result = nonVegetarianCounterService.findInconsistentRecipes();
+
+        //Then
+        assertThat(result).containsExactly(2L, 5L);
+    }
+}
@@ -11,7 +11,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -66,7 +69,7 @@ class PersonServiceTest {
     @DisplayName("Successfully create new person")
     void GivenAnUsernameAndPassword_WhenCreatingPerson_ThenReturnCreatedUser() {
         //Given
-        when(mockPersonRepository.save(any()))
+        when(mockPersonRepository.saveAndFlush(any()))
                 .thenReturn(person);
 
         //When
@@ -75,18 +78,35 @@ class PersonServiceTest {
         //Then
         assertThat(result.getUsername()).isEqualTo(person.getUsername());
         assertThat(result.getPassword()).isEqualTo(person.getPassword());
-        verify(mockPersonRepository, times(1)).save(any());
+        verify(mockPersonRepository, times(1)).saveAndFlush(any());
     }
 
     @Test
     @DisplayName("Throw exception on trying to create duplicate person")
     void GivenADuplicateUsername_WhenCreatingPerson_ThenThrowException() {
         //Given
-        when(mockPersonRepository.findByUsername(anyString()))
-                .thenReturn(Optional.of(person));
+        when(mockPersonRepository.saveAndFlush(any()))
+                .thenThrow(violation("PUBLIC.IDX_PERSON_USERNAME_INDEX_8"));
 
         //When / Then
         assertThatThrownBy(() -> personService.createPerson(person.getUsername(), person.getPassword())).isInstanceOf(PersonAlreadyExistEception.class);
-        verify(mockPersonRepository, times(0)).save(any());
+        verify(mockPersonRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Pass on other violations on trying to create a person")
+    void GivenOtherViolation_WhenCreatingPerson_ThenRethrowException() {
+        //Given
+        DataIntegrityViolationException notNullViolation = violation(null);
+        when(mockPersonRepository.saveAndFlush(any()))
+                .thenThrow(notNullViolation);
+
+        //When / Then
+        assertThatThrownBy(() -> personService.createPerson(person.getUsername(), person.getPassword())).isSameAs(notNullViolation);
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), constraintName));
     }
-}
\ No newline at end of file
+}
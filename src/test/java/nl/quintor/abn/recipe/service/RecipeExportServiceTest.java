@@ -0,0 +1,179 @@
+package nl.quintor.abn.recipe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.quintor.abn.recipe.exception.PersonNotFoundException;
+import nl.quintor.abn.recipe.exception.UnauthorizedException;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.repository.RecipeExportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static nl.quintor.abn.recipe.repository.RecipeExportRepository.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeExportServiceTest {
+
+    @Mock
+    PersonService mockPersonService;
+
+    @Mock
+    RecipeExportRepository mockRecipeExportRepository;
+
+    @Mock
+    ResultSet mockRow;
+
+    @Mock
+    Supplier<OutputStream> mockTarget;
+
+    RecipeExportService recipeExportService;
+
+    ByteArrayOutputStream outputStream;
+
+    @BeforeEach
+    void init() {
+        recipeExportService = new RecipeExportService(mockPersonService, mockRecipeExportRepository, new ObjectMapper());
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    @Test
+    @DisplayName("Export the rows of a recipe as one JSON recipe")
+    void GivenRowsOfRecipes_WhenExportingAsJson_ThenGroupInstructionsByRecipe() throws SQLException {
+        //Given
+        givenRows();
+
+        //When
+        long recipes = recipeExportService.export(2L, 2L, RecipeExportFormat.JSON, () -> outputStream);
+
+        //Then
+        assertThat(recipes).isEqualTo(2);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("["
+                + "{\"id\":3,\"name\":\"Potato with tomato\",\"numberOfServings\":3,\"instructionList\":["
+                + "{\"id\":5,\"wayOfPreperation\":\"Boil\",\"ingredient\":{\"id\":2,\"name\":\"Potato\",\"vegetarian\":true}},"
+                + "{\"id\":6,\"wayOfPreperation\":\"Slice, then fry\",\"ingredient\":{\"id\":3,\"name\":\"Tomato\",\"vegetarian\":true}}]},"
+                + "{\"id\":4,\"name\":\"Lasagne\",\"numberOfServings\":4,\"instructionList\":[]}]");
+    }
+
+    @Test
+    @DisplayName("Export a line per row as CSV")
+    void GivenRowsOfRecipes_WhenExportingAsCsv_ThenWriteLinePerRow() throws SQLException {
+        //Given
+        givenRows();
+
+        //When
+        long recipes = recipeExportService.export(2L, 2L, RecipeExportFormat.CSV, () -> outputStream);
+
+        //Then
+        assertThat(recipes).isEqualTo(2);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "recipe_id,recipe_name,number_of_servings,instruction_id,way_of_preperation,ingredient_id,ingredient_name,ingredient_vegetarian\n"
+                        + "3,Potato with tomato,3,5,Boil,2,Potato,true\n"
+                        + "3,Potato with tomato,3,6,\"Slice, then fry\",3,Tomato,true\n"
+                        + "4,Lasagne,4,,,,,\n");
+    }
+
+    @Test
+    @DisplayName("Export the recipes of another person")
+    void GivenOtherPerson_WhenExporting_ThenThrowExceptionBeforeOpeningTarget() {
+        //Given
+        when(mockPersonService.getById(2L))
+                .thenReturn(new Person("Owner", "Password"));
+
+        //When / Then
+        assertThatThrownBy(() -> recipeExportService.export(1L, 2L, RecipeExportFormat.JSON, mockTarget))
+                .isInstanceOf(UnauthorizedException.class);
+        verifyNoInteractions(mockTarget, mockRecipeExportRepository);
+    }
+
+    @Test
+    @DisplayName("Export the recipes of a non-existing person")
+    void GivenNonExistingPerson_WhenExporting_ThenThrowException() {
+        //Given
+        when(mockPersonService.getById(5L))
+                .thenThrow(new PersonNotFoundException(5L));
+
+        //When / Then
+        assertThatThrownBy(() -> recipeExportService.export(5L, 5L, RecipeExportFormat.CSV, mockTarget))
+                .isInstanceOf(PersonNotFoundException.class);
+        verifyNoInteractions(mockTarget, mockRecipeExportRepository);
+    }
+
+    /**
+     * Private method that lets the repository pass three rows: two instructions of recipe 3 and recipe 4 without
+     * instructions
+     */
+    private void givenRows() throws SQLException {
+        List<Map<String, Object>> rows = List.of(
+                row(3L, "Potato with tomato", 3, 5L, "Boil", 2L, "Potato", true),
+                row(3L, "Potato with tomato", 3, 6L, "Slice, then fry", 3L, "Tomato", true),
+                row(4L, "Lasagne", 4, null, null, null, null, null));
+        AtomicInteger current = new AtomicInteger();
+        AtomicReference<Object> lastValue = new AtomicReference<>();
+
+        lenient().when(mockRow.getLong(anyString())).thenAnswer(invocation -> {
+            Object value = read(rows, current, lastValue, invocation.getArgument(0));
+            return value == null ? 0L : value;
+        });
+        lenient().when(mockRow.getInt(anyString())).thenAnswer(invocation -> read(rows, current, lastValue, invocation.getArgument(0)));
+        lenient().when(mockRow.getBoolean(anyString())).thenAnswer(invocation -> {
+            Object value = read(rows, current, lastValue, invocation.getArgument(0));
+            return value != null && (Boolean) value;
+        });
+        lenient().when(mockRow.getString(anyString())).thenAnswer(invocation -> {
+            Object value = read(rows, current, lastValue, invocation.getArgument(0));
+            return value == null ? null : value.toString();
+        });
+        lenient().when(mockRow.wasNull()).thenAnswer(invocation -> lastValue.get() == null);
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < rows.size(); i++) {
+                current.set(i);
+                handler.processRow(mockRow);
+            }
+            return null;
+        }).when(mockRecipeExportRepository).forEachRow(eq(2L), any());
+    }
+
+    private static Object read(List<Map<String, Object>> rows, AtomicInteger current, AtomicReference<Object> lastValue, String column) {
+        Object value = rows.get(current.get()).get(column);
+        lastValue.set(value);
+        return value;
+    }
+
+    private static Map<String, Object> row(long recipeId, String recipeName, int servings, Long instructionId, String wayOfPreperation,
+                                           Long ingredientId, String ingredientName, Boolean vegetarian) {
+        Map<String, Object> row = new HashMap<>();
+        row.put(RECIPE_ID, recipeId);
+        row.put(RECIPE_NAME, recipeName);
+        row.put(NUMBER_OF_SERVINGS, servings);
+        row.put(INSTRUCTION_ID, instructionId);
+        row.put(WAY_OF_PREPERATION, wayOfPreperation);
+        row.put(INGREDIENT_ID, ingredientId);
+        row.put(INGREDIENT_NAME, ingredientName);
+        row.put(INGREDIENT_VEGETARIAN, vegetarian);
+        return row;
+    }
+}
@@ -0,0 +1,144 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.cache.RecipeSearchCache;
+import nl.quintor.abn.recipe.exception.PersonNotFoundException;
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.IngredientRepository;
+import nl.quintor.abn.recipe.repository.RecipeBatchRepository;
+import nl.quintor.abn.recipe.search.RecipeSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.validation.Validation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeImportServiceTest {
+
+    @Mock
+    PersonService mockPersonService;
+
+    @Mock
+    IngredientRepository mockIngredientRepository;
+
+    @Mock
+    RecipeBatchRepository mockRecipeBatchRepository;
+
+    @Mock
+    RecipeSearchIndex mockRecipeSearchIndex;
+
+    @Mock
+    RecipeSearchCache mockRecipeSearchCache;
+
+    RecipeImportService recipeImportService;
+
+    Person person;
+    Ingredient potato;
+    Ingredient chicken;
+
+    @BeforeEach
+    void init() {
+        recipeImportService = new RecipeImportService(mockPersonService, mockIngredientRepository, mockRecipeBatchRepository,
+                mockRecipeSearchIndex, mockRecipeSearchCache, Validation.buildDefaultValidatorFactory().getValidator());
+
+        person = new Person("Importer", "Password");
+        person.setId(1L);
+        potato = new Ingredient("Potato", true);
+        potato.setId(2L);
+        chicken = new Ingredient("Chicken", false);
+        chicken.setId(5L);
+    }
+
+    @Test
+    @DisplayName("Import the valid recipes and report the others by position")
+    @SuppressWarnings("unchecked")
+    void GivenValidAndInvalidRecipes_WhenImporting_ThenImportValidRecipesAndReportErrors() {
+        //Given
+        when(mockPersonService.getById(1L))
+                .thenReturn(person);
+        when(mockIngredientRepository.findByLowerCaseNameIn(Set.of("potato", "chicken", "unicorn")))
+                .thenReturn(List.of(potato, chicken));
+
+        List<ImportedRecipe> imports = new ArrayList<>();
+        imports.add(new ImportedRecipe("Chicken with potato", 2, List.of(
+                new ImportedInstruction("Boil the potatoes", "POTATO"),
+                new ImportedInstruction("Roast the chicken", "chicken"))));
+        imports.add(new ImportedRecipe("X", 0, List.of()));
+        imports.add(new ImportedRecipe("Unicorn stew", 4, List.of(
+                new ImportedInstruction("Catch the unicorn", "Unicorn"))));
+        imports.add(null);
+        imports.add(new ImportedRecipe("Plain potato", 1, null));
+
+        //When
+        RecipeImportResult result = recipeImportService.importRecipes(1L, imports);
+
+        //Then
+        assertThat(result.getImportedRecipes()).isEqualTo(2);
+        assertThat(result.getImportedInstructions()).isEqualTo(2);
+        assertThat(result.getErrors()).containsExactly(
+                new RecipeImportError(1, "name: Name should be at least 2 characters, numberOfServings: There should be at least 1 serving"),
+                new RecipeImportError(2, "Ingredient with name Unicorn does not exist"),
+                new RecipeImportError(3, "The recipe should not be empty"));
+
+        ArgumentCaptor<List<Recipe>> recipes = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Instruction>> instructions = ArgumentCaptor.forClass(List.class);
+        verify(mockRecipeBatchRepository, times(1)).insertRecipes(recipes.capture());
+        verify(mockRecipeBatchRepository, times(1)).insertInstructions(instructions.capture());
+
+        assertThat(recipes.getValue()).extracting(Recipe::getName).containsExactly("Chicken with potato", "Plain potato");
+        assertThat(recipes.getValue()).extracting(Recipe::getNonVegetarianIngredients).containsExactly(1, 0);
+        assertThat(instructions.getValue()).extracting(Instruction::getIngredient).containsExactly(potato, chicken);
+
+        verify(mockRecipeSearchIndex, times(1)).invalidatePerson(1L);
+        verify(mockRecipeSearchCache, times(1)).invalidatePerson(1L);
+    }
+
+    @Test
+    @DisplayName("Invalid recipes are not looked up nor written")
+    void GivenOnlyInvalidRecipes_WhenImporting_ThenSkipIngredientQueryAndKeepCaches() {
+        //Given
+        when(mockPersonService.getById(1L))
+                .thenReturn(person);
+
+        //When
+        RecipeImportResult result = recipeImportService.importRecipes(1L, List.of(
+                new ImportedRecipe("Too short", 1, List.of(new ImportedInstruction("Boil", "Potato")))));
+
+        //Then
+        assertThat(result.getImportedRecipes()).isZero();
+        assertThat(result.getErrors()).containsExactly(
+                new RecipeImportError(0, "instructionList[0].wayOfPreperation: The way of preperation should be at least 8 characters"));
+
+        verifyNoInteractions(mockIngredientRepository, mockRecipeSearchIndex, mockRecipeSearchCache);
+    }
+
+    @Test
+    @DisplayName("Import for a person that does not exist")
+    void GivenNonExistingPerson_WhenImporting_ThenThrowException() {
+        //Given
+        when(mockPersonService.getById(anyLong()))
+                .thenThrow(new PersonNotFoundException(3L));
+
+        //When / Then
+        assertThatThrownBy(() -> recipeImportService.importRecipes(3L, List.of(new ImportedRecipe("Potato", 1, List.of()))))
+                .isInstanceOf(PersonNotFoundException.class);
+
+        verify(mockRecipeBatchRepository, never()).insertRecipes(any());
+    }
+}
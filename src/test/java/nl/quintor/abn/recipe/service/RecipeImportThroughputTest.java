@@ -0,0 +1,77 @@
+package nl.quintor.abn.recipe.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports 100,000 recipes with two instructions each in one transaction and reports the throughput. The test is
+ * rolled back, so the recipes are never visible to the other tests that share the context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Transactional
+class RecipeImportThroughputTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RecipeImportThroughputTest.class);
+    private static final int RECIPES = 100_000;
+    private static final long PERSON_ID = 2L;
+    private static final int INVALID_INDEX = 500;
+    private static final int UNKNOWN_INGREDIENT_INDEX = RECIPES - 1;
+
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Import 100,000 recipes in one transaction")
+    void GivenManyRecipes_WhenImporting_ThenImportAllValidRecipes() {
+        //Given
+        long recipesBefore = countRecipes("");
+        long vegetarianBefore = countRecipes(" and non_vegetarian_ingredients = 0");
+
+        List<ImportedRecipe> imports = new ArrayList<>(RECIPES);
+        for (int index = 0; index < RECIPES; index++) {
+            // Every other recipe is vegetarian
+            String secondIngredient = index % 2 == 0 ? "Tomato" : "Chicken";
+            imports.add(new ImportedRecipe("Imported recipe " + index, 1 + index % 8, List.of(
+                    new ImportedInstruction("Peel and boil", "Potato"),
+                    new ImportedInstruction("Slice and fry", secondIngredient))));
+        }
+        imports.set(INVALID_INDEX, new ImportedRecipe("", 1, List.of()));
+        imports.set(UNKNOWN_INGREDIENT_INDEX, new ImportedRecipe("Unicorn stew", 1, List.of(
+                new ImportedInstruction("Catch the unicorn", "Unicorn"))));
+
+        //When
+        RecipeImportResult result = recipeImportService.importRecipes(PERSON_ID, imports);
+
+        //Then
+        LOG.info("Imported " + result.getImportedRecipes() + " recipes in " + result.getDurationMillis() + " ms, "
+                + Math.round(result.getRecipesPerSecond()) + " recipes per second");
+
+        assertThat(result.getImportedRecipes()).isEqualTo(RECIPES - 2);
+        assertThat(result.getImportedInstructions()).isEqualTo(2 * (RECIPES - 2));
+        assertThat(result.getErrors()).extracting(RecipeImportError::getIndex)
+                .containsExactly((long) INVALID_INDEX, (long) UNKNOWN_INGREDIENT_INDEX);
+        assertThat(result.getRecipesPerSecond()).isPositive();
+
+        // The even recipes are vegetarian, the invalid recipe at an even index is skipped
+        assertThat(countRecipes("")).isEqualTo(recipesBefore + RECIPES - 2);
+        assertThat(countRecipes(" and non_vegetarian_ingredients = 0")).isEqualTo(vegetarianBefore + RECIPES / 2 - 1);
+    }
+
+    private long countRecipes(String condition) {
+        return jdbcTemplate.queryForObject("select count(*) from recipe where created_by_id = ?" + condition, Long.class, PERSON_ID);
+    }
+}
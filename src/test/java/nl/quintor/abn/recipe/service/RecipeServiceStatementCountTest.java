@@ -0,0 +1,301 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeMapper;
+import nl.quintor.abn.recipe.exception.RecipeNotFoundException;
+import nl.quintor.abn.recipe.exception.UnauthorizedException;
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Counts the SQL statements of a search including the mapping to DTOs, which has to be the same for any amount of
+ * recipes, of persisting many recipes and of the changes to a recipe. Uses the same context as the ITs, the test data
+ * is rolled back after each test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Transactional
+class RecipeServiceStatementCountTest {
+
+    /**
+     * Person lookup, the search query and the fetch of the instructions with their ingredients or their rows
+     */
+    private static final long SEARCH_STATEMENTS = 3;
+    private static final int BATCHED_RECIPES = 1000;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1000})
+    @DisplayName("Search and map recipes with a constant amount of statements")
+    void GivenRecipesWithInstructions_WhenSearchingAndMapping_ThenStatementCountIsConstant(int amountOfRecipes) {
+        //Given
+        long personId = persistRecipes(amountOfRecipes);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        //When
+        List<RecipeDto> result = RecipeMapper.INSTANCE.toListRecipeDto(recipeService.search(personId, Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()));
+
+        //Then
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(result).hasSize(amountOfRecipes);
+        assertThat(result).allSatisfy(recipe -> assertThat(recipe.getInstructionList()).hasSize(2));
+        assertThat(statements).isEqualTo(SEARCH_STATEMENTS);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1000})
+    @DisplayName("Search recipe rows without loading recipe entities")
+    void GivenRecipesWithInstructions_WhenSearchingViews_ThenOnlyThePersonIsLoaded(int amountOfRecipes) {
+        //Given
+        long personId = persistRecipes(amountOfRecipes);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        //When
+        List<RecipeDto> result = RecipeMapper.INSTANCE.fromIngredientViews(recipeService.searchViews(personId, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty()));
+
+        //Then
+        long statements = statistics.getPrepareStatementCount();
+        long loadedEntities = statistics.getEntityLoadCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertThat(result).hasSize(amountOfRecipes);
+        assertThat(result).allSatisfy(recipe -> assertThat(recipe.getInstructionList()).hasSize(2));
+        assertThat(statements).isEqualTo(SEARCH_STATEMENTS);
+        assertThat(loadedEntities).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Persist recipes with batched inserts")
+    void GivenManyRecipes_WhenPersisting_ThenInsertInBatches() {
+        //Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        //When
+        persistRecipes(BATCHED_RECIPES);
+
+        //Then
+        long statements = statistics.getPrepareStatementCount();
+        long inserts = statistics.getEntityInsertCount();
+        statistics.setStatisticsEnabled(false);
+
+        // The person, two ingredients and every recipe with two instructions
+        assertThat(inserts).isEqualTo(3 + 3 * BATCHED_RECIPES);
+        // An identity column needs a statement per insert, the sequences let the inserts share batches
+        assertThat(statements).isLessThan(inserts / 10);
+    }
+
+    @Test
+    @DisplayName("Modify a recipe with one select")
+    void GivenOwnedRecipe_WhenModifying_ThenSelectOnceAndUpdate() {
+        //Given
+        Recipe recipe = persistRecipes(1, "Modify");
+        HashMap<Object, Object> changes = new HashMap<>();
+        changes.put("numberOfServings", 5);
+        Statistics statistics = startCounting();
+
+        //When
+        Recipe result = recipeService.modifyRecipe(recipe.getId(), recipe.getCreatedBy().getId(), changes);
+        entityManager.flush();
+
+        //Then
+        // The recipe with its creator, instructions and ingredients, and the update
+        assertThat(stopCounting(statistics)).isEqualTo(2);
+        assertThat(result.getNumberOfServings()).isEqualTo(5);
+        assertThat(result.getInstructionList()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Modify a recipe without overwriting a concurrent change of the non-vegetarian counter")
+    void GivenConcurrentCounterChange_WhenModifying_ThenKeepCounter() {
+        //Given
+        Recipe recipe = persistRecipes(1, "ModifyCounter");
+        // The loaded recipe still has 1 non-vegetarian ingredient when the counter is raised in the database
+        Recipe loaded = entityManager.find(Recipe.class, recipe.getId());
+        recipeRepository.addNonVegetarianIngredients(recipe.getId(), 1);
+        HashMap<Object, Object> changes = new HashMap<>();
+        changes.put("name", "Pumpkin soup with bacon");
+
+        //When
+        recipeService.modifyRecipe(recipe.getId(), recipe.getCreatedBy().getId(), changes);
+        entityManager.flush();
+        entityManager.clear();
+
+        //Then
+        Recipe result = entityManager.find(Recipe.class, recipe.getId());
+        assertThat(loaded.getNonVegetarianIngredients()).isEqualTo(1);
+        assertThat(result.getName()).isEqualTo("Pumpkin soup with bacon");
+        assertThat(result.getNonVegetarianIngredients()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Delete a recipe with one select")
+    void GivenOwnedRecipe_WhenDeleting_ThenSelectOnceAndDelete() {
+        //Given
+        Recipe recipe = persistRecipes(1, "Delete");
+        Statistics statistics = startCounting();
+
+        //When
+        recipeService.delete(recipe.getCreatedBy().getId(), recipe.getId());
+        entityManager.flush();
+
+        //Then
+        // The recipe, the batched delete of its instructions and the delete of the recipe
+        assertThat(stopCounting(statistics)).isEqualTo(3);
+        assertThat(entityManager.find(Recipe.class, recipe.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("Create an instruction with one select of the recipe")
+    void GivenOwnedRecipe_WhenCreatingInstruction_ThenSelectRecipeOnce() {
+        //Given
+        Recipe recipe = persistRecipes(1, "CreateInstruction");
+        // The ingredient catalog is a read-through cache, load the ingredient before counting
+        ingredientService.findByName("Potato");
+        Statistics statistics = startCounting();
+
+        //When
+        recipeService.createInstruction("Peel the potato", "Potato", recipe.getId(), recipe.getCreatedBy().getId());
+        entityManager.flush();
+
+        //Then
+        long recipeLoads = statistics.getEntityStatistics(Recipe.class.getName()).getLoadCount();
+        // The recipe and the insert, and a call for a new block of instruction IDs when the current block is used up
+        assertThat(stopCounting(statistics)).isBetween(2L, 3L);
+        assertThat(recipeLoads).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Delete an instruction with one select")
+    void GivenOwnedRecipe_WhenDeletingInstruction_ThenReuseLoadedRecipe() {
+        //Given
+        Recipe recipe = persistRecipes(1, "DeleteInstruction");
+        // The second instruction has the non-vegetarian bacon
+        long instructionId = recipe.getInstructionList().get(1).getId();
+        Statistics statistics = startCounting();
+
+        //When
+        recipeService.deleteInstruction(recipe.getId(), instructionId, recipe.getCreatedBy().getId());
+        entityManager.flush();
+
+        //Then
+        // The recipe with its instructions, the update of the non-vegetarian counter and the delete
+        assertThat(stopCounting(statistics)).isEqualTo(3);
+        assertThat(entityManager.find(Recipe.class, recipe.getId()).getInstructionList()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Reject a change to a recipe of another person after one select")
+    void GivenRecipeOfOtherPerson_WhenModifying_ThenThrowUnauthorizedAfterOneSelect() {
+        //Given
+        Recipe recipe = persistRecipes(1, "Unauthorized");
+        Statistics statistics = startCounting();
+
+        //When / Then
+        assertThatThrownBy(() -> recipeService.delete(recipe.getCreatedBy().getId() + 1000, recipe.getId()))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThat(stopCounting(statistics)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Reject a change to a non-existing recipe after one select")
+    void GivenNonExistingRecipe_WhenModifying_ThenThrowNotFoundAfterOneSelect() {
+        //Given
+        Statistics statistics = startCounting();
+
+        //When / Then
+        assertThatThrownBy(() -> recipeService.deleteInstruction(Long.MAX_VALUE, 1L, 1L))
+                .isInstanceOf(RecipeNotFoundException.class);
+        assertThat(stopCounting(statistics)).isEqualTo(1);
+    }
+
+    private Statistics startCounting() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+
+    private static long stopCounting(Statistics statistics) {
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+        return statements;
+    }
+
+    private long persistRecipes(int amountOfRecipes) {
+        return persistRecipes(amountOfRecipes, "StatementCount").getCreatedBy().getId();
+    }
+
+    /**
+     * Private method that persists a person with recipes that each have a vegetarian and a non-vegetarian
+     * instruction, and returns the last recipe
+     */
+    private Recipe persistRecipes(int amountOfRecipes, String username) {
+        Person person = new Person(username + amountOfRecipes, "Password");
+        entityManager.persist(person);
+
+        Ingredient pumpkin = new Ingredient("Statement pumpkin", true);
+        Ingredient bacon = new Ingredient("Statement bacon", false);
+        entityManager.persist(pumpkin);
+        entityManager.persist(bacon);
+
+        Recipe recipe = null;
+        for (int i = 0; i < amountOfRecipes; i++) {
+            recipe = new Recipe("Pumpkin soup " + i, 2, person);
+            recipe.getInstructionList().add(new Instruction("Cut the pumpkin", pumpkin, recipe));
+            recipe.getInstructionList().add(new Instruction("Bake the bacon", bacon, recipe));
+            recipe.setNonVegetarianIngredients(1);
+            entityManager.persist(recipe);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return recipe;
+    }
+}
@@ -1,11 +1,21 @@
 package nl.quintor.abn.recipe.service;
 
+import nl.quintor.abn.recipe.cache.RecipeSearchCache;
 import nl.quintor.abn.recipe.exception.RecipeNotFoundException;
+import nl.quintor.abn.recipe.exception.UnauthorizedException;
 import nl.quintor.abn.recipe.model.Ingredient;
 import nl.quintor.abn.recipe.model.Instruction;
 import nl.quintor.abn.recipe.model.Person;
 import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.query.QueryNode;
+import nl.quintor.abn.recipe.query.QueryPlan;
+import nl.quintor.abn.recipe.query.RecipeQueryPlanner;
+import nl.quintor.abn.recipe.repository.RecipeFacetRow;
+import nl.quintor.abn.recipe.repository.RecipeIngredientView;
 import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.search.PartitionedRecipeSearch;
+import nl.quintor.abn.recipe.search.RecipeFacets;
+import nl.quintor.abn.recipe.search.RecipeSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,11 +23,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 
+import javax.persistence.EntityManager;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
@@ -40,6 +55,21 @@ class RecipeServiceTest {
     @Mock
     InstructionService mockInstructionService;
 
+    @Mock
+    RecipeSearchIndex mockRecipeSearchIndex;
+
+    @Mock
+    RecipeSearchCache mockRecipeSearchCache;
+
+    @Mock
+    PartitionedRecipeSearch mockPartitionedRecipeSearch;
+
+    @Mock
+    RecipeQueryPlanner mockRecipeQueryPlanner;
+
+    @Mock
+    EntityManager mockEntityManager;
+
     @InjectMocks
     RecipeService recipeService;
 
@@ -89,21 +119,245 @@ class RecipeServiceTest {
         List<Recipe> recipes = new ArrayList<>();
         recipes.add(new Recipe("Tomato salsa", 3, person));
         recipes.add(new Recipe("Potatoes with vegetables", 2, person));
+        recipes.get(0).setId(1L);
+        recipes.get(1).setId(2L);
 
         when(mockPersonService.getById(anyLong()))
                 .thenReturn(person);
 
-        lenient().when(mockRecipeRepository.searchAll(anyLong(), any(), any(), any(), any(), any()))
+        lenient().when(mockRecipeRepository.searchIds(any(), any(), any()))
+                .thenReturn(List.of(1L, 2L));
+
+        when(mockRecipeRepository.findWithInstructionsByIdIn(List.of(1L, 2L)))
                 .thenReturn(recipes);
 
         //When
-        List<Recipe> result = recipeService.search(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        List<Recipe> result = recipeService.search(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
 
         //Then
         assertThat(result.size()).isEqualTo(2);
         assertThat(result).isEqualTo(recipes);
     }
 
+    @Test
+    @DisplayName("Find a page of recipes of person with the search index")
+    void GivenCursorAndLimit_WhenSearchingWithIndex_ThenLoadOnlyThePage() {
+        //Given
+        Recipe potatoes = new Recipe("Potatoes with vegetables", 2, person);
+        potatoes.setId(3L);
+
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        when(mockRecipeSearchIndex.isEnabled())
+                .thenReturn(true);
+
+        when(mockRecipeSearchIndex.search(anyLong(), any(), any(), any(), anyBoolean(), any(), any(), anyBoolean()))
+                .thenReturn(List.of(1L, 3L, 4L));
+
+        when(mockRecipeRepository.findWithInstructionsByIdIn(List.of(3L)))
+                .thenReturn(List.of(potatoes));
+
+        //When
+        List<Recipe> result = recipeService.search(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(1L), Optional.of(1));
+
+        //Then
+        assertThat(result).isEqualTo(List.of(potatoes));
+        verify(mockRecipeRepository, never()).searchIds(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Find the rows of the recipes of person")
+    void GivenPersonId_WhenSearchingViews_ThenReturnRowsOfThePage() {
+        //Given
+        RecipeIngredientView view = mock(RecipeIngredientView.class);
+
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        when(mockRecipeRepository.searchIds(any(), any(), any()))
+                .thenReturn(List.of(1L, 2L));
+
+        when(mockRecipeRepository.findIngredientViewsByRecipeIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(view));
+
+        when(mockRecipeSearchCache.get(anyLong(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<RecipeIngredientView>>>getArgument(2).get());
+
+        //When
+        List<RecipeIngredientView> result = recipeService.searchViews(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.of(2));
+
+        //Then
+        assertThat(result).isEqualTo(List.of(view));
+        verify(mockRecipeRepository, never()).findWithInstructionsByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Find no rows when no recipe matches")
+    void GivenNoMatchingRecipes_WhenSearchingViews_ThenSkipTheRowQuery() {
+        //Given
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        when(mockRecipeRepository.searchIds(any(), any(), any()))
+                .thenReturn(List.of());
+
+        when(mockRecipeSearchCache.get(anyLong(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<RecipeIngredientView>>>getArgument(2).get());
+
+        //When
+        List<RecipeIngredientView> result = recipeService.searchViews(1L, Optional.of(true), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty());
+
+        //Then
+        assertThat(result.size()).isZero();
+        verify(mockRecipeRepository, never()).findIngredientViewsByRecipeIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Skip the search when the query can not match")
+    void GivenQueryMatchingNothing_WhenSearchingViews_ThenSkipAllQueries() {
+        //Given
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        when(mockRecipeQueryPlanner.plan("chicken and not chicken"))
+                .thenReturn(new QueryPlan("chicken and not chicken", QueryNode.Constant.FALSE, Map.of()));
+
+        when(mockRecipeSearchCache.get(anyLong(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<RecipeIngredientView>>>getArgument(2).get());
+
+        //When
+        List<RecipeIngredientView> result = recipeService.searchViews(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("chicken and not chicken"), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty());
+
+        //Then
+        assertThat(result.size()).isZero();
+        verify(mockRecipeRepository, never()).searchIds(any(), any(), any());
+        verify(mockRecipeRepository, never()).findIngredientViewsByRecipeIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Search with a query on the database when the index is enabled")
+    void GivenQueryAndEnabledIndex_WhenSearchingViews_ThenSearchTheDatabase() {
+        //Given
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        when(mockRecipeQueryPlanner.plan("vegetarian"))
+                .thenReturn(new QueryPlan("vegetarian", new QueryNode.Vegetarian(), Map.of()));
+
+        when(mockRecipeSearchIndex.isEnabled())
+                .thenReturn(true);
+
+        when(mockRecipeRepository.searchIds(any(), any(), any()))
+                .thenReturn(List.of());
+
+        when(mockRecipeSearchCache.get(anyLong(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<RecipeIngredientView>>>getArgument(2).get());
+
+        //When
+        recipeService.searchViews(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("vegetarian"), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.empty());
+
+        //Then
+        verify(mockRecipeRepository, times(1)).searchIds(any(), any(), any());
+        verify(mockRecipeSearchIndex, never()).search(anyLong(), any(), any(), any(), anyBoolean(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Stream all recipes of person")
+    void GivenPersonId_WhenStreamingRecipes_ThenPassEveryRecipeToConsumer() {
+        //Given
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            recipes.add(new Recipe("Recipe " + i, 2, person));
+        }
+
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        when(mockRecipeRepository.streamAll(any()))
+                .thenReturn(recipes.stream());
+
+        List<Recipe> result = new ArrayList<>();
+
+        //When
+        recipeService.streamSearch(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), result::add);
+
+        //Then
+        assertThat(result).isEqualTo(recipes);
+        verify(mockEntityManager, times(2)).clear();
+    }
+
+    @Test
+    @DisplayName("Find public recipes of all persons")
+    void GivenCursorAndLimit_WhenSearchingPublicRecipes_ThenLoadThePageOfAllPersons() {
+        //Given
+        List<RecipeIngredientView> views = List.of(mock(RecipeIngredientView.class));
+
+        when(mockPartitionedRecipeSearch.searchIds(any(), eq(3L), eq(2)))
+                .thenReturn(List.of(4L, 7L));
+
+        when(mockRecipeRepository.findIngredientViewsByRecipeIdIn(List.of(4L, 7L)))
+                .thenReturn(views);
+
+        //When
+        List<RecipeIngredientView> result = recipeService.searchPublicViews(Optional.of(true), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(3L), 2);
+
+        //Then
+        assertThat(result).isEqualTo(views);
+        verify(mockPersonService, never()).getById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Count the facets of the recipes of person")
+    void GivenPersonId_WhenCountingFacets_ThenCountEveryFacetFromOneQuery() {
+        //Given
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        doAnswer(invocation -> {
+            Consumer<RecipeFacetRow> consumer = invocation.getArgument(1);
+            consumer.accept(new RecipeFacetRow(1L, 2, 0, "Tomato"));
+            consumer.accept(new RecipeFacetRow(1L, 2, 0, "Potato"));
+            consumer.accept(new RecipeFacetRow(2L, 4, 1, "Tomato"));
+            return null;
+        }).when(mockRecipeRepository).forEachFacetRow(any(), any());
+
+        //When
+        RecipeFacets result = recipeService.facets(1L, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+
+        //Then
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getIngredients()).isEqualTo(Map.of("Potato", 1L, "Tomato", 2L));
+        assertThat(result.getServings()).isEqualTo(Map.of(2, 1L, 4, 1L));
+        assertThat(result.getVegetarian()).isEqualTo(Map.of(true, 1L, false, 1L));
+        verify(mockRecipeRepository, times(1)).forEachFacetRow(any(), any());
+    }
+
+    @Test
+    @DisplayName("Find ranked recipes of person")
+    void GivenPersonIdAndQuery_WhenRankingRecipes_ThenReturnRecipesInRankOrder() {
+        //Given
+        Recipe salsa = new Recipe("Tomato salsa", 3, person);
+        salsa.setId(1L);
+        Recipe potatoes = new Recipe("Potatoes with tomato", 2, person);
+        potatoes.setId(2L);
+
+        when(mockPersonService.getById(anyLong()))
+                .thenReturn(person);
+
+        when(mockRecipeSearchIndex.rank(1L, "tomato", 10))
+                .thenReturn(List.of(2L, 1L));
+
+        when(mockRecipeRepository.findWithInstructionsByIdIn(any()))
+                .thenReturn(List.of(salsa, potatoes));
+
+        //When
+        List<Recipe> result = recipeService.rankedSearch(1L, "tomato", 10);
+
+        //Then
+        assertThat(result).isEqualTo(List.of(potatoes, salsa));
+    }
+
     @Test
     @DisplayName("Successfully create new recipe")
     void GivenNameNumberOfServingsAndPersonId_WhenCreatingRecipe_ThenReturnCreatedRecipe() {
@@ -123,6 +377,7 @@ class RecipeServiceTest {
         assertThat(result.getCreatedBy().getId()).isEqualTo(person.getId());
 
         verify(mockRecipeRepository, times(1)).save(any());
+        verify(mockRecipeSearchCache, times(1)).invalidatePerson(1L);
     }
 
     @Test
@@ -139,7 +394,7 @@ class RecipeServiceTest {
         recipe.setNumberOfServings(8);
         recipe.setName("ModifiedRecipe");
 
-        when(mockRecipeRepository.findById(anyLong()))
+        when(mockRecipeRepository.findWithInstructionsById(anyLong()))
                 .thenReturn(Optional.of(recipe));
 
         when(mockRecipeRepository.save(any()))
@@ -153,9 +408,39 @@ class RecipeServiceTest {
         assertThat(result.getNumberOfServings()).isEqualTo(recipe.getNumberOfServings());
         assertThat(result.getCreatedBy().getId()).isEqualTo(person.getId());
 
+        verify(mockRecipeRepository, times(1)).findWithInstructionsById(1L);
         verify(mockRecipeRepository, times(1)).save(any());
     }
 
+    @Test
+    @DisplayName("Modify non-existing recipe")
+    void GivenNonExistingRecipe_WhenUpdatingRecipe_ThenThrowNotFoundAfterOneQuery() {
+        //Given
+        when(mockRecipeRepository.findWithInstructionsById(anyLong()))
+                .thenReturn(Optional.empty());
+
+        //When / Then
+        assertThatThrownBy(() -> recipeService.modifyRecipe(100L, 1L, new HashMap<>())).isInstanceOf(RecipeNotFoundException.class);
+        verify(mockRecipeRepository, times(1)).findWithInstructionsById(100L);
+        verifyNoMoreInteractions(mockRecipeRepository);
+    }
+
+    @Test
+    @DisplayName("Modify recipe of another person")
+    void GivenRecipeOfOtherPerson_WhenUpdatingRecipe_ThenThrowUnauthorizedAfterOneQuery() {
+        //Given
+        recipe.setId(1L);
+        person.setId(2L);
+
+        when(mockRecipeRepository.findWithInstructionsById(anyLong()))
+                .thenReturn(Optional.of(recipe));
+
+        //When / Then
+        assertThatThrownBy(() -> recipeService.modifyRecipe(1L, 1L, new HashMap<>())).isInstanceOf(UnauthorizedException.class);
+        verify(mockRecipeRepository, times(1)).findWithInstructionsById(1L);
+        verifyNoMoreInteractions(mockRecipeRepository);
+    }
+
 
     @Test
     @DisplayName("Delete recipe")
@@ -164,28 +449,29 @@ class RecipeServiceTest {
         recipe.setId(1L);
         person.setId(1L);
 
-        when(mockRecipeRepository.findById(anyLong()))
+        when(mockRecipeRepository.findWithInstructionsById(anyLong()))
                 .thenReturn(Optional.of(recipe));
 
         //When
         recipeService.delete(1L, 1L);
 
         //Then
-        verify(mockRecipeRepository, times(1)).delete(any());
-        verify(mockRecipeRepository, times(2)).findById(anyLong());
+        verify(mockRecipeRepository, times(1)).delete(recipe);
+        verify(mockRecipeRepository, times(1)).findWithInstructionsById(1L);
+        verify(mockRecipeSearchCache, times(1)).invalidatePerson(1L);
     }
 
     @Test
     @DisplayName("Successfully create new instruction")
     void GivenVariablesForInstruction_WhenCreatingInstruction_ThenReturnCreatedInstruction() {
         //Given
-        when(mockInstructionService.create(anyString(), anyString(), anyLong()))
+        when(mockInstructionService.create(anyString(), anyString(), any()))
                 .thenReturn(instruction);
 
         recipe.setId(1L);
         person.setId(1L);
 
-        when(mockRecipeRepository.findById(anyLong()))
+        when(mockRecipeRepository.findWithInstructionsById(anyLong()))
                 .thenReturn(Optional.of(recipe));
 
         //When
@@ -196,7 +482,7 @@ class RecipeServiceTest {
         assertThat(result.getIngredient()).isEqualTo(instruction.getIngredient());
         assertThat(result.getWayOfPreperation()).isEqualTo(instruction.getWayOfPreperation());
 
-        verify(mockInstructionService, times(1)).create(anyString(), anyString(), anyLong());
+        verify(mockInstructionService, times(1)).create(anyString(), anyString(), eq(recipe));
     }
 
     @Test
@@ -206,13 +492,14 @@ class RecipeServiceTest {
         recipe.setId(1L);
         person.setId(1L);
 
-        when(mockRecipeRepository.findById(anyLong()))
+        when(mockRecipeRepository.findWithInstructionsById(anyLong()))
                 .thenReturn(Optional.of(recipe));
 
         //When
         recipeService.deleteInstruction(1L, 1L, 1L);
 
         //Then
-        verify(mockInstructionService, times(1)).delete(anyLong(), any());
+        verify(mockInstructionService, times(1)).delete(1L, recipe);
+        verify(mockRecipeRepository, times(1)).findWithInstructionsById(1L);
     }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.cache.RecipeSearchCache;
+import nl.quintor.abn.recipe.exception.InvalidImportException;
+import nl.quintor.abn.recipe.exception.UnauthorizedException;
+import nl.quintor.abn.recipe.model.ImportCheckpoint;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.model.Recipe;
+import nl.quintor.abn.recipe.repository.ImportCheckpointRepository;
+import nl.quintor.abn.recipe.repository.RecipeRepository;
+import nl.quintor.abn.recipe.search.RecipeSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeStreamImportServiceTest {
+
+    private static final String IMPORT_ID = "nightly";
+
+    @Mock
+    PersonService mockPersonService;
+
+    @Mock
+    RecipeImportService mockRecipeImportService;
+
+    @Mock
+    RecipeRepository mockRecipeRepository;
+
+    @Mock
+    ImportCheckpointRepository mockImportCheckpointRepository;
+
+    @Mock
+    RecipeSearchIndex mockRecipeSearchIndex;
+
+    @Mock
+    RecipeSearchCache mockRecipeSearchCache;
+
+    @Mock
+    PlatformTransactionManager mockTransactionManager;
+
+    RecipeStreamImportService recipeStreamImportService;
+
+    Person person;
+    List<Long> committedRecords;
+
+    @BeforeEach
+    void init() {
+        // Batches of 2 recipes with 1 batch in flight
+        recipeStreamImportService = new RecipeStreamImportService(mockPersonService, mockRecipeImportService, mockRecipeRepository, mockImportCheckpointRepository,
+                mockRecipeSearchIndex, mockRecipeSearchCache, mockTransactionManager, 2, 1, 1);
+
+        person = new Person("Importer", "Password");
+        person.setId(1L);
+        committedRecords = new ArrayList<>();
+
+        when(mockPersonService.getById(1L))
+                .thenReturn(person);
+        when(mockTransactionManager.getTransaction(any()))
+                .thenReturn(new SimpleTransactionStatus());
+        lenient().when(mockImportCheckpointRepository.save(any()))
+                .thenAnswer(invocation -> {
+                    ImportCheckpoint checkpoint = invocation.getArgument(0);
+                    committedRecords.add(checkpoint.getRecords());
+                    return checkpoint;
+                });
+    }
+
+    @AfterEach
+    void shutdown() {
+        recipeStreamImportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Save the stream in batches with a checkpoint per batch")
+    void GivenStream_WhenImporting_ThenSaveBatchesAndCheckpoints() {
+        //Given
+        when(mockImportCheckpointRepository.findById(IMPORT_ID))
+                .thenReturn(Optional.empty());
+        prepareAllRecipes();
+
+        //When
+        RecipeStreamImportResult result = recipeStreamImportService.importStream(1L, IMPORT_ID, records(5).iterator());
+
+        //Then
+        assertThat(result.getResumedRecords()).isZero();
+        assertThat(result.getImportedRecipes()).isEqualTo(5);
+        assertThat(committedRecords).containsExactly(0L, 2L, 4L, 5L);
+
+        verify(mockRecipeImportService).prepare(eq(person), anyList(), eq(0L));
+        verify(mockRecipeImportService).prepare(eq(person), anyList(), eq(2L));
+        verify(mockRecipeImportService).prepare(eq(person), anyList(), eq(4L));
+        verify(mockRecipeRepository, times(3)).saveAll(anyList());
+        verify(mockTransactionManager, times(4)).commit(any());
+        verify(mockRecipeSearchIndex, times(1)).invalidatePerson(1L);
+        verify(mockRecipeSearchCache, times(1)).invalidatePerson(1L);
+    }
+
+    @Test
+    @DisplayName("Skip the records before the checkpoint of an earlier run")
+    void GivenCheckpoint_WhenImportingAgain_ThenResumeAfterCheckpoint() {
+        //Given
+        ImportCheckpoint checkpoint = new ImportCheckpoint(IMPORT_ID, person);
+        checkpoint.setRecords(3);
+        when(mockImportCheckpointRepository.findById(IMPORT_ID))
+                .thenReturn(Optional.of(checkpoint));
+        prepareAllRecipes();
+
+        //When
+        RecipeStreamImportResult result = recipeStreamImportService.importStream(1L, IMPORT_ID, records(5).iterator());
+
+        //Then
+        assertThat(result.getResumedRecords()).isEqualTo(3);
+        assertThat(result.getImportedRecipes()).isEqualTo(2);
+        assertThat(committedRecords).containsExactly(5L);
+
+        verify(mockRecipeImportService, times(1)).prepare(eq(person), eq(records(5).subList(3, 5)), eq(3L));
+    }
+
+    @Test
+    @DisplayName("Keep the committed batches when a record cannot be read")
+    void GivenUnreadableRecord_WhenImporting_ThenThrowExceptionAfterCommittedBatches() {
+        //Given
+        when(mockImportCheckpointRepository.findById(IMPORT_ID))
+                .thenReturn(Optional.empty());
+        prepareAllRecipes();
+
+        Iterator<ImportedRecipe> readable = records(3).iterator();
+        Iterator<ImportedRecipe> records = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public ImportedRecipe next() {
+                if (readable.hasNext()) {
+                    return readable.next();
+                }
+                throw new IllegalArgumentException("Unexpected character");
+            }
+        };
+
+        //When / Then
+        assertThatThrownBy(() -> recipeStreamImportService.importStream(1L, IMPORT_ID, records))
+                .isInstanceOf(InvalidImportException.class)
+                .hasMessage("Record 3 could not be read, the first 2 records are committed and skipped when the import is sent again: Unexpected character");
+        assertThat(committedRecords).containsExactly(0L, 2L);
+    }
+
+    @Test
+    @DisplayName("Invalidate the search of the person when a later batch fails")
+    void GivenFailingLaterBatch_WhenImporting_ThenInvalidateSearchForCommittedBatches() {
+        //Given
+        when(mockImportCheckpointRepository.findById(IMPORT_ID))
+                .thenReturn(Optional.empty());
+        prepareAllRecipes();
+        when(mockRecipeRepository.saveAll(anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("Connection lost"));
+
+        //When / Then
+        assertThatThrownBy(() -> recipeStreamImportService.importStream(1L, IMPORT_ID, records(5).iterator()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Connection lost");
+        assertThat(committedRecords).containsExactly(0L, 2L);
+
+        verify(mockRecipeSearchIndex, times(1)).invalidatePerson(1L);
+        verify(mockRecipeSearchCache, times(1)).invalidatePerson(1L);
+    }
+
+    @Test
+    @DisplayName("Keep the search of the person when the first batch fails")
+    void GivenFailingFirstBatch_WhenImporting_ThenKeepSearch() {
+        //Given
+        when(mockImportCheckpointRepository.findById(IMPORT_ID))
+                .thenReturn(Optional.empty());
+        prepareAllRecipes();
+        when(mockRecipeRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("Connection lost"));
+
+        //When / Then
+        assertThatThrownBy(() -> recipeStreamImportService.importStream(1L, IMPORT_ID, records(5).iterator()))
+                .isInstanceOf(IllegalStateException.class);
+
+        verifyNoInteractions(mockRecipeSearchIndex, mockRecipeSearchCache);
+    }
+
+    @Test
+    @DisplayName("Refuse to resume the import of another person")
+    void GivenCheckpointOfOtherPerson_WhenImporting_ThenThrowException() {
+        //Given
+        Person otherPerson = new Person("Other", "Password");
+        otherPerson.setId(2L);
+        when(mockImportCheckpointRepository.findById(IMPORT_ID))
+                .thenReturn(Optional.of(new ImportCheckpoint(IMPORT_ID, otherPerson)));
+
+        //When / Then
+        assertThatThrownBy(() -> recipeStreamImportService.importStream(1L, IMPORT_ID, records(1).iterator()))
+                .isInstanceOf(UnauthorizedException.class);
+        verifyNoInteractions(mockRecipeImportService, mockRecipeRepository);
+    }
+
+    private void prepareAllRecipes() {
+        when(mockRecipeImportService.prepare(any(), anyList(), anyLong()))
+                .thenAnswer(invocation -> {
+                    List<ImportedRecipe> imports = invocation.getArgument(1);
+                    List<Recipe> recipes = imports.stream()
+                            .map(imported -> new Recipe(imported.getName(), imported.getNumberOfServings(), person))
+                            .collect(Collectors.toList());
+                    return new PreparedRecipes(recipes, List.of(), List.of());
+                });
+    }
+
+    private static List<ImportedRecipe> records(int amount) {
+        List<ImportedRecipe> records = new ArrayList<>();
+        for (int i = 0; i < amount; i++) {
+            records.add(new ImportedRecipe("Streamed recipe " + i, 2, List.of()));
+        }
+        return records;
+    }
+}
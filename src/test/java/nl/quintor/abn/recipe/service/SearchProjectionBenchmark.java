@@ -0,0 +1,97 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.RecipeApplication;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeDto;
+import nl.quintor.abn.recipe.controller.dto.recipe.RecipeMapper;
+import nl.quintor.abn.recipe.model.Ingredient;
+import nl.quintor.abn.recipe.model.Instruction;
+import nl.quintor.abn.recipe.model.Person;
+import nl.quintor.abn.recipe.model.Recipe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the search mapped from managed entities with the search assembled from flat projection rows.
+ * Run it with the main method from the test classpath, the GC profiler reports the allocation per search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchProjectionBenchmark {
+
+    private static final int RECIPES = 2_000;
+    private static final int INSTRUCTIONS_PER_RECIPE = 5;
+
+    @Param({"10", "1000"})
+    private int limit;
+
+    private ConfigurableApplicationContext context;
+    private RecipeService recipeService;
+    private long personId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RecipeApplication.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:projection-benchmark", "server.port=0", "logging.level.root=WARN")
+                .run();
+        recipeService = context.getBean(RecipeService.class);
+
+        EntityManager entityManager = context.getBean(EntityManager.class);
+        personId = new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            Person person = new Person("Benchmark", "Password");
+            entityManager.persist(person);
+
+            Ingredient pumpkin = new Ingredient("Benchmark pumpkin", true);
+            entityManager.persist(pumpkin);
+
+            for (int i = 0; i < RECIPES; i++) {
+                Recipe recipe = new Recipe("Pumpkin soup " + i, 2, person);
+                for (int j = 0; j < INSTRUCTIONS_PER_RECIPE; j++) {
+                    recipe.getInstructionList().add(new Instruction("Cut the pumpkin in pieces " + j, pumpkin, recipe));
+                }
+                entityManager.persist(recipe);
+            }
+            return person.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RecipeDto> entities() {
+        return RecipeMapper.INSTANCE.toListRecipeDto(recipeService.search(personId, Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(limit)));
+    }
+
+    @Benchmark
+    public List<RecipeDto> projection() {
+        return RecipeMapper.INSTANCE.fromIngredientViews(recipeService.searchViews(personId, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), RecipeSort.ID, Sort.Direction.ASC, Optional.empty(), Optional.of(limit)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SearchProjectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+package nl.quintor.abn.recipe.service;
+
+import nl.quintor.abn.recipe.exception.IngredientAlreadyExistException;
+import nl.quintor.abn.recipe.exception.PersonAlreadyExistEception;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creates the same ingredients and persons from many threads at once. Every thread waits on a latch, so the inserts
+ * race each other, and exactly one insert per name may win. Uses the same context as the ITs with names that are
+ * not used by other tests.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UniqueCreateConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int NAMES = 5;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private PersonService personService;
+
+    @Test
+    @DisplayName("Exactly one concurrent create per ingredient name succeeds")
+    void GivenConcurrentCreates_WhenCreatingIngredients_ThenOneWinnerPerName() throws Exception {
+        for (int name = 0; name < NAMES; name++) {
+            String ingredientName = "Contended ingredient " + name;
+
+            //When
+            Outcome outcome = race(() -> {
+                ingredientService.createIngredient(ingredientName, true);
+                return null;
+            }, IngredientAlreadyExistException.class);
+
+            //Then
+            assertThat(outcome.winners).isEqualTo(1);
+            assertThat(outcome.conflicts).isEqualTo(THREADS - 1);
+            assertThat(ingredientService.findByName(ingredientName).getName()).isEqualTo(ingredientName);
+        }
+    }
+
+    @Test
+    @DisplayName("Exactly one concurrent create per username succeeds")
+    void GivenConcurrentCreates_WhenCreatingPersons_ThenOneWinnerPerUsername() throws Exception {
+        for (int name = 0; name < NAMES; name++) {
+            String username = "Contended person " + name;
+
+            //When
+            Outcome outcome = race(() -> {
+                personService.createPerson(username, "Password");
+                return null;
+            }, PersonAlreadyExistEception.class);
+
+            //Then
+            assertThat(outcome.winners).isEqualTo(1);
+            assertThat(outcome.conflicts).isEqualTo(THREADS - 1);
+        }
+    }
+
+    private Outcome race(Callable<Void> create, Class<? extends RuntimeException> conflict) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return create.call();
+            }));
+        }
+        start.countDown();
+
+        Outcome outcome = new Outcome();
+        for (Future<Void> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                outcome.winners++;
+            } catch (ExecutionException exception) {
+                assertThat(exception.getCause()).isInstanceOf(conflict);
+                outcome.conflicts++;
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+        executor.shutdown();
+        return outcome;
+    }
+
+    private static class Outcome {
+        private int winners;
+        private int conflicts;
+    }
+}
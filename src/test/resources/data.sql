@@ -1,47 +1,49 @@
-INSERT INTO person (username, password)
-VALUES ('Quintor', 'Password');
-INSERT INTO person (username, password)
-VALUES ('User2', 'Password');
-
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Spinach', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Potato', true);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Tomato', true);
-
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Meat', false);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Chicken', false);
-INSERT INTO ingredient (name, vegetarian)
-VALUES ('Rib Eye', false);
-
-
-INSERT INTO recipe (name, number_of_servings, created_by_id)
-VALUES ('Lasagne with spinach', 3, 1);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('Put in a bowl and steer it', 1, 1);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('300G in the Oven for 10 minutes', 4, 1);
-
-INSERT INTO recipe (name, number_of_servings, created_by_id)
-VALUES ('Potato with tomato', 3, 1);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('200G in the Oven for 5 minutes', 2, 2);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('300G in the Oven at 200 degrees for 10 minutes', 3, 2);
-
-INSERT INTO recipe (name, number_of_servings, created_by_id)
-VALUES ('Potato with tomato', 3, 2);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('200G in the Oven for 5 minutes', 2, 3);
-INSERT INTO instruction (way_of_preperation, ingredient_id, recipe_id)
-VALUES ('300G in the Oven at 200 degrees for 10 minutes', 3, 3);
-
-INSERT INTO recipe (name, number_of_servings, created_by_id)
-VALUES ('Lasagne with spinach', 4, 2);
-
-
-
-
+INSERT INTO person (id, username, password)
+VALUES (1, 'Quintor', 'Password');
+INSERT INTO person (id, username, password)
+VALUES (2, 'User2', 'Password');
+
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (1, 'Spinach', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (2, 'Potato', true);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (3, 'Tomato', true);
+
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (4, 'Meat', false);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (5, 'Chicken', false);
+INSERT INTO ingredient (id, name, vegetarian)
+VALUES (6, 'Rib Eye', false);
+
+
+INSERT INTO recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id)
+VALUES (1, 'Lasagne with spinach', 3, 1, 1);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (1, 'Put in a bowl and steer it', 1, 1);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (2, '300G in the Oven for 10 minutes', 4, 1);
+
+INSERT INTO recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id)
+VALUES (2, 'Potato with tomato', 3, 0, 1);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (3, '200G in the Oven for 5 minutes', 2, 2);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (4, '300G in the Oven at 200 degrees for 10 minutes', 3, 2);
+
+INSERT INTO recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id)
+VALUES (3, 'Potato with tomato', 3, 0, 2);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (5, '200G in the Oven for 5 minutes', 2, 3);
+INSERT INTO instruction (id, way_of_preperation, ingredient_id, recipe_id)
+VALUES (6, '300G in the Oven at 200 degrees for 10 minutes', 3, 3);
+
+INSERT INTO recipe (id, name, number_of_servings, non_vegetarian_ingredients, created_by_id)
+VALUES (4, 'Lasagne with spinach', 4, 0, 2);
+
+-- The IDs above are explicit, the sequences hand out the IDs after them
+ALTER SEQUENCE person_seq RESTART WITH 3;
+ALTER SEQUENCE ingredient_seq RESTART WITH 7;
+ALTER SEQUENCE recipe_seq RESTART WITH 5;
+ALTER SEQUENCE instruction_seq RESTART WITH 7;